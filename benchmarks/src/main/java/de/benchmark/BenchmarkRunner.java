@@ -0,0 +1,51 @@
+package de.benchmark;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Set;
+
+/**
+ * Entry point of {@code benchmarks.jar}: the JMH command line, with the gc profiler (allocation per op)
+ * enabled and JSON results written to {@code target/jmh-results/<timestamp>.json} unless given otherwise.
+ * Two result files can be compared with {@link CompareResults}.
+ */
+public final class BenchmarkRunner {
+
+    private static final Set<String> INFO_OPTIONS = Set.of("-h", "-l", "-lp", "-lprof", "-lrf", "-v");
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (String arg : args) {
+            if (INFO_OPTIONS.contains(arg)) {
+                Main.main(args);
+                return;
+            }
+        }
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+        if (cmd.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!cmd.getResult().hasValue()) {
+            Path dir = Files.createDirectories(Path.of("target", "jmh-results"));
+            String name = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json";
+            options.result(dir.resolve(name).toString());
+            if (!cmd.getResultFormat().hasValue()) {
+                options.resultFormat(ResultFormatType.JSON);
+            }
+        }
+        new Runner(options.build()).run();
+    }
+}
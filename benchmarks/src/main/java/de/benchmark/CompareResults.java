@@ -0,0 +1,70 @@
+package de.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files (e.g. of two releases) per benchmark and parameter set:
+ * score and allocation per op, with the relative change.
+ * <pre>
+ *   java -cp benchmarks/target/benchmarks.jar de.benchmark.CompareResults old.json new.json
+ * </pre>
+ */
+public final class CompareResults {
+
+    private static final String ALLOC = "gc.alloc.rate.norm";
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: CompareResults <baseline.json> <current.json>");
+            System.exit(2);
+        }
+        Map<String, JsonNode> baseline = read(Path.of(args[0]));
+        Map<String, JsonNode> current = read(Path.of(args[1]));
+
+        System.out.printf("%-70s %14s %14s %8s %14s %14s %8s%n",
+                "benchmark", "score before", "score after", "change", "B/op before", "B/op after", "change");
+        for (Map.Entry<String, JsonNode> e : current.entrySet()) {
+            JsonNode after = e.getValue();
+            JsonNode before = baseline.get(e.getKey());
+            double scoreAfter = after.path("primaryMetric").path("score").asDouble();
+            double allocAfter = after.path("secondaryMetrics").path(ALLOC).path("score").asDouble(Double.NaN);
+            double scoreBefore = before != null ? before.path("primaryMetric").path("score").asDouble() : Double.NaN;
+            double allocBefore = before != null
+                    ? before.path("secondaryMetrics").path(ALLOC).path("score").asDouble(Double.NaN) : Double.NaN;
+            System.out.printf("%-70s %14.3f %14.3f %8s %14.0f %14.0f %8s  %s%n", e.getKey(),
+                    scoreBefore, scoreAfter, change(scoreBefore, scoreAfter),
+                    allocBefore, allocAfter, change(allocBefore, allocAfter),
+                    after.path("primaryMetric").path("scoreUnit").asText());
+        }
+    }
+
+    private static Map<String, JsonNode> read(Path file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+            StringBuilder key = new StringBuilder(run.path("benchmark").asText()
+                    .replace("de.benchmark.", ""));
+            Iterator<Map.Entry<String, JsonNode>> params = run.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> p = params.next();
+                key.append(' ').append(p.getKey()).append('=').append(p.getValue().asText());
+            }
+            results.put(key.toString(), run);
+        }
+        return results;
+    }
+
+    private static String change(double before, double after) {
+        if (Double.isNaN(before) || Double.isNaN(after) || before == 0) return "-";
+        return String.format("%+.1f%%", (after - before) * 100 / before);
+    }
+}
@@ -0,0 +1,95 @@
+package de.benchmark;
+
+import de.service.impl.csv.CsvTokenizer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link CsvTokenizer} against the regex splitter that the CSV import used before.
+ * Both variants produce the same values per row (symbol, prices, quantity, timestamp, tags, notes).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvTokenizerBenchmark {
+
+    private static final String SPLIT_REGEX = ",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)";
+    private static final DateTimeFormatter DTF = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss");
+
+    @Param({"10000"})
+    public int rows;
+
+    private String csv;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder("Symbol,EntryPrice,ExitPrice,Quantity,Timestamp,Tags,Notes\n");
+        String[] symbols = {"AAPL", "MSFT", "EURUSD", "TSLA", "NVDA"};
+        for (int i = 0; i < rows; i++) {
+            sb.append(symbols[i % symbols.length]).append(',')
+                    .append(100 + i % 50).append('.').append(i % 100).append(',')
+                    .append(101 + i % 60).append(".25,")
+                    .append(1 + i % 20).append(".0,")
+                    .append(String.format("%02d.10.2025 %02d:%02d:%02d,", 1 + i % 28, i % 24, i % 60, (i * 7) % 60))
+                    .append("\"breakout;swing\",")
+                    .append("\"entry on retest, stop below VWAP\"\n");
+        }
+        csv = sb.toString();
+    }
+
+    @Benchmark
+    public void tokenizer(Blackhole bh) throws Exception {
+        try (CsvTokenizer tokenizer = new CsvTokenizer(new StringReader(csv))) {
+            tokenizer.next();
+            while (tokenizer.next()) {
+                bh.consume(tokenizer.getString(0));
+                bh.consume(tokenizer.getDouble(1));
+                bh.consume(tokenizer.getDouble(2));
+                bh.consume(tokenizer.getDouble(3));
+                bh.consume(tokenizer.getTimestamp(4));
+                Set<String> tags = new HashSet<>();
+                tokenizer.splitInto(5, tags);
+                bh.consume(tags);
+                bh.consume(tokenizer.getString(6));
+            }
+        }
+    }
+
+    @Benchmark
+    public void regexSplit(Blackhole bh) throws Exception {
+        try (BufferedReader br = new BufferedReader(new StringReader(csv))) {
+            br.readLine();
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] tokens = line.split(SPLIT_REGEX, -1);
+                bh.consume(field(tokens, 0));
+                bh.consume(Double.parseDouble(field(tokens, 1).replace(",", ".")));
+                bh.consume(Double.parseDouble(field(tokens, 2).replace(",", ".")));
+                bh.consume(Double.parseDouble(field(tokens, 3).replace(",", ".")));
+                bh.consume(LocalDateTime.parse(field(tokens, 4), DTF));
+                Set<String> tags = new HashSet<>();
+                for (String t : field(tokens, 5).split("[;|,]")) {
+                    String s = t.trim().replaceAll("^\"|\"$", "");
+                    if (!s.isEmpty()) tags.add(s);
+                }
+                bh.consume(tags);
+                bh.consume(field(tokens, 6).replaceAll("^\"|\"$", ""));
+            }
+        }
+    }
+
+    private static String field(String[] tokens, int i) {
+        return tokens[i].trim().replaceAll("^\"|\"$", "");
+    }
+}
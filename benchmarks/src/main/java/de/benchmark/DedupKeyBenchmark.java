@@ -0,0 +1,63 @@
+package de.benchmark;
+
+import de.model.trade.TradeKey;
+import de.service.impl.TradeKeyBloomFilter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Duplicate keys of one import: {@link TradeKey} records in a {@link HashSet} (in-file check) versus the
+ * primitive-hashing {@link TradeKeyBloomFilter} (check against stored trades).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DedupKeyBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    private String[] symbols;
+    private Double[] entryPrices;
+    private LocalDateTime[] timestamps;
+
+    @Setup
+    public void setUp() {
+        String[] names = {"AAPL", "MSFT", "EURUSD", "TSLA", "NVDA"};
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 8, 0);
+        symbols = new String[rows];
+        entryPrices = new Double[rows];
+        timestamps = new LocalDateTime[rows];
+        for (int i = 0; i < rows; i++) {
+            symbols[i] = names[i % names.length];
+            entryPrices[i] = 100 + (i % 5000) * 0.01;
+            timestamps[i] = start.plusMinutes(i);
+        }
+    }
+
+    @Benchmark
+    public int tradeKeyHashSet() {
+        Set<TradeKey> keys = new HashSet<>();
+        for (int i = 0; i < rows; i++) {
+            keys.add(new TradeKey(symbols[i], entryPrices[i], timestamps[i]));
+        }
+        return keys.size();
+    }
+
+    @Benchmark
+    public void bloomFilter(Blackhole bh) {
+        TradeKeyBloomFilter filter = new TradeKeyBloomFilter(rows, 0.01);
+        for (int i = 0; i < rows; i++) {
+            bh.consume(filter.mightContain(symbols[i], entryPrices[i], timestamps[i]));
+            filter.add(symbols[i], entryPrices[i], timestamps[i]);
+        }
+    }
+}
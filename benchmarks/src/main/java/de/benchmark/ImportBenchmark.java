@@ -0,0 +1,48 @@
+package de.benchmark;
+
+import de.model.importjob.ImportFormat;
+import de.model.trade.ImportResult;
+import de.service.TradesService;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end import of generated CSV and XLSX files (parsing, in-file duplicate check, Bloom filter and
+ * batching) with the database replaced by {@link NoDatabase}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class ImportBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"CSV", "XLSX"})
+    public ImportFormat format;
+
+    // CSV only; the Excel import is a single SAX pass
+    @Param({"1", "4"})
+    public int parserThreads;
+
+    private Path file;
+    private TradesService tradesService;
+
+    @Setup
+    public void setUp() throws Exception {
+        file = format == ImportFormat.CSV ? TradeFileGenerator.csv(rows) : TradeFileGenerator.xlsx(rows);
+        tradesService = NoDatabase.tradesService(1000, parserThreads);
+    }
+
+    @Benchmark
+    public ImportResult importFile() throws Exception {
+        ImportResult result = new ImportResult();
+        tradesService.importTrades(file, format, result);
+        return result;
+    }
+}
@@ -0,0 +1,78 @@
+package de.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import de.model.trade.Trade;
+import de.model.trade.TradeView;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON for trade lists, with the mapper set up as Spring Boot does: {@link Trade} entities (old list
+ * endpoint), {@link TradeView} rows (paged list) and the streamed array of {@code /api/trades/stream}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    private final ObjectMapper mapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private List<Trade> trades;
+    private List<TradeView> views;
+
+    @Setup
+    public void setUp() {
+        trades = new ArrayList<>(rows);
+        views = new ArrayList<>(rows);
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 8, 0);
+        for (int i = 0; i < rows; i++) {
+            Trade t = new Trade("SYM" + i % 50, 100.0 + i % 50, 101.0 + i % 60, 1.0 + i % 20, null,
+                    start.plusMinutes(i), Set.of("swing", "tag" + i % 10), "entry on retest");
+            t.setId((long) i + 1);
+            trades.add(t);
+            views.add(new TradeView(t.getId(), t.getSymbol(), t.getEntryPrice(), t.getExitPrice(), t.getQuantity(),
+                    t.getProfitLoss(), t.getTimestamp(), List.copyOf(t.getTags()), t.getNotes()));
+        }
+    }
+
+    @Benchmark
+    public byte[] entities() throws IOException {
+        return mapper.writeValueAsBytes(trades);
+    }
+
+    @Benchmark
+    public byte[] views() throws IOException {
+        return mapper.writeValueAsBytes(views);
+    }
+
+    @Benchmark
+    public void streamedViews() throws IOException {
+        try (JsonGenerator json = mapper.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+            json.writeStartArray();
+            for (TradeView view : views) {
+                json.writeObject(view);
+            }
+            json.writeEndArray();
+        }
+    }
+}
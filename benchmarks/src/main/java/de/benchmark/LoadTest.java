@@ -0,0 +1,317 @@
+package de.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.TradeSenseApplication;
+import de.model.trade.Trade;
+import de.service.impl.TradeBatchWriter;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Load test of the web tier in platform-thread and virtual-thread mode ({@code spring.threads.virtual.enabled}).
+ * For every mode the application is started on a random port against the scratch schema
+ * {@code tradesense_bench_load} (recreated and seeded each time), then concurrent clients run
+ * {@code GET /api/trades}, {@code GET /api/trades/stats} and slow {@code POST /api/trades/upload}s, whose body
+ * trickles in over a few seconds like a large upload on a slow link. Reports throughput and latency
+ * percentiles per endpoint and mode, and writes them to {@code target/load-results/<timestamp>.json}.
+ * <pre>
+ *   java -Djdk.tracePinnedThreads=short -cp benchmarks/target/benchmarks.jar de.benchmark.LoadTest \
+ *        --clients=trades:100,stats:50,upload:300 --duration=30 --upload-seconds=2 --modes=platform,virtual
+ * </pre>
+ * {@code -Djdk.tracePinnedThreads=short} prints a stack trace whenever a virtual thread blocks while pinned
+ * to its carrier (e.g. inside {@code synchronized}).
+ */
+public final class LoadTest {
+
+    private static final String SCHEMA = "tradesense_bench_load";
+    private static final String BOUNDARY = "tradesense-load-test";
+
+    private final Map<String, String> options;
+    private final Map<String, Integer> clients = new LinkedHashMap<>();
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final int uploadSeconds;
+    private final int rows;
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+        for (String part : options.getOrDefault("clients", "trades:100,stats:50,upload:300").split(",")) {
+            String[] kv = part.split(":");
+            clients.put(kv[0], Integer.parseInt(kv[1]));
+        }
+        this.durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        this.warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        this.uploadSeconds = Integer.parseInt(options.getOrDefault("upload-seconds", "2"));
+        this.rows = Integer.parseInt(options.getOrDefault("rows", "10000"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(kv[0], kv.length > 1 ? kv[1] : "true");
+        }
+        LoadTest test = new LoadTest(options);
+        Map<String, Map<String, EndpointResult>> results = new LinkedHashMap<>();
+        for (String mode : options.getOrDefault("modes", "platform,virtual").split(",")) {
+            results.put(mode, test.run(mode));
+        }
+        print(results);
+        Path dir = Files.createDirectories(Path.of("target", "load-results"));
+        Path file = dir.resolve(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("options", options);
+        json.put("results", results);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), json);
+        System.out.println("Results written to " + file);
+        System.exit(0);
+    }
+
+    private Map<String, EndpointResult> run(String mode) throws Exception {
+        ConfigurableApplicationContext context = start("virtual".equals(mode));
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String base = "http://localhost:" + port + "/api/trades";
+            byte[] upload = uploadBody();
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .executor(Executors.newCachedThreadPool())
+                    .build();
+
+            long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+            long end = warmupEnd + TimeUnit.SECONDS.toNanos(durationSeconds);
+            Map<String, List<Client>> byEndpoint = new LinkedHashMap<>();
+            System.out.printf("%s threads: %s clients for %d s ...%n", mode, clients, durationSeconds);
+            // the clients use platform threads, so in virtual mode they don't compete with the server for carriers
+            // (the HTTP client pulls the trickling upload body while holding internal locks)
+            try (ExecutorService executor = Executors.newCachedThreadPool()) {
+                clients.forEach((endpoint, count) -> {
+                    List<Client> list = new ArrayList<>();
+                    for (int i = 0; i < count; i++) {
+                        Client client = new Client(() -> request(endpoint, base, upload), http, warmupEnd, end);
+                        list.add(client);
+                        executor.execute(client);
+                    }
+                    byEndpoint.put(endpoint, list);
+                });
+            }
+            Map<String, EndpointResult> results = new LinkedHashMap<>();
+            byEndpoint.forEach((endpoint, list) -> results.put(endpoint, EndpointResult.of(list, durationSeconds)));
+            return results;
+        } finally {
+            context.close();
+        }
+    }
+
+    private HttpRequest request(String endpoint, String base, byte[] upload) {
+        return switch (endpoint) {
+            case "trades" -> HttpRequest.newBuilder(URI.create(base + "?limit=100")).timeout(Duration.ofSeconds(60)).build();
+            case "stats" -> HttpRequest.newBuilder(URI.create(base + "/stats")).timeout(Duration.ofSeconds(60)).build();
+            case "upload" -> HttpRequest.newBuilder(URI.create(base + "/upload"))
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                    .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new TrickleInputStream(upload, uploadSeconds)))
+                    .build();
+            default -> throw new IllegalArgumentException("unknown endpoint " + endpoint);
+        };
+    }
+
+    private ConfigurableApplicationContext start(boolean virtualThreads) throws SQLException {
+        String url = options.getOrDefault("jdbc-url", "jdbc:postgresql://localhost:5432/tradesense");
+        String user = options.getOrDefault("jdbc-user", "postgres");
+        String password = options.getOrDefault("jdbc-password", "postgres");
+        try (Connection con = DriverManager.getConnection(url, user, password); Statement st = con.createStatement()) {
+            st.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            st.execute("CREATE SCHEMA " + SCHEMA);
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TradeSenseApplication.class)
+                // as arguments, so they take precedence over application.properties
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=" + url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA,
+                        "--spring.datasource.username=" + user,
+                        "--spring.datasource.password=" + password,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        seed(context.getBean(TradeBatchWriter.class));
+        return context;
+    }
+
+    private void seed(TradeBatchWriter writer) {
+        String[] symbols = {"AAPL", "MSFT", "EURUSD", "TSLA", "NVDA"};
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<Trade> chunk = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            chunk.add(new Trade(symbols[i % symbols.length], 100.0 + i % 50, 101.0 + i % 60, 1.0 + i % 20, null,
+                    base.plusMinutes(i), Set.of("swing", "tag" + i % 10), "note " + i));
+            if (chunk.size() == 1000) {
+                writer.write(chunk);
+                chunk = new ArrayList<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writer.write(chunk);
+        }
+    }
+
+    // a small CSV of trades that are already stored, so every import ends up skipping all rows
+    private static byte[] uploadBody() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("--").append(BOUNDARY).append("\r\n")
+                .append("Content-Disposition: form-data; name=\"file\"; filename=\"load.csv\"\r\n")
+                .append("Content-Type: text/csv\r\n\r\n")
+                .append("symbol,entryPrice,exitPrice,quantity,timestamp\n");
+        for (int i = 0; i < 200; i++) {
+            sb.append("AAPL,").append(100.0 + i % 50).append(",101.0,1.0,2025-01-01T00:00:00\n");
+        }
+        sb.append("\r\n--").append(BOUNDARY).append("--\r\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void print(Map<String, Map<String, EndpointResult>> results) {
+        System.out.printf("%n%-10s %-8s %10s %10s %10s %10s %10s %10s%n",
+                "mode", "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "max ms", "non-2xx");
+        results.forEach((mode, byEndpoint) -> byEndpoint.forEach((endpoint, r) ->
+                System.out.printf("%-10s %-8s %10d %10.1f %10.1f %10.1f %10.1f %10d%n",
+                        mode, endpoint, r.requests(), r.throughput(), r.p50Millis(), r.p99Millis(), r.maxMillis(),
+                        r.failures())));
+    }
+
+    /**
+     * One simulated user: sends the same kind of request back to back and records latencies after the warm-up.
+     */
+    private static final class Client implements Runnable {
+
+        private final Supplier<HttpRequest> requests;
+        private final HttpClient http;
+        private final long warmupEnd;
+        private final long end;
+        private long[] latencies = new long[256];
+        private int count;
+        private int failures;
+
+        Client(Supplier<HttpRequest> requests, HttpClient http, long warmupEnd, long end) {
+            this.requests = requests;
+            this.http = http;
+            this.warmupEnd = warmupEnd;
+            this.end = end;
+        }
+
+        @Override
+        public void run() {
+            long now;
+            while ((now = System.nanoTime()) < end) {
+                boolean ok;
+                try {
+                    HttpResponse<Void> response = http.send(requests.get(), HttpResponse.BodyHandlers.discarding());
+                    ok = response.statusCode() / 100 == 2;
+                } catch (IOException e) {
+                    ok = false;
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long done = System.nanoTime();
+                if (now < warmupEnd) continue;
+                if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+                latencies[count++] = done - now;
+                if (!ok) failures++;
+            }
+        }
+    }
+
+    record EndpointResult(long requests, double throughput, double p50Millis, double p99Millis, double maxMillis,
+                          long failures) {
+
+        static EndpointResult of(List<Client> clients, int seconds) {
+            int total = clients.stream().mapToInt(c -> c.count).sum();
+            long[] all = new long[total];
+            int pos = 0;
+            long failures = 0;
+            for (Client c : clients) {
+                System.arraycopy(c.latencies, 0, all, pos, c.count);
+                pos += c.count;
+                failures += c.failures;
+            }
+            Arrays.sort(all);
+            return new EndpointResult(total, (double) total / seconds, percentile(all, 0.50), percentile(all, 0.99),
+                    total == 0 ? 0 : all[total - 1] / 1e6, failures);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) return 0;
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+        }
+    }
+
+    /**
+     * Hands out the body in small pieces over the given time, like an upload over a slow connection.
+     */
+    private static final class TrickleInputStream extends InputStream {
+
+        private static final int PIECES = 20;
+
+        private final InputStream body;
+        private final long pauseMillis;
+        private final int pieceSize;
+        private int sinceLastPause;
+
+        TrickleInputStream(byte[] body, int seconds) {
+            this.body = new ByteArrayInputStream(body);
+            this.pauseMillis = seconds * 1000L / PIECES;
+            this.pieceSize = Math.max(1, body.length / PIECES);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (sinceLastPause >= pieceSize) {
+                try {
+                    Thread.sleep(pauseMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+                sinceLastPause = 0;
+            }
+            int n = body.read(b, off, Math.min(len, pieceSize - sinceLastPause));
+            if (n > 0) sinceLastPause += n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package de.benchmark;
+
+import de.config.ImportProperties;
+import de.model.trade.Trade;
+import de.repository.TradeRepository;
+import de.service.TradesService;
+import de.service.impl.CsvImportPipeline;
+import de.service.impl.ImportMetrics;
+import de.service.impl.TradeBatchWriter;
+import de.service.impl.TradeDeduplicator;
+import de.service.impl.TradesServiceImpl;
+import de.service.impl.format.NamedColumnsFormat;
+import de.service.impl.format.PositionalColumnsFormat;
+import de.service.impl.format.TradeSourceFormats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+/**
+ * Import service wired against an empty in-memory "database": every batch counts as inserted, nothing is
+ * written. Measures parsing, in-file duplicate check, Bloom filter and batching without JDBC round trips.
+ */
+final class NoDatabase {
+
+    private NoDatabase() {
+    }
+
+    static TradesService tradesService(int batchSize, int parserThreads) {
+        TradeRepository emptyRepository = (TradeRepository) Proxy.newProxyInstance(
+                TradeRepository.class.getClassLoader(), new Class<?>[]{TradeRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "count" -> 0L;
+                    case "findKeysAfter", "findExistingKeys" -> List.of();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        TradeBatchWriter writer = new TradeBatchWriter(null, null, null, null, event -> { }, null) {
+            @Override
+            public List<Trade> write(List<Trade> trades) {
+                return trades;
+            }
+        };
+        ImportProperties properties = new ImportProperties();
+        properties.setBatchSize(batchSize);
+        properties.setParserThreads(parserThreads);
+        return new TradesServiceImpl(emptyRepository, null, writer, null,
+                new TradeDeduplicator(emptyRepository, properties), properties, event -> { },
+                new ImportMetrics(new SimpleMeterRegistry()), new CsvImportPipeline(properties),
+                new TradeSourceFormats(List.of(new NamedColumnsFormat(), new PositionalColumnsFormat())), null, null);
+    }
+}
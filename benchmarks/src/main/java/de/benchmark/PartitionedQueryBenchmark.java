@@ -0,0 +1,232 @@
+package de.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Range queries of the application against the trades table before and after the monthly partitioning
+ * ({@code V3__partition_trades_by_month.sql}), with the history growing from {@code rows} trades spread over
+ * ten years (2016-2025). {@code layout=flat} migrates a scratch schema up to V2 (one table, the old indexes),
+ * {@code layout=monthly} up to V6 (partitioned; tags still as text, see {@link TagQueryBenchmark} for the
+ * dictionary). The statements are the ones the repositories send:
+ * <ul>
+ *     <li>{@code monthTotals}: {@code /stats?from&to} over one month ({@code TradeRepository.summarize})</li>
+ *     <li>{@code monthTotalsNullableBounds}: the same with the former {@code (:from is null or ...)} predicate,
+ *     which the generic plan of a prepared statement can't prune on</li>
+ *     <li>{@code quarterBySymbol}: per-symbol totals over a quarter</li>
+ *     <li>{@code monthByTag}: per-tag totals over a month (join to {@code trade_tags})</li>
+ *     <li>{@code monthDailyBuckets}: {@code /pnl?interval=day} over a month</li>
+ *     <li>{@code symbolPageInYear}: first list page of one symbol within a year ({@code TradeQueryRepository})</li>
+ * </ul>
+ * Statements are prepared once per trial, so after a few executions PostgreSQL runs its generic plans.
+ * Needs a running PostgreSQL, connection as for {@link StatsQueryBenchmark}; every layout and row count is seeded
+ * once into its own schema ({@code tradesense_bench_<layout>_<rows>}) and reused by later runs.
+ * <pre>
+ *   java -jar benchmarks/target/benchmarks.jar PartitionedQueryBenchmark -p rows=200000,1000000,5000000
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PartitionedQueryBenchmark {
+
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(2016, 1, 1, 0, 0);
+    private static final long HISTORY_SECONDS = 10L * 365 * 24 * 3600;
+
+    private static final String AGGREGATES =
+            "count(*), sum(t.profit_loss), count(*) FILTER (WHERE t.profit_loss > 0)";
+
+    private static final String SQL_TOTALS =
+            "SELECT " + AGGREGATES + " FROM trades t WHERE t.timestamp >= ? AND t.timestamp < ?";
+
+    private static final String SQL_TOTALS_NULLABLE =
+            "SELECT " + AGGREGATES + " FROM trades t " +
+            "WHERE (CAST(? AS timestamp) IS NULL OR t.timestamp >= ?) AND (CAST(? AS timestamp) IS NULL OR t.timestamp < ?)";
+
+    private static final String SQL_BY_SYMBOL =
+            "SELECT t.symbol, " + AGGREGATES + " FROM trades t WHERE t.timestamp >= ? AND t.timestamp < ? " +
+            "GROUP BY t.symbol ORDER BY t.symbol";
+
+    private static final String SQL_BY_TAG =
+            "SELECT tt.tag, " + AGGREGATES + " FROM trades t JOIN trade_tags tt ON tt.trade_id = t.id " +
+            "WHERE t.timestamp >= ? AND t.timestamp < ? GROUP BY tt.tag ORDER BY tt.tag";
+
+    private static final String SQL_DAILY_BUCKETS =
+            "SELECT date_trunc('day', t.timestamp), " + AGGREGATES + " FROM trades t " +
+            "WHERE t.timestamp >= ? AND t.timestamp < ? GROUP BY 1 ORDER BY 1";
+
+    private static final String SQL_SYMBOL_PAGE =
+            "SELECT t.id, t.symbol, t.entry_price, t.exit_price, t.quantity, t.profit_loss, t.timestamp, t.notes, " +
+            "(SELECT array_agg(tt.tag ORDER BY tt.tag) FROM trade_tags tt WHERE tt.trade_id = t.id) AS tags " +
+            "FROM trades t WHERE t.symbol = ? AND t.timestamp >= ? AND t.timestamp < ? " +
+            "ORDER BY t.timestamp DESC, t.id DESC LIMIT 50";
+
+    // monthly stops before the tag dictionary (V7), so both layouts store tag names in trade_tags
+    public enum Layout {
+        flat("2"), monthly("6");
+
+        final String target;
+
+        Layout(String target) {
+            this.target = target;
+        }
+    }
+
+    @Param({"200000", "1000000", "5000000"})
+    public int rows;
+
+    @Param({"flat", "monthly"})
+    public Layout layout;
+
+    private Connection connection;
+    private PreparedStatement totals;
+    private PreparedStatement totalsNullable;
+    private PreparedStatement bySymbol;
+    private PreparedStatement byTag;
+    private PreparedStatement dailyBuckets;
+    private PreparedStatement symbolPage;
+
+    // ranges in the last year of the history, like the dashboard asks for
+    private final Timestamp monthFrom = Timestamp.valueOf(LocalDateTime.of(2025, 6, 1, 0, 0));
+    private final Timestamp monthTo = Timestamp.valueOf(LocalDateTime.of(2025, 7, 1, 0, 0));
+    private final Timestamp quarterFrom = Timestamp.valueOf(LocalDateTime.of(2025, 4, 1, 0, 0));
+    private final Timestamp quarterTo = monthTo;
+    private final Timestamp yearFrom = Timestamp.valueOf(LocalDateTime.of(2025, 1, 1, 0, 0));
+    private final Timestamp yearTo = Timestamp.valueOf(LocalDateTime.of(2026, 1, 1, 0, 0));
+
+    @Setup
+    public void setUp() throws SQLException {
+        String url = System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/tradesense");
+        String user = System.getProperty("bench.jdbc.user", "postgres");
+        String password = System.getProperty("bench.jdbc.password", "postgres");
+        String schema = "tradesense_bench_" + layout + "_" + rows;
+        connection = DriverManager.getConnection(url, user, password);
+        seed(schema, url, user, password);
+        try (Statement st = connection.createStatement()) {
+            st.execute("SET search_path TO " + schema);
+        }
+        totals = connection.prepareStatement(SQL_TOTALS);
+        totalsNullable = connection.prepareStatement(SQL_TOTALS_NULLABLE);
+        bySymbol = connection.prepareStatement(SQL_BY_SYMBOL);
+        byTag = connection.prepareStatement(SQL_BY_TAG);
+        dailyBuckets = connection.prepareStatement(SQL_DAILY_BUCKETS);
+        symbolPage = connection.prepareStatement(SQL_SYMBOL_PAGE);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public void monthTotals(Blackhole bh) throws SQLException {
+        totals.setTimestamp(1, monthFrom);
+        totals.setTimestamp(2, monthTo);
+        consume(totals, 3, bh);
+    }
+
+    @Benchmark
+    public void monthTotalsNullableBounds(Blackhole bh) throws SQLException {
+        totalsNullable.setTimestamp(1, monthFrom);
+        totalsNullable.setTimestamp(2, monthFrom);
+        totalsNullable.setTimestamp(3, monthTo);
+        totalsNullable.setTimestamp(4, monthTo);
+        consume(totalsNullable, 3, bh);
+    }
+
+    @Benchmark
+    public void quarterBySymbol(Blackhole bh) throws SQLException {
+        bySymbol.setTimestamp(1, quarterFrom);
+        bySymbol.setTimestamp(2, quarterTo);
+        consume(bySymbol, 4, bh);
+    }
+
+    @Benchmark
+    public void monthByTag(Blackhole bh) throws SQLException {
+        byTag.setTimestamp(1, monthFrom);
+        byTag.setTimestamp(2, monthTo);
+        consume(byTag, 4, bh);
+    }
+
+    @Benchmark
+    public void monthDailyBuckets(Blackhole bh) throws SQLException {
+        dailyBuckets.setTimestamp(1, monthFrom);
+        dailyBuckets.setTimestamp(2, monthTo);
+        consume(dailyBuckets, 4, bh);
+    }
+
+    @Benchmark
+    public void symbolPageInYear(Blackhole bh) throws SQLException {
+        symbolPage.setString(1, "SYM42");
+        symbolPage.setTimestamp(2, yearFrom);
+        symbolPage.setTimestamp(3, yearTo);
+        consume(symbolPage, 9, bh);
+    }
+
+    private static void consume(PreparedStatement statement, int columns, Blackhole bh) throws SQLException {
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                for (int i = 1; i <= columns; i++) {
+                    bh.consume(rs.getObject(i));
+                }
+            }
+        }
+    }
+
+    private void seed(String schema, String url, String user, String password) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            try (ResultSet rs = st.executeQuery("SELECT to_regclass('" + schema + ".trades') IS NOT NULL " +
+                    "AND (SELECT count(*) FROM " + schema + ".flyway_schema_history) > 0")) {
+                rs.next();
+                if (rs.getBoolean(1)) {
+                    try (ResultSet count = st.executeQuery("SELECT count(*) FROM " + schema + ".trades")) {
+                        count.next();
+                        if (count.getLong(1) == rows) return;
+                    }
+                }
+            } catch (SQLException e) {
+                // schema or history table missing
+            }
+            System.out.println("Seeding " + rows + " trades into " + schema + " (" + layout + ") ...");
+            st.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+            Flyway.configure()
+                    .dataSource(url, user, password)
+                    .schemas(schema)
+                    .target(layout.target)
+                    .load()
+                    .migrate();
+
+            st.execute("SET search_path TO " + schema);
+            if (layout == Layout.monthly) {
+                st.execute("SELECT create_trades_partition(m::date) FROM generate_series(timestamp '" +
+                        HISTORY_START + "', timestamp '" + HISTORY_START.plusYears(10) + "', interval '1 month') m");
+            }
+            // 200 symbols, spread evenly over ten years, P/L around 0
+            st.execute("INSERT INTO trades (id, symbol, entry_price, exit_price, quantity, profit_loss, timestamp) " +
+                    "SELECT g, 'SYM' || (g % 200), 100 + (g % 1000) * 0.1, " +
+                    "100 + (g % 1000) * 0.1 + ((g * 7919) % 200 - 100) * 0.01, 1 + g % 10, " +
+                    "((g * 7919) % 200 - 100) * 0.01 * (1 + g % 10), " +
+                    "timestamp '" + HISTORY_START + "' + (g * " + HISTORY_SECONDS / rows + ") * interval '1 second' " +
+                    "FROM generate_series(1::bigint, " + rows + ") g");
+            // every fifth trade tagged, 20 tags
+            st.execute("INSERT INTO trade_tags (trade_id, tag) SELECT g, 'tag' || (g % 20) " +
+                    "FROM generate_series(5::bigint, " + rows + ", 5) g");
+            st.execute("ANALYZE trades");
+            st.execute("ANALYZE trade_tags");
+        }
+    }
+}
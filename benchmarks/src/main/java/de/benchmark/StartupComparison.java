@@ -0,0 +1,237 @@
+package de.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Startup time and first-request latency of the application in its deployment modes. Every run starts the app as
+ * a new process and measures from the launch:
+ * <ul>
+ *     <li>{@code ready}: until {@code /actuator/health} answers 200 (database reachable)</li>
+ *     <li>{@code started}: the time Spring logs in {@code Started TradeSenseApplication in ...}</li>
+ *     <li>{@code trades}, {@code stats}, {@code search}: latency of the first {@code GET /api/trades?limit=50},
+ *     {@code /api/trades/stats} and {@code /api/trades/search?q=entry} after that, on a cold JIT and empty caches</li>
+ * </ul>
+ * Modes:
+ * <ul>
+ *     <li>{@code default}: executable jar, default profile</li>
+ *     <li>{@code prod}: {@code -Dspring.profiles.active=prod} ({@code application-prod.properties})</li>
+ *     <li>{@code aot}: prod with the Spring AOT bean definitions ({@code mvn -Paot})</li>
+ *     <li>{@code cds}: prod with the class data sharing archive ({@code mvn -Pcds})</li>
+ *     <li>{@code aot-cds}: both ({@code mvn -Paot,cds})</li>
+ *     <li>{@code native}: GraalVM native image {@code target/tradesense} ({@code mvn -Pnative})</li>
+ * </ul>
+ * Modes whose artifacts are missing are skipped. The app uses the database from its {@code application.properties};
+ * extra arguments go after {@code --app-args=}. Each mode first gets {@code warmup-runs} unmeasured starts, so all
+ * of them see a warm file cache. Results are written to {@code target/startup-results/<timestamp>.json}.
+ * <pre>
+ *   mvn -Paot,cds package -DskipTests
+ *   java -cp benchmarks/target/benchmarks.jar de.benchmark.StartupComparison --runs=5 \
+ *        --modes=default,prod,aot,cds,aot-cds,native
+ * </pre>
+ */
+public final class StartupComparison {
+
+    private static final Pattern STARTED = Pattern.compile("Started TradeSenseApplication in ([0-9.]+) seconds");
+    private static final String JAR = "TradeSense-1.0-SNAPSHOT-exec.jar";
+    private static final Map<String, String> FIRST_REQUESTS = Map.of(
+            "trades", "/api/trades?limit=50",
+            "stats", "/api/trades/stats",
+            "search", "/api/trades/search?q=entry");
+    private static final List<String> ENDPOINTS = List.of("trades", "stats", "search");
+
+    private final Path target;
+    private final int port;
+    private final List<String> appArgs;
+    private final Path logDir;
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    private StartupComparison(Map<String, String> options) throws IOException {
+        this.target = Path.of(options.getOrDefault("target", "target"));
+        this.port = Integer.parseInt(options.getOrDefault("port", "18080"));
+        String extra = options.getOrDefault("app-args", "");
+        this.appArgs = extra.isBlank() ? List.of() : Arrays.asList(extra.trim().split("\\s+"));
+        this.logDir = Files.createDirectories(Path.of("target", "startup-results", "logs"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(kv[0], kv.length > 1 ? kv[1] : "true");
+        }
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        int warmupRuns = Integer.parseInt(options.getOrDefault("warmup-runs", "1"));
+        StartupComparison comparison = new StartupComparison(options);
+
+        Map<String, ModeResult> results = new LinkedHashMap<>();
+        for (String mode : options.getOrDefault("modes", "default,prod,aot,cds,aot-cds,native").split(",")) {
+            List<String> command = comparison.command(mode);
+            if (command == null) {
+                System.out.println(mode + ": artifacts missing, skipped");
+                continue;
+            }
+            System.out.printf("%s: %s%n", mode, String.join(" ", command));
+            for (int i = 0; i < warmupRuns; i++) {
+                comparison.start(mode, "warmup" + i, command);
+            }
+            List<Run> measured = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                Run run = comparison.start(mode, Integer.toString(i), command);
+                System.out.printf("  run %d: ready %d ms, first requests %s%n", i, run.readyMillis(), run.firstRequestMillis());
+                measured.add(run);
+            }
+            results.put(mode, ModeResult.of(measured));
+        }
+        print(results);
+
+        Path file = Path.of("target", "startup-results",
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("options", options);
+        json.put("cpus", Runtime.getRuntime().availableProcessors());
+        json.put("results", results);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), json);
+        System.out.println("Results written to " + file);
+    }
+
+    /**
+     * @return the command line of a mode, {@code null} if its artifacts were not built
+     */
+    private List<String> command(String mode) {
+        Path cdsDir = target.resolve("cds");
+        Path jar = Files.exists(cdsDir.resolve(JAR)) ? cdsDir.resolve(JAR) : target.resolve(JAR);
+        Path archive = cdsDir.resolve("tradesense.jsa");
+        boolean aotBuilt = Files.isDirectory(target.resolve("spring-aot"));
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        List<String> command = new ArrayList<>();
+        switch (mode) {
+            case "native" -> {
+                Path binary = target.resolve("tradesense");
+                if (!Files.isExecutable(binary)) return null;
+                command.add(binary.toString());
+                command.add("-Dspring.profiles.active=prod");
+                command.add("--server.port=" + port);
+                command.addAll(appArgs);
+                return command;
+            }
+            case "default", "prod" -> command.add(java);
+            case "aot", "cds", "aot-cds" -> {
+                if (mode.startsWith("aot") && !aotBuilt) return null;
+                if (mode.endsWith("cds") && !Files.exists(archive)) return null;
+                command.add(java);
+                if (mode.endsWith("cds")) command.add("-XX:SharedArchiveFile=" + archive);
+                if (mode.startsWith("aot")) command.add("-Dspring.aot.enabled=true");
+            }
+            default -> throw new IllegalArgumentException("unknown mode " + mode);
+        }
+        if (!Files.exists(jar)) return null;
+        if (!mode.equals("default")) command.add("-Dspring.profiles.active=prod");
+        command.add("-jar");
+        command.add(jar.toString());
+        command.add("--server.port=" + port);
+        command.addAll(appArgs);
+        return command;
+    }
+
+    private Run start(String mode, String runName, List<String> command) throws Exception {
+        Path log = logDir.resolve(mode + "-" + runName + ".log");
+        long launched = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            String base = "http://localhost:" + port;
+            long deadline = launched + TimeUnit.SECONDS.toNanos(180);
+            while (get(base + "/actuator/health") != 200) {
+                if (!process.isAlive()) throw new IllegalStateException(mode + " exited, see " + log);
+                if (System.nanoTime() > deadline) throw new IllegalStateException(mode + " not ready, see " + log);
+                Thread.sleep(10);
+            }
+            long ready = System.nanoTime() - launched;
+
+            Map<String, Long> first = new LinkedHashMap<>();
+            for (String endpoint : ENDPOINTS) {
+                long t0 = System.nanoTime();
+                int status = get(base + FIRST_REQUESTS.get(endpoint));
+                if (status != 200) throw new IllegalStateException(endpoint + " answered " + status + " in " + mode);
+                first.put(endpoint, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0));
+            }
+            return new Run(TimeUnit.NANOSECONDS.toMillis(ready), startedMillis(log), first);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(20, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    /**
+     * @return the status, -1 if the server is not listening yet or dropped the connection
+     */
+    private int get(String url) throws InterruptedException {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).build();
+            return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static long startedMillis(Path log) throws IOException {
+        Matcher m = STARTED.matcher(Files.readString(log));
+        return m.find() ? Math.round(Double.parseDouble(m.group(1)) * 1000) : -1;
+    }
+
+    private static void print(Map<String, ModeResult> results) {
+        System.out.printf("%n%-8s %5s %10s %10s %10s %12s %10s %10s %10s%n",
+                "mode", "runs", "ready p50", "ready min", "ready max", "started p50", "trades", "stats", "search");
+        results.forEach((mode, r) -> System.out.printf("%-8s %5d %10d %10d %10d %12d %10d %10d %10d%n",
+                mode, r.runs(), r.readyMedianMillis(), r.readyMinMillis(), r.readyMaxMillis(), r.startedMedianMillis(),
+                r.firstRequestMedianMillis().get("trades"), r.firstRequestMedianMillis().get("stats"),
+                r.firstRequestMedianMillis().get("search")));
+        System.out.println("(milliseconds since process launch; first requests: median latency of the first call)");
+    }
+
+    record Run(long readyMillis, long startedMillis, Map<String, Long> firstRequestMillis) {
+    }
+
+    record ModeResult(int runs, long readyMedianMillis, long readyMinMillis, long readyMaxMillis,
+                      long startedMedianMillis, Map<String, Long> firstRequestMedianMillis, List<Run> samples) {
+
+        static ModeResult of(List<Run> runs) {
+            long[] ready = runs.stream().mapToLong(Run::readyMillis).sorted().toArray();
+            Map<String, Long> first = new LinkedHashMap<>();
+            for (String endpoint : ENDPOINTS) {
+                first.put(endpoint, median(runs.stream().mapToLong(r -> r.firstRequestMillis().get(endpoint)).sorted().toArray()));
+            }
+            return new ModeResult(runs.size(), median(ready), ready[0], ready[ready.length - 1],
+                    median(runs.stream().mapToLong(Run::startedMillis).sorted().toArray()), first, runs);
+        }
+
+        private static long median(long[] sorted) {
+            return sorted[sorted.length / 2];
+        }
+    }
+}
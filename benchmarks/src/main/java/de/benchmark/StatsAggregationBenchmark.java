@@ -0,0 +1,88 @@
+package de.benchmark;
+
+import de.model.stats.GroupStats;
+import de.model.trade.Trade;
+import de.model.trade.TradeView;
+import de.service.impl.analytics.TradeColumnStore;
+import de.service.impl.analytics.TradeColumns;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory statistics: the five stream passes over {@link Trade} entities that {@code /stats} used to run
+ * versus scans of the columnar {@link TradeColumns} snapshot. (The database side is in
+ * {@link StatsQueryBenchmark}.)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class StatsAggregationBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    private List<Trade> trades;
+    private TradeColumns columns;
+
+    @Setup
+    public void setUp() {
+        trades = new ArrayList<>(rows);
+        List<TradeView> views = new ArrayList<>(rows);
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 8, 0);
+        for (int i = 0; i < rows; i++) {
+            Trade t = new Trade("SYM" + i % 50, 100.0 + i % 50, 99.0 + (i * 7919) % 60 * 0.1, 1.0 + i % 20, null,
+                    start.plusMinutes(i), Set.of("tag" + i % 10), null);
+            t.setId((long) i + 1);
+            trades.add(t);
+            views.add(new TradeView(t.getId(), t.getSymbol(), t.getEntryPrice(), t.getExitPrice(), t.getQuantity(),
+                    t.getProfitLoss(), t.getTimestamp(), List.copyOf(t.getTags()), null));
+        }
+        TradeColumnStore store = new TradeColumnStore(null);
+        store.loadFrom(views);
+        columns = store.snapshot();
+    }
+
+    // the former TradesRestController.getStats()
+    @Benchmark
+    public Map<String, Object> entityStreams() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalTrades", trades.size());
+        double sum = trades.stream().mapToDouble(Trade::getProfitLoss).sum();
+        double avg = trades.stream().mapToDouble(Trade::getProfitLoss).average().orElse(0.0);
+        stats.put("sumProfitLoss", sum);
+        stats.put("avgProfitLoss", avg);
+        long wins = trades.stream().filter(t -> t.getProfitLoss() > 0).count();
+        stats.put("winRatePercent", trades.isEmpty() ? 0.0 : (wins * 100.0 / trades.size()));
+        stats.put("bySymbol", trades.stream().filter(t -> t.getSymbol() != null)
+                .collect(Collectors.groupingBy(Trade::getSymbol, Collectors.counting())));
+        return stats;
+    }
+
+    @Benchmark
+    public void columnsSummaryAndBySymbol(Blackhole bh) {
+        bh.consume(columns.summary(null, null));
+        bh.consume(columns.bySymbol());
+    }
+
+    @Benchmark
+    public List<GroupStats> columnsByTag() {
+        return columns.byTag();
+    }
+
+    @Benchmark
+    public List<GroupStats> columnsByHourOfDay() {
+        return columns.byHourOfDay();
+    }
+}
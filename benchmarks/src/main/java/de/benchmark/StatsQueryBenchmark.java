@@ -0,0 +1,145 @@
+package de.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics over a seeded trades table: aggregating in PostgreSQL ({@code GROUP BY}, window functions)
+ * versus reading every row into the JVM and aggregating there, which is what {@code /stats} did before
+ * (minus the entity hydration, so the JVM variant is a lower bound).
+ * <p>
+ * Needs a running PostgreSQL; the rows are generated once into the schema {@code tradesense_bench} and
+ * reused while the row count matches. Connection via {@code -Dbench.jdbc.url=... -Dbench.jdbc.user=...
+ * -Dbench.jdbc.password=...}.
+ * <pre>
+ *   java -jar benchmarks/target/benchmarks.jar StatsQueryBenchmark -p rows=5000000
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatsQueryBenchmark {
+
+    private static final String SCHEMA = "tradesense_bench";
+
+    private static final String PL = "COALESCE((t.exit_price - t.entry_price) * t.quantity, 0)";
+
+    private static final String SQL_BY_SYMBOL =
+            "SELECT t.symbol, count(*), sum(" + PL + "), count(*) FILTER (WHERE " + PL + " > 0) " +
+            "FROM " + SCHEMA + ".trades t GROUP BY t.symbol";
+
+    // same shape as TradeRepository.findProfitLossBuckets
+    private static final String SQL_DAILY_EQUITY =
+            "SELECT b.bucket, b.profit_loss, b.equity, b.equity - b.peak FROM (" +
+            "  SELECT e.*, greatest(max(e.equity) OVER (ORDER BY e.bucket), 0) AS peak FROM (" +
+            "    SELECT p.*, sum(p.profit_loss) OVER (ORDER BY p.bucket) AS equity FROM (" +
+            "      SELECT date_trunc('day', t.timestamp) AS bucket, sum(" + PL + ") AS profit_loss " +
+            "      FROM " + SCHEMA + ".trades t WHERE t.timestamp IS NOT NULL GROUP BY 1) p) e) b ORDER BY b.bucket";
+
+    private static final String SELECT_ROWS =
+            "SELECT t.symbol, t.entry_price, t.exit_price, t.quantity FROM " + SCHEMA + ".trades t";
+
+    @Param({"5000000"})
+    public int rows;
+
+    private Connection connection;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/tradesense"),
+                System.getProperty("bench.jdbc.user", "postgres"),
+                System.getProperty("bench.jdbc.password", "postgres"));
+        // a server-side cursor (fetch size) needs a transaction
+        connection.setAutoCommit(false);
+        seed();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.rollback();
+        connection.close();
+    }
+
+    @Benchmark
+    public void sqlGroupBySymbol(Blackhole bh) throws SQLException {
+        try (Statement st = connection.createStatement(); ResultSet rs = st.executeQuery(SQL_BY_SYMBOL)) {
+            while (rs.next()) {
+                bh.consume(rs.getString(1));
+                bh.consume(rs.getLong(2));
+                bh.consume(rs.getDouble(3));
+                bh.consume(rs.getLong(4));
+            }
+        }
+    }
+
+    @Benchmark
+    public void jvmGroupBySymbol(Blackhole bh) throws SQLException {
+        Map<String, double[]> bySymbol = new HashMap<>();
+        try (Statement st = connection.createStatement()) {
+            st.setFetchSize(10_000);
+            try (ResultSet rs = st.executeQuery(SELECT_ROWS)) {
+                while (rs.next()) {
+                    double entry = rs.getDouble(2);
+                    double exit = rs.getDouble(3);
+                    double qty = rs.getDouble(4);
+                    double pl = (exit - entry) * qty;
+                    double[] agg = bySymbol.computeIfAbsent(rs.getString(1), k -> new double[3]);
+                    agg[0]++;
+                    agg[1] += pl;
+                    if (pl > 0) agg[2]++;
+                }
+            }
+        }
+        bh.consume(bySymbol);
+    }
+
+    @Benchmark
+    public void sqlDailyEquityCurve(Blackhole bh) throws SQLException {
+        try (Statement st = connection.createStatement(); ResultSet rs = st.executeQuery(SQL_DAILY_EQUITY)) {
+            while (rs.next()) {
+                bh.consume(rs.getTimestamp(1));
+                bh.consume(rs.getDouble(3));
+                bh.consume(rs.getDouble(4));
+            }
+        }
+    }
+
+    private void seed() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE SCHEMA IF NOT EXISTS " + SCHEMA);
+            st.execute("CREATE TABLE IF NOT EXISTS " + SCHEMA + ".trades (id bigserial PRIMARY KEY, " +
+                    "symbol varchar(255) NOT NULL, entry_price float8, exit_price float8, quantity float8, " +
+                    "profit_loss float8, timestamp timestamp(6), notes text)");
+            long existing;
+            try (ResultSet rs = st.executeQuery("SELECT count(*) FROM " + SCHEMA + ".trades")) {
+                rs.next();
+                existing = rs.getLong(1);
+            }
+            if (existing != rows) {
+                System.out.println("Seeding " + rows + " trades into " + SCHEMA + ".trades ...");
+                st.execute("TRUNCATE " + SCHEMA + ".trades");
+                // 200 symbols, one trade per minute, P/L spread around 0
+                st.execute("INSERT INTO " + SCHEMA + ".trades (symbol, entry_price, exit_price, quantity, timestamp) " +
+                        "SELECT 'SYM' || (g % 200), 100 + (g % 1000) * 0.1, " +
+                        "100 + (g % 1000) * 0.1 + ((g * 7919) % 200 - 100) * 0.01, 1 + g % 10, " +
+                        "timestamp '2015-01-01' + g * interval '1 minute' " +
+                        "FROM generate_series(1::bigint, " + rows + ") g");
+                st.execute("ANALYZE " + SCHEMA + ".trades");
+            }
+            connection.commit();
+        }
+    }
+}
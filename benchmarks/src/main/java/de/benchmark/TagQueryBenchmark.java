@@ -0,0 +1,166 @@
+package de.benchmark;
+
+import de.model.stats.AnalyticsFilter;
+import de.model.stats.GroupStats;
+import de.repository.TradeQueryRepository;
+import de.service.impl.analytics.TradeColumnStore;
+import de.service.impl.analytics.TradeColumns;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "P/L of the trades tagged A and not B in a quarter": the SQL a repository would send (EXISTS / NOT EXISTS on
+ * {@code trade_tags}, pruned to the quarter's partitions) versus the intersection of the tag bitmaps in the
+ * column store ({@code /api/trades/analytics/summary?tag=A&excludeTag=B&from&to}). The column store is loaded from
+ * the same schema. Tags of a trade: {@code momentum} 1/2, {@code news} 1/5, {@code swing} 1/3, {@code halted} 1/1000.
+ * <ul>
+ *     <li>{@code common}: momentum and not news</li>
+ *     <li>{@code rare}: halted and not news</li>
+ *     <li>{@code two}: momentum and swing, not news</li>
+ * </ul>
+ * Needs a running PostgreSQL, connection as for {@link StatsQueryBenchmark}; seeded once per row count into
+ * {@code tradesense_bench_tags_<rows>}.
+ * <pre>
+ *   java -jar benchmarks/target/benchmarks.jar TagQueryBenchmark -p rows=1000000
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class TagQueryBenchmark {
+
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(2016, 1, 1, 0, 0);
+    private static final long HISTORY_SECONDS = 10L * 365 * 24 * 3600;
+    private static final LocalDateTime Q3_FROM = LocalDateTime.of(2025, 7, 1, 0, 0);
+    private static final LocalDateTime Q3_TO = LocalDateTime.of(2025, 10, 1, 0, 0);
+
+    private static final String SQL_TAGGED_NOT =
+            "SELECT count(*), COALESCE(sum(t.profit_loss), 0), count(*) FILTER (WHERE t.profit_loss > 0) " +
+            "FROM trades t WHERE t.timestamp >= ? AND t.timestamp < ? " +
+            "AND EXISTS (SELECT 1 FROM trade_tags a JOIN tags ag ON ag.id = a.tag_id WHERE a.trade_id = t.id AND ag.name = ?) " +
+            "AND EXISTS (SELECT 1 FROM trade_tags a JOIN tags ag ON ag.id = a.tag_id WHERE a.trade_id = t.id AND ag.name = ?) " +
+            "AND NOT EXISTS (SELECT 1 FROM trade_tags b JOIN tags bg ON bg.id = b.tag_id WHERE b.trade_id = t.id AND bg.name = ?)";
+
+    public enum Query {
+        common("momentum", "momentum"), rare("halted", "halted"), two("momentum", "swing");
+
+        final String tag;
+        final String secondTag;
+
+        Query(String tag, String secondTag) {
+            this.tag = tag;
+            this.secondTag = secondTag;
+        }
+
+        List<String> tags() {
+            return tag.equals(secondTag) ? List.of(tag) : List.of(tag, secondTag);
+        }
+    }
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"common", "rare", "two"})
+    public Query query;
+
+    private Connection connection;
+    private PreparedStatement statement;
+    private TradeColumns columns;
+    private AnalyticsFilter filter;
+
+    @Setup
+    public void setUp() throws SQLException {
+        String url = System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/tradesense");
+        String user = System.getProperty("bench.jdbc.user", "postgres");
+        String password = System.getProperty("bench.jdbc.password", "postgres");
+        String schema = "tradesense_bench_tags_" + rows;
+        connection = DriverManager.getConnection(url, user, password);
+        seed(schema, url, user, password);
+        try (Statement st = connection.createStatement()) {
+            st.execute("SET search_path TO " + schema);
+        }
+        statement = connection.prepareStatement(SQL_TAGGED_NOT);
+
+        // streamed with a fetch size only outside auto-commit
+        connection.setAutoCommit(false);
+        TradeColumnStore store = new TradeColumnStore(
+                new TradeQueryRepository(new JdbcTemplate(new SingleConnectionDataSource(connection, true))));
+        columns = store.snapshot();
+        connection.commit();
+        connection.setAutoCommit(true);
+        System.out.printf("%nColumn store: %d trades, %d KB%n", columns.size(), columns.sizeInBytes() / 1024);
+        filter = new AnalyticsFilter(null, query.tags(), List.of("news"), Q3_FROM, Q3_TO);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public void sqlJoins(Blackhole bh) throws SQLException {
+        statement.setTimestamp(1, Timestamp.valueOf(Q3_FROM));
+        statement.setTimestamp(2, Timestamp.valueOf(Q3_TO));
+        statement.setString(3, query.tag);
+        statement.setString(4, query.secondTag);
+        statement.setString(5, "news");
+        try (ResultSet rs = statement.executeQuery()) {
+            rs.next();
+            bh.consume(rs.getLong(1));
+            bh.consume(rs.getDouble(2));
+            bh.consume(rs.getLong(3));
+        }
+    }
+
+    @Benchmark
+    public GroupStats bitmaps() {
+        return columns.summary(filter);
+    }
+
+    private void seed(String schema, String url, String user, String password) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            try (ResultSet rs = st.executeQuery("SELECT count(*) FROM " + schema + ".trades")) {
+                rs.next();
+                if (rs.getLong(1) == rows) return;
+            } catch (SQLException e) {
+                // not seeded yet
+            }
+            System.out.println("Seeding " + rows + " trades into " + schema + " ...");
+            st.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+            Flyway.configure().dataSource(url, user, password).schemas(schema).load().migrate();
+
+            st.execute("SET search_path TO " + schema);
+            st.execute("SELECT create_trades_partition(m::date) FROM generate_series(timestamp '" +
+                    HISTORY_START + "', timestamp '" + HISTORY_START.plusYears(10) + "', interval '1 month') m");
+            st.execute("INSERT INTO trades (id, symbol, entry_price, exit_price, quantity, profit_loss, timestamp) " +
+                    "SELECT g, 'SYM' || (g % 200), 100, 100 + ((g * 7919) % 200 - 100) * 0.01, 1, " +
+                    "((g * 7919) % 200 - 100) * 0.01, " +
+                    "timestamp '" + HISTORY_START + "' + (g * " + HISTORY_SECONDS / rows + ") * interval '1 second' " +
+                    "FROM generate_series(1::bigint, " + rows + ") g");
+            st.execute("INSERT INTO tags (name) VALUES ('momentum'), ('news'), ('swing'), ('halted')");
+            st.execute("INSERT INTO trade_tags (trade_id, tag_id) " +
+                    "SELECT g, tg.id FROM generate_series(1::bigint, " + rows + ") g JOIN tags tg ON " +
+                    "(tg.name = 'momentum' AND g % 2 = 0) OR (tg.name = 'news' AND g % 5 = 0) OR " +
+                    "(tg.name = 'swing' AND g % 3 = 0) OR (tg.name = 'halted' AND g % 1000 = 7)");
+            st.execute("ANALYZE trades");
+            st.execute("ANALYZE trade_tags");
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package de.benchmark;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Synthetic trade files in the import formats. Every 100th row repeats the previous one, so the in-file
+ * duplicate check has work to do. Files are written once to {@code bench.data.dir}
+ * (default {@code target/bench-data}) and reused by later runs:
+ * <pre>
+ *   java -cp benchmarks/target/benchmarks.jar de.benchmark.TradeFileGenerator 10000 100000 1000000
+ * </pre>
+ */
+public final class TradeFileGenerator {
+
+    private static final String[] SYMBOLS = {"AAPL", "MSFT", "EURUSD", "TSLA", "NVDA", "AMZN", "GOOG", "BTCUSD"};
+    private static final String[] TAGS = {"breakout", "swing", "scalp", "news", "retest"};
+    private static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 8, 0);
+    private static final DateTimeFormatter CSV_TIMESTAMP = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss");
+
+    private TradeFileGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        for (String arg : args) {
+            int rows = Integer.parseInt(arg);
+            System.out.println(csv(rows));
+            System.out.println(xlsx(rows));
+        }
+    }
+
+    public static Path csv(int rows) throws IOException {
+        Path file = dataDir().resolve("trades-" + rows + ".csv");
+        if (Files.exists(file)) return file;
+        Path tmp = Files.createTempFile(dataDir(), "trades-", ".csv.tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            out.write("Symbol,EntryPrice,ExitPrice,Quantity,Timestamp,Tags,Notes\n");
+            for (int i = 0; i < rows; i++) {
+                int r = source(i);
+                out.write(SYMBOLS[r % SYMBOLS.length]);
+                out.write(',');
+                out.write(Double.toString(entry(r)));
+                out.write(',');
+                out.write(Double.toString(exit(r)));
+                out.write(',');
+                out.write(Double.toString(quantity(r)));
+                out.write(',');
+                out.write(CSV_TIMESTAMP.format(timestamp(r)));
+                out.write(",\"");
+                out.write(TAGS[r % TAGS.length]);
+                out.write(';');
+                out.write(TAGS[(r / 7) % TAGS.length]);
+                out.write("\",\"entry on retest, stop below VWAP\"\n");
+            }
+        }
+        return Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Columns as read by the Excel import: symbol, entry, exit, quantity, date/time (as Excel date), time (empty).
+     */
+    public static Path xlsx(int rows) throws IOException {
+        Path file = dataDir().resolve("trades-" + rows + ".xlsx");
+        if (Files.exists(file)) return file;
+        Path tmp = Files.createTempFile(dataDir(), "trades-", ".xlsx.tmp");
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(1000); OutputStream out = Files.newOutputStream(tmp)) {
+            workbook.setCompressTempFiles(true);
+            SXSSFSheet sheet = workbook.createSheet("Trades");
+            var dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("dd.mm.yyyy hh:mm:ss"));
+            Row header = sheet.createRow(0);
+            String[] names = {"Symbol", "Entry", "Exit", "Quantity", "Date", "Time"};
+            for (int c = 0; c < names.length; c++) {
+                header.createCell(c).setCellValue(names[c]);
+            }
+            for (int i = 0; i < rows; i++) {
+                int r = source(i);
+                Row row = sheet.createRow(i + 1);
+                row.createCell(0).setCellValue(SYMBOLS[r % SYMBOLS.length]);
+                row.createCell(1).setCellValue(entry(r));
+                row.createCell(2).setCellValue(exit(r));
+                row.createCell(3).setCellValue(quantity(r));
+                var date = row.createCell(4);
+                date.setCellValue(timestamp(r));
+                date.setCellStyle(dateStyle);
+            }
+            workbook.write(out);
+            workbook.dispose();
+        }
+        return Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // every 100th row repeats its predecessor
+    private static int source(int i) {
+        return i % 100 == 99 ? i - 1 : i;
+    }
+
+    private static double entry(int r) {
+        return 100 + (r % 5000) * 0.01;
+    }
+
+    private static double exit(int r) {
+        return entry(r) + ((r * 7919) % 400 - 200) * 0.01;
+    }
+
+    private static double quantity(int r) {
+        return 1 + r % 20;
+    }
+
+    private static LocalDateTime timestamp(int r) {
+        return START.plusMinutes(r);
+    }
+
+    private static Path dataDir() throws IOException {
+        return Files.createDirectories(Path.of(System.getProperty("bench.data.dir", "target/bench-data")));
+    }
+}
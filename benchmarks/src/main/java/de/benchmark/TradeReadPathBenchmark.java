@@ -0,0 +1,146 @@
+package de.benchmark;
+
+import de.TradeSenseApplication;
+import de.model.trade.Trade;
+import de.model.trade.TradeFilter;
+import de.repository.TradeQueryRepository;
+import de.repository.TradeRepository;
+import de.service.impl.TradeBatchWriter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading 10k trades through the entity ({@code findAll}, with and without touching the tags) versus the
+ * JDBC row projection behind {@code GET /api/trades}. Boots the application context without web server
+ * against the scratch schema {@code tradesense_bench_read}, which is recreated and seeded on every run.
+ * <p>
+ * Allocation per operation comes from the gc profiler; the number of SQL statements Hibernate issued per
+ * operation is printed after each iteration (the projection is always a single statement):
+ * <pre>
+ *   java -jar benchmarks/target/benchmarks.jar TradeReadPathBenchmark -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TradeReadPathBenchmark {
+
+    private static final String SCHEMA = "tradesense_bench_read";
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private TradeRepository tradeRepository;
+    private TradeQueryRepository tradeQueryRepository;
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+    private long operations;
+
+    @Setup
+    public void setUp() throws SQLException {
+        String url = System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/tradesense");
+        String user = System.getProperty("bench.jdbc.user", "postgres");
+        String password = System.getProperty("bench.jdbc.password", "postgres");
+        try (Connection con = DriverManager.getConnection(url, user, password); Statement st = con.createStatement()) {
+            st.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            st.execute("CREATE SCHEMA " + SCHEMA);
+        }
+        context = new SpringApplicationBuilder(TradeSenseApplication.class)
+                .web(WebApplicationType.NONE)
+                // as arguments, so they take precedence over application.properties
+                .run("--spring.datasource.url=" + url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA,
+                        "--spring.datasource.username=" + user,
+                        "--spring.datasource.password=" + password,
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.generate_statistics=true",
+                        "--logging.level.root=WARN");
+        tradeRepository = context.getBean(TradeRepository.class);
+        tradeQueryRepository = context.getBean(TradeQueryRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        seed(context.getBean(TradeBatchWriter.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounters() {
+        statistics.clear();
+        operations = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void printCounters() {
+        if (operations > 0 && statistics.getPrepareStatementCount() > 0) {
+            System.out.printf("  hibernate statements/op: %.1f%n", (double) statistics.getPrepareStatementCount() / operations);
+        }
+    }
+
+    @Benchmark
+    public void entityFindAllWithTags(Blackhole bh) {
+        operations++;
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Trade t : tradeRepository.findAll()) {
+                bh.consume(t.getProfitLoss());
+                bh.consume(t.getTags().size());
+            }
+        });
+    }
+
+    @Benchmark
+    public void entityFindAll(Blackhole bh) {
+        operations++;
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Trade t : tradeRepository.findAll()) {
+                bh.consume(t.getProfitLoss());
+            }
+        });
+    }
+
+    @Benchmark
+    public void viewProjection(Blackhole bh) {
+        operations++;
+        bh.consume(tradeQueryRepository.findPage(TradeFilter.none(), null, rows));
+    }
+
+    private void seed(TradeBatchWriter writer) {
+        String[] symbols = {"AAPL", "MSFT", "EURUSD", "TSLA", "NVDA"};
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<Trade> chunk = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            chunk.add(new Trade(symbols[i % symbols.length], 100.0 + i % 50, 101.0 + i % 60, 1.0 + i % 20, null,
+                    base.plusMinutes(i), Set.of("swing", "tag" + i % 10), "note " + i));
+            if (chunk.size() == 1000) {
+                writer.write(chunk);
+                chunk = new ArrayList<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writer.write(chunk);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package de.benchmark;
+
+import de.model.trade.TradeFilter;
+import de.repository.TradeSearchRepository;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@code GET /api/trades/search} (first page, 20 hits) through {@link TradeSearchRepository} on a
+ * journal of {@code rows} trades over ten years, migrated to the latest schema. Notes are built from a small
+ * vocabulary, so the terms have known frequencies:
+ * <ul>
+ *     <li>{@code entry}: about half of the notes</li>
+ *     <li>{@code breakout}: 1/6, {@code "news fade"}: 1/12 (phrase)</li>
+ *     <li>{@code halted}: 1/1000</li>
+ *     <li>{@code momentum}: a tag, 1/12</li>
+ * </ul>
+ * Sample mode, so the output has the percentiles (p0.99) next to the average. Needs a running PostgreSQL,
+ * connection as for {@link StatsQueryBenchmark}; seeded once per row count into {@code tradesense_bench_search_<rows>}.
+ * <pre>
+ *   java -jar benchmarks/target/benchmarks.jar TradeSearchBenchmark -p rows=2000000
+ * </pre>
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TradeSearchBenchmark {
+
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(2016, 1, 1, 0, 0);
+    private static final long HISTORY_SECONDS = 10L * 365 * 24 * 3600;
+    private static final TradeFilter NO_FILTER = new TradeFilter(null, null, null, null);
+
+    private static final String SETUPS = "array['breakout above resistance', 'news fade after the spike', " +
+            "'pullback to vwap', 'opening range breakout', 'failed breakdown reclaimed', 'trend continuation', " +
+            "'mean reversion from extremes', 'gap and go', 'double bottom', 'earnings drift', 'short squeeze', " +
+            "'range scalp']";
+    private static final String REMARKS = "array['entry was late', 'entry on the retest', 'sized down', " +
+            "'entry too early', 'held to target', 'stopped out at the low', 'entry chased', 'scaled out in thirds']";
+    private static final String TAG = "CASE WHEN g % 3 = 0 THEN (array['momentum', 'swing', 'scalp', 'earnings'])[1 + (g / 3) % 4] END";
+
+    @Param({"2000000"})
+    public int rows;
+
+    @Param({"entry", "breakout", "\"news fade\"", "halted", "momentum", "breakout -opening"})
+    public String query;
+
+    private Connection connection;
+    private TradeSearchRepository repository;
+
+    @Setup
+    public void setUp() throws SQLException {
+        String url = System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/tradesense");
+        String user = System.getProperty("bench.jdbc.user", "postgres");
+        String password = System.getProperty("bench.jdbc.password", "postgres");
+        String schema = "tradesense_bench_search_" + rows;
+        connection = DriverManager.getConnection(url, user, password);
+        seed(schema, url, user, password);
+        try (Statement st = connection.createStatement()) {
+            st.execute("SET search_path TO " + schema);
+        }
+        repository = new TradeSearchRepository(new JdbcTemplate(new SingleConnectionDataSource(connection, true)));
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public TradeSearchRepository.Result firstPage() {
+        return repository.search(query, NO_FILTER, null, 21);
+    }
+
+    private void seed(String schema, String url, String user, String password) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            // schemas seeded before the tag dictionary (V7) are seeded again
+            try (ResultSet rs = st.executeQuery("SELECT count(*) FROM " + schema + ".trades " +
+                    "WHERE to_regclass('" + schema + ".tags') IS NOT NULL")) {
+                rs.next();
+                if (rs.getLong(1) == rows) return;
+            } catch (SQLException e) {
+                // not seeded yet
+            }
+            System.out.println("Seeding " + rows + " trades into " + schema + " ...");
+            st.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+            Flyway.configure().dataSource(url, user, password).schemas(schema).load().migrate();
+
+            st.execute("SET search_path TO " + schema);
+            st.execute("SELECT create_trades_partition(m::date) FROM generate_series(timestamp '" +
+                    HISTORY_START + "', timestamp '" + HISTORY_START.plusYears(10) + "', interval '1 month') m");
+            String notes = "(" + SETUPS + ")[1 + g % 12] || ', ' || (" + REMARKS + ")[1 + (g / 12) % 8] || " +
+                    "CASE WHEN g % 1000 = 7 THEN '. Stock was halted twice.' ELSE '.' END";
+            st.execute("INSERT INTO trades (id, symbol, entry_price, exit_price, quantity, profit_loss, timestamp, " +
+                    "notes, search_vector) " +
+                    "SELECT g, 'SYM' || (g % 200), 100, 101, 1, 1, " +
+                    "timestamp '" + HISTORY_START + "' + (g * " + HISTORY_SECONDS / rows + ") * interval '1 second', " +
+                    notes + ", trade_search_vector('SYM' || (g % 200), " + TAG + ", " + notes + ") " +
+                    "FROM generate_series(1::bigint, " + rows + ") g");
+            st.execute("INSERT INTO tags (name) VALUES ('momentum'), ('swing'), ('scalp'), ('earnings')");
+            st.execute("INSERT INTO trade_tags (trade_id, tag_id) SELECT g, tg.id " +
+                    "FROM generate_series(3::bigint, " + rows + ", 3) g JOIN tags tg ON tg.name = " + TAG);
+            st.execute("VACUUM ANALYZE trades");
+            st.execute("ANALYZE trade_tags");
+        }
+    }
+}
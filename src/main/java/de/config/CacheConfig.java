@@ -0,0 +1,34 @@
+package de.config;
+
+import de.service.impl.TradeDataVersion;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Read-through caches for trade pages and statistics (Caffeine, see {@code spring.cache.*}).
+ * Keys start with the {@link TradeDataVersion} generation, so every commit of trades invalidates them.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String TRADE_PAGES = "tradePages";
+    public static final String TRADE_STATS = "tradeStats";
+
+    /**
+     * Key of generation, method and arguments.
+     */
+    @Bean
+    public KeyGenerator tradeDataKeyGenerator(TradeDataVersion tradeDataVersion) {
+        return (target, method, params) -> {
+            Object[] key = new Object[params.length + 2];
+            key[0] = tradeDataVersion.current();
+            key[1] = method.getName();
+            System.arraycopy(params, 0, key, 2, params.length);
+            return new SimpleKey(key);
+        };
+    }
+}
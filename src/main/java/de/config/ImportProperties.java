@@ -0,0 +1,244 @@
+package de.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for the trade import pipeline (prefix {@code tradesense.import}).
+ */
+@Component
+@ConfigurationProperties(prefix = "tradesense.import")
+public class ImportProperties {
+
+    /**
+     * Where import jobs wait and run.
+     */
+    public enum Queue {
+        /**
+         * In memory; a job runs on the node that received the upload. Single instance only.
+         */
+        LOCAL,
+        /**
+         * In PostgreSQL ({@code import_jobs}, {@code import_chunks}); every node pulls chunks of any job.
+         * Trades imported by other nodes reach caches and analytics of a node within {@code queue-poll-interval}
+         * (not its live feed). Chunked uploads are spooled in {@code spool-dir}: put it on storage shared by all
+         * nodes, or route all requests of an upload to the same node.
+         */
+        CLUSTER
+    }
+
+    private Queue queue = Queue.LOCAL;
+
+    /**
+     * Number of parsed rows that are collected before they are written with one JDBC batch
+     * inside a single transaction.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Minimum number of business keys the duplicate Bloom filter is sized for. The filter is sized
+     * for at least twice the stored trades when it is built.
+     */
+    private long bloomFilterExpectedKeys = 1_000_000;
+
+    /**
+     * Import jobs (with the cluster queue: chunks) that run at the same time on this node. Each holds a pooled
+     * connection while flushing, so keep this well below the connection pool size.
+     */
+    private int maxConcurrentJobs = 2;
+
+    /**
+     * Uploads that may wait for a free import slot before new uploads are rejected (with the cluster queue:
+     * queued jobs in the whole cluster).
+     */
+    private int queueCapacity = 20;
+
+    /**
+     * Directory where uploads are spooled until their import job has run.
+     */
+    private Path spoolDir = Path.of(System.getProperty("java.io.tmpdir"), "tradesense-imports");
+
+    /**
+     * How long finished jobs stay queryable.
+     */
+    private Duration jobRetention = Duration.ofHours(1);
+
+    /**
+     * Threads that parse CSV chunks, shared by all running imports.
+     */
+    private int parserThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Size of the CSV chunks handed to the parser threads, in chars. Chunks are cut at record boundaries.
+     */
+    private int csvChunkSize = 256 * 1024;
+
+    /**
+     * Size of the chunks the cluster queue splits an upload into, in chars (of an XLSX sheet: cell text); one
+     * chunk is imported by one node.
+     */
+    private int queueChunkSize = 2 * 1024 * 1024;
+
+    /**
+     * How often a node waiting for work asks the cluster queue for a chunk, and checks whether other nodes
+     * changed trades.
+     */
+    private Duration queuePollInterval = Duration.ofSeconds(1);
+
+    /**
+     * How often a node confirms the chunks it is importing.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(5);
+
+    /**
+     * A chunk without heartbeat for this long is taken away from its node (which is assumed dead) and queued again.
+     */
+    private Duration stallTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Attempts per chunk before it (and its job) fails.
+     */
+    private int chunkMaxAttempts = 3;
+
+    /**
+     * Largest file accepted as chunked upload ({@code /api/trades/uploads}).
+     */
+    private DataSize maxUploadSize = DataSize.ofGigabytes(2);
+
+    /**
+     * How long a chunked upload may go without a new chunk before its data is removed.
+     */
+    private Duration chunkedUploadRetention = Duration.ofHours(24);
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getBloomFilterExpectedKeys() {
+        return bloomFilterExpectedKeys;
+    }
+
+    public void setBloomFilterExpectedKeys(long bloomFilterExpectedKeys) {
+        this.bloomFilterExpectedKeys = bloomFilterExpectedKeys;
+    }
+
+    public int getMaxConcurrentJobs() {
+        return maxConcurrentJobs;
+    }
+
+    public void setMaxConcurrentJobs(int maxConcurrentJobs) {
+        this.maxConcurrentJobs = maxConcurrentJobs;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Path getSpoolDir() {
+        return spoolDir;
+    }
+
+    public void setSpoolDir(Path spoolDir) {
+        this.spoolDir = spoolDir;
+    }
+
+    public Duration getJobRetention() {
+        return jobRetention;
+    }
+
+    public void setJobRetention(Duration jobRetention) {
+        this.jobRetention = jobRetention;
+    }
+
+    public int getParserThreads() {
+        return parserThreads;
+    }
+
+    public void setParserThreads(int parserThreads) {
+        this.parserThreads = parserThreads;
+    }
+
+    public int getCsvChunkSize() {
+        return csvChunkSize;
+    }
+
+    public void setCsvChunkSize(int csvChunkSize) {
+        this.csvChunkSize = csvChunkSize;
+    }
+
+    public DataSize getMaxUploadSize() {
+        return maxUploadSize;
+    }
+
+    public void setMaxUploadSize(DataSize maxUploadSize) {
+        this.maxUploadSize = maxUploadSize;
+    }
+
+    public Duration getChunkedUploadRetention() {
+        return chunkedUploadRetention;
+    }
+
+    public void setChunkedUploadRetention(Duration chunkedUploadRetention) {
+        this.chunkedUploadRetention = chunkedUploadRetention;
+    }
+
+    public Queue getQueue() {
+        return queue;
+    }
+
+    public void setQueue(Queue queue) {
+        this.queue = queue;
+    }
+
+    public int getQueueChunkSize() {
+        return queueChunkSize;
+    }
+
+    public void setQueueChunkSize(int queueChunkSize) {
+        this.queueChunkSize = queueChunkSize;
+    }
+
+    public Duration getQueuePollInterval() {
+        return queuePollInterval;
+    }
+
+    public void setQueuePollInterval(Duration queuePollInterval) {
+        this.queuePollInterval = queuePollInterval;
+    }
+
+    public Duration getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public void setHeartbeatInterval(Duration heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    public Duration getStallTimeout() {
+        return stallTimeout;
+    }
+
+    public void setStallTimeout(Duration stallTimeout) {
+        this.stallTimeout = stallTimeout;
+    }
+
+    public int getChunkMaxAttempts() {
+        return chunkMaxAttempts;
+    }
+
+    public void setChunkMaxAttempts(int chunkMaxAttempts) {
+        this.chunkMaxAttempts = chunkMaxAttempts;
+    }
+}
@@ -0,0 +1,43 @@
+package de.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import de.controller.TradeDataConditionalRequests;
+import de.service.impl.TradeDataVersion;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Conditional requests for the trade read endpoints and CBOR ({@code Accept: application/cbor}) as compact
+ * alternative to JSON.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final TradeDataVersion tradeDataVersion;
+
+    public WebConfig(TradeDataVersion tradeDataVersion) {
+        this.tradeDataVersion = tradeDataVersion;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new TradeDataConditionalRequests(tradeDataVersion))
+                .addPathPatterns("/api/trades", "/api/trades/**")
+                // job and upload progress change without a new generation, the live feed is not cacheable
+                .excludePathPatterns("/api/trades/imports/**", "/api/trades/uploads", "/api/trades/uploads/**",
+                        "/api/trades/events");
+    }
+
+    /**
+     * CBOR with the same Jackson settings as JSON (dates as ISO strings etc.); replaces Spring's default CBOR
+     * converter.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,63 @@
+package de.controller;
+
+import de.model.stats.AnalyticsFilter;
+import de.model.stats.EquityPoint;
+import de.model.stats.GroupStats;
+import de.service.TradeAnalyticsService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Analyse-Endpunkte auf dem In-Memory-Spaltenspeicher (Gruppierungen ohne Datenbankabfrage).
+ */
+@RestController
+@RequestMapping("/api/trades/analytics")
+public class TradeAnalyticsController {
+
+    private final TradeAnalyticsService tradeAnalyticsService;
+
+    public TradeAnalyticsController(TradeAnalyticsService tradeAnalyticsService) {
+        this.tradeAnalyticsService = tradeAnalyticsService;
+    }
+
+    /**
+     * Summe der Trades mit allen {@code tag} und keinem {@code excludeTag}, z.B.
+     * {@code ?tag=momentum&excludeTag=news&from=2025-07-01T00:00:00&to=2025-10-01T00:00:00}.
+     */
+    @GetMapping("/summary")
+    public GroupStats getSummary(@RequestParam(value = "symbol", required = false) String symbol,
+                                 @RequestParam(value = "tag", required = false) List<String> tags,
+                                 @RequestParam(value = "excludeTag", required = false) List<String> excludedTags,
+                                 @RequestParam(value = "from", required = false)
+                                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                 @RequestParam(value = "to", required = false)
+                                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return tradeAnalyticsService.summary(new AnalyticsFilter(symbol, tags, excludedTags, from, to));
+    }
+
+    @GetMapping("/by-symbol")
+    public List<GroupStats> getBySymbol() {
+        return tradeAnalyticsService.bySymbol();
+    }
+
+    @GetMapping("/by-tag")
+    public List<GroupStats> getByTag() {
+        return tradeAnalyticsService.byTag();
+    }
+
+    @GetMapping("/by-hour")
+    public List<GroupStats> getByHourOfDay() {
+        return tradeAnalyticsService.byHourOfDay();
+    }
+
+    @GetMapping("/equity")
+    public List<EquityPoint> getEquityCurve() {
+        return tradeAnalyticsService.equityByDay();
+    }
+}
@@ -0,0 +1,41 @@
+package de.controller;
+
+import de.service.impl.TradeDataVersion;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Conditional GETs for the trade read endpoints: ETag and Last-Modified come from the {@link TradeDataVersion},
+ * so an unchanged {@code If-None-Match}/{@code If-Modified-Since} is answered with 304 before the handler runs,
+ * without serializing or querying anything. Responses are marked {@code no-cache}, so browsers revalidate on
+ * every poll instead of showing stale data.
+ * <p>
+ * The ETag is weak (the body may be gzipped) and differs per representation (JSON/CBOR).
+ */
+public class TradeDataConditionalRequests implements HandlerInterceptor {
+
+    private final TradeDataVersion tradeDataVersion;
+
+    public TradeDataConditionalRequests(TradeDataVersion tradeDataVersion) {
+        this.tradeDataVersion = tradeDataVersion;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        String representation = accept != null && accept.contains("cbor") ? "-cbor" : "";
+        String etag = "W/\"" + tradeDataVersion.marker() + representation + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return !new ServletWebRequest(request, response)
+                .checkNotModified(etag, tradeDataVersion.lastModified().toEpochMilli());
+    }
+}
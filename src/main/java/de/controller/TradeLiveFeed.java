@@ -0,0 +1,189 @@
+package de.controller;
+
+import de.model.importjob.ImportJob;
+import de.model.trade.Trade;
+import de.model.trade.TradeView;
+import de.service.ImportJobService;
+import de.service.TradeStatsService;
+import de.service.TradesChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-Sent Events for the dashboard ({@code GET /api/trades/events}), so open dashboards patch their state
+ * instead of polling and reloading everything:
+ * <ul>
+ *     <li>{@code trades}: newly inserted and updated rows, newest first. Above {@value #MAX_ROWS} inserted rows
+ *     per tick only the newest are sent with {@code truncated=true}; the client then reloads its first page.</li>
+ *     <li>{@code stats}: the current statistics, same shape as {@code GET /api/trades/stats}.</li>
+ *     <li>{@code import}: progress of queued/running jobs and their final state, same shape as
+ *     {@code GET /api/trades/imports/{id}}.</li>
+ * </ul>
+ * Changes are collected and sent once per tick by a single thread, so an import with many chunks costs one
+ * stats query per tick for all clients together, and a slow client never blocks the importing thread.
+ */
+@Component
+public class TradeLiveFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(TradeLiveFeed.class);
+
+    static final int MAX_ROWS = 100;
+    private static final Duration TICK = Duration.ofSeconds(1);
+    private static final int HEARTBEAT_TICKS = 20;
+    // EventSource reconnects on its own after the timeout
+    private static final Duration EMITTER_TIMEOUT = Duration.ofMinutes(30);
+
+    // newest first, like the trade list
+    private static final Comparator<Trade> NEWEST_FIRST = Comparator.comparing(Trade::getTimestamp)
+            .thenComparing(Trade::getId)
+            .reversed();
+
+    private final TradeStatsService tradeStatsService;
+    private final ImportJobService importJobService;
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(daemon(new CustomizableThreadFactory("trade-feed-")));
+
+    // guarded by this
+    private List<Trade> pendingInserted = new ArrayList<>();
+    private long pendingInsertedCount;
+    private List<TradeView> pendingUpdated = new ArrayList<>();
+
+    private Instant lastTick = Instant.now();
+    private int ticks;
+
+    public TradeLiveFeed(TradeStatsService tradeStatsService, ImportJobService importJobService) {
+        this.tradeStatsService = tradeStatsService;
+        this.importJobService = importJobService;
+        scheduler.scheduleWithFixedDelay(this::tick, TICK.toMillis(), TICK.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT.toMillis());
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+        logger.debug("Live feed subscriber added, {} connected", emitters.size());
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradesChanged(TradesChangedEvent event) {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            if (event.updated()) {
+                // converted here, the tags of a saved entity may still need its session
+                event.inserted().forEach(t -> pendingUpdated.add(TradeView.of(t)));
+            } else {
+                pendingInsertedCount += event.inserted().size();
+                pendingInserted.addAll(event.inserted());
+                if (pendingInserted.size() > 4 * MAX_ROWS) {
+                    pendingInserted = new ArrayList<>(newest(pendingInserted));
+                }
+            }
+        }
+    }
+
+    private void tick() {
+        try {
+            Instant tickStart = Instant.now();
+            List<Trade> inserted;
+            List<TradeView> updated;
+            long insertedCount;
+            synchronized (this) {
+                inserted = pendingInserted;
+                updated = pendingUpdated;
+                insertedCount = pendingInsertedCount;
+                pendingInserted = new ArrayList<>();
+                pendingUpdated = new ArrayList<>();
+                pendingInsertedCount = 0;
+            }
+            if (emitters.isEmpty()) {
+                lastTick = tickStart;
+                return;
+            }
+
+            if (insertedCount > 0 || !updated.isEmpty()) {
+                Map<String, Object> trades = new LinkedHashMap<>();
+                trades.put("inserted", newest(inserted).stream().map(TradeView::of).toList());
+                trades.put("insertedCount", insertedCount);
+                trades.put("truncated", insertedCount > MAX_ROWS);
+                trades.put("updated", updated);
+                broadcast("trades", trades);
+                broadcast("stats", TradeResponses.toMap(tradeStatsService.getStats()));
+            }
+            // after the rows, so a client sees the trades of a job before its completion
+            for (ImportJob job : importJobService.findJobs()) {
+                if (!job.isDone() || job.getFinishedAt().isAfter(lastTick)) {
+                    broadcast("import", TradeResponses.toMap(job));
+                }
+            }
+            if (++ticks % HEARTBEAT_TICKS == 0) {
+                heartbeat();
+            }
+            lastTick = tickStart;
+        } catch (RuntimeException e) {
+            // keep the schedule alive, the next tick sends fresh state
+            logger.warn("Live feed tick failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void broadcast(String name, Object data) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                // client went away; the container completes the emitter
+                emitters.remove(emitter);
+            }
+        }
+    }
+
+    // comment line, lets the container notice closed connections between changes
+    private void heartbeat() {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+            }
+        }
+    }
+
+    private static List<Trade> newest(List<Trade> trades) {
+        return trades.stream().sorted(NEWEST_FIRST).limit(MAX_ROWS).toList();
+    }
+
+    private static CustomizableThreadFactory daemon(CustomizableThreadFactory factory) {
+        factory.setDaemon(true);
+        return factory;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+    }
+}
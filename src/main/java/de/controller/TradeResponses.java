@@ -0,0 +1,102 @@
+package de.controller;
+
+import de.model.importjob.ChunkedUpload;
+import de.model.importjob.ImportJob;
+import de.model.importjob.ImportedFile;
+import de.model.stats.TradeStats;
+import de.model.stats.TradeStatsEntry;
+import de.model.trade.ImportResult;
+import de.service.DuplicateImportException;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JSON-Darstellung von Statistiken, Uploads und Import-Jobs, gemeinsam für REST-Antworten und den Live-Feed.
+ */
+final class TradeResponses {
+
+    private TradeResponses() {
+    }
+
+    static Map<String, Object> toMap(TradeStats tradeStats) {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalTrades", tradeStats.totalTrades());
+        stats.put("sumProfitLoss", tradeStats.sumProfitLoss());
+        stats.put("avgProfitLoss", tradeStats.avgProfitLoss());
+        stats.put("winRatePercent", tradeStats.winRatePercent());
+        stats.put("bySymbol", counts(tradeStats.bySymbol()));
+        stats.put("profitLossBySymbol", profitLoss(tradeStats.bySymbol()));
+        stats.put("byTag", counts(tradeStats.byTag()));
+        stats.put("profitLossByTag", profitLoss(tradeStats.byTag()));
+        return stats;
+    }
+
+    private static Map<String, Long> counts(Map<String, TradeStatsEntry> groups) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        groups.forEach((name, entry) -> counts.put(name, entry.getTradeCount()));
+        return counts;
+    }
+
+    private static Map<String, Double> profitLoss(Map<String, TradeStatsEntry> groups) {
+        Map<String, Double> profitLoss = new LinkedHashMap<>();
+        groups.forEach((name, entry) -> profitLoss.put(name, entry.getProfitLossSum()));
+        return profitLoss;
+    }
+
+    static Map<String, Object> toMap(ImportJob job) {
+        ImportResult progress = job.getProgress();
+        Map<String, Object> resp = new LinkedHashMap<>();
+        resp.put("id", job.getId());
+        resp.put("fileName", job.getFileName());
+        resp.put("format", job.getFormat());
+        resp.put("sha256", job.getContentHash());
+        resp.put("status", job.getStatus());
+        resp.put("createdAt", job.getCreatedAt());
+        resp.put("startedAt", job.getStartedAt());
+        resp.put("finishedAt", job.getFinishedAt());
+        resp.put("rowsParsed", progress.getRowsParsed());
+        resp.put("rowsInserted", progress.getRowsInserted());
+        resp.put("rowsSkipped", progress.getRowsSkipped());
+        resp.put("rowsFailed", progress.getRowsFailed());
+        if (job.getStartedAt() != null) {
+            resp.put("durationMillis", progress.getDurationMillis());
+            resp.put("rowsPerSecond", progress.getRowsPerSecond());
+        }
+        if (job.getErrorMessage() != null) {
+            resp.put("message", job.getErrorMessage());
+        }
+        return resp;
+    }
+
+    static Map<String, Object> toMap(ChunkedUpload upload) {
+        Map<String, Object> resp = new LinkedHashMap<>();
+        resp.put("id", upload.getId());
+        resp.put("fileName", upload.getFileName());
+        resp.put("size", upload.getSize());
+        resp.put("offset", upload.getOffset());
+        resp.put("complete", upload.isComplete());
+        resp.put("sha256", upload.getSha256());
+        resp.put("createdAt", upload.getCreatedAt());
+        resp.put("updatedAt", upload.getUpdatedAt());
+        resp.put("uploadUrl", "/api/trades/uploads/" + upload.getId());
+        return resp;
+    }
+
+    /**
+     * Antwort auf eine Datei, die schon importiert wurde: nichts zu tun, Verweis auf den früheren Import.
+     */
+    static Map<String, Object> toMap(DuplicateImportException e) {
+        ImportedFile previous = e.getPrevious();
+        Map<String, Object> resp = new LinkedHashMap<>();
+        resp.put("status", "duplicate");
+        resp.put("message", e.getMessage());
+        resp.put("sha256", previous.sha256());
+        resp.put("fileName", previous.fileName());
+        resp.put("importedAt", previous.importedAt());
+        resp.put("rowsInserted", previous.rowsInserted());
+        resp.put("jobId", previous.jobId());
+        return resp;
+    }
+}
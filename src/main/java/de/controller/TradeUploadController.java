@@ -0,0 +1,124 @@
+package de.controller;
+
+import de.model.importjob.ChunkedUpload;
+import de.model.importjob.ImportJob;
+import de.service.ChunkedUploadService;
+import de.service.DuplicateImportException;
+import de.service.ImportRejectedException;
+import de.service.UploadOffsetException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Wiederaufnehmbarer Upload in Teilen für große Dateien:
+ * <ol>
+ *     <li>{@code POST /api/trades/uploads?fileName&size[&sha256]} legt den Upload an</li>
+ *     <li>{@code PUT /api/trades/uploads/{id}?offset=n} mit den Bytes ab Position n als Body, beliebig oft</li>
+ *     <li>{@code POST /api/trades/uploads/{id}/complete[?sha256]} prüft den Hash und startet den Import-Job</li>
+ * </ol>
+ * Nach einem Abbruch liefert {@code GET /api/trades/uploads/{id}} den Offset, an dem es weitergeht. Eine Datei,
+ * die schon importiert wurde, wird mit {@code status=duplicate} beantwortet, beim Anlegen (wenn der Hash angegeben
+ * ist) oder beim Abschluss.
+ */
+@RestController
+@RequestMapping("/api/trades/uploads")
+public class TradeUploadController {
+
+    private final ChunkedUploadService chunkedUploadService;
+
+    public TradeUploadController(ChunkedUploadService chunkedUploadService) {
+        this.chunkedUploadService = chunkedUploadService;
+    }
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> createUpload(@RequestParam("fileName") String fileName,
+                                                            @RequestParam("size") long size,
+                                                            @RequestParam(value = "sha256", required = false) String sha256)
+            throws IOException {
+        try {
+            ChunkedUpload upload = chunkedUploadService.create(fileName, size, sha256);
+            return ResponseEntity.created(URI.create("/api/trades/uploads/" + upload.getId()))
+                    .body(TradeResponses.toMap(upload));
+        } catch (DuplicateImportException e) {
+            return ResponseEntity.ok(TradeResponses.toMap(e));
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> getUpload(@PathVariable("id") String id) {
+        return chunkedUploadService.find(id)
+                .map(upload -> ResponseEntity.ok(TradeResponses.toMap(upload)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Schreibt den Body ab {@code offset}. Bricht die Verbindung ab, bleibt das bereits Empfangene erhalten;
+     * bei falschem Offset kommt 409 mit dem aktuellen Offset.
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> writeChunk(@PathVariable("id") String id,
+                                                          @RequestParam("offset") long offset,
+                                                          HttpServletRequest request) throws IOException {
+        try {
+            ChunkedUpload upload = chunkedUploadService.writeChunk(id, offset, request.getInputStream());
+            return ResponseEntity.ok(TradeResponses.toMap(upload));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (UploadOffsetException e) {
+            ResponseEntity<Map<String, Object>> conflict = error(HttpStatus.CONFLICT, e.getMessage());
+            conflict.getBody().put("offset", e.getOffset());
+            return conflict;
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<Map<String, Object>> completeUpload(@PathVariable("id") String id,
+                                                              @RequestParam(value = "sha256", required = false) String sha256)
+            throws IOException {
+        try {
+            ImportJob job = chunkedUploadService.complete(id, sha256);
+            Map<String, Object> resp = new HashMap<>();
+            resp.put("status", "accepted");
+            resp.put("jobId", job.getId());
+            resp.put("sha256", job.getContentHash());
+            resp.put("statusUrl", "/api/trades/imports/" + job.getId());
+            return ResponseEntity.accepted().body(resp);
+        } catch (DuplicateImportException e) {
+            return ResponseEntity.ok(TradeResponses.toMap(e));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (ImportRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "10")
+                    .body(error(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()).getBody());
+        } catch (UploadOffsetException | IllegalStateException e) {
+            return error(HttpStatus.CONFLICT, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteUpload(@PathVariable("id") String id) throws IOException {
+        return chunkedUploadService.delete(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("status", "error");
+        resp.put("message", message);
+        return ResponseEntity.status(status).body(resp);
+    }
+}
@@ -1,67 +1,328 @@
 package de.controller;
 
-import de.model.trade.Trade;
+import de.model.importjob.ImportFormat;
+import de.model.importjob.ImportJob;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.model.stats.ProfitLossBucket;
+import de.model.stats.StatsInterval;
+import de.model.trade.TradeFilter;
+import de.model.trade.TradePage;
+import de.model.trade.TradeSearchPage;
+import de.service.DuplicateImportException;
+import de.service.ImportJobService;
+import de.service.ImportRejectedException;
+import de.service.TradeStatsService;
 import de.service.TradesService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 /**
- * REST-API für Trades: liefert Trades, erlaubt Upload von CSV und liefert Grundstatistiken.
+ * REST-API für Trades: liefert Trades, erlaubt Upload von CSV/XLSX (als Import-Job) und liefert Grundstatistiken.
  */
 @RestController
 @RequestMapping("/api/trades")
 public class TradesRestController {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int DEFAULT_SEARCH_PAGE_SIZE = 20;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
     private final TradesService tradesService;
+    private final ImportJobService importJobService;
+    private final TradeStatsService tradeStatsService;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper cborMapper;
+    private final TradeLiveFeed tradeLiveFeed;
 
-    public TradesRestController(TradesService tradesService) {
+    public TradesRestController(TradesService tradesService, ImportJobService importJobService,
+                                TradeStatsService tradeStatsService, ObjectMapper objectMapper,
+                                MappingJackson2CborHttpMessageConverter cborConverter, TradeLiveFeed tradeLiveFeed) {
         this.tradesService = tradesService;
+        this.importJobService = importJobService;
+        this.tradeStatsService = tradeStatsService;
+        this.objectMapper = objectMapper;
+        this.cborMapper = cborConverter.getObjectMapper();
+        this.tradeLiveFeed = tradeLiveFeed;
     }
 
+    /**
+     * Nimmt die Datei an und startet den Import im Hintergrund; Fortschritt über {@code GET /imports/{id}}.
+     * Eine bereits importierte Datei (gleicher SHA-256) wird nicht erneut importiert ({@code status=duplicate}).
+     * Große Dateien besser in Teilen über {@link TradeUploadController}.
+     */
     @PostMapping("/upload")
-    public Map<String, Object> uploadCsv(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<Map<String, Object>> uploadCsv(@RequestParam("file") MultipartFile file) {
         Map<String, Object> resp = new HashMap<>();
         try {
-            String name = file.getOriginalFilename();
-            if (name != null && (name.endsWith(".csv") || name.endsWith(".CSV"))) {
-                tradesService.importTradesFromCsv(file);
-            } else if (name != null && (name.endsWith(".xlsx") || name.endsWith(".xls"))) {
-                tradesService.importTradesFromExcel(file);
-            } else {
-                // allow CSV or Excel
-                tradesService.importTradesFromCsv(file);
-            }
-            resp.put("status", "ok");
+            ImportJob job = importJobService.submit(file);
+            resp.put("status", "accepted");
+            resp.put("jobId", job.getId());
+            resp.put("statusUrl", "/api/trades/imports/" + job.getId());
+            return ResponseEntity.accepted().body(resp);
+        } catch (DuplicateImportException e) {
+            return ResponseEntity.ok(TradeResponses.toMap(e));
+        } catch (ImportRejectedException e) {
+            resp.put("status", "error");
+            resp.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "10").body(resp);
         } catch (Exception e) {
             resp.put("status", "error");
             resp.put("message", e.getMessage());
+            return ResponseEntity.internalServerError().body(resp);
         }
-        return resp;
     }
 
+    @GetMapping("/imports/{id}")
+    public ResponseEntity<Map<String, Object>> getImportJob(@PathVariable("id") String id) {
+        return importJobService.findJob(id)
+                .map(job -> ResponseEntity.ok(TradeResponses.toMap(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Statistiken aus dem Aggregat-Speicher (ohne die Trades zu laden).
+     */
     @GetMapping("/stats")
-    public Map<String, Object> getStats() {
-        List<Trade> trades = tradesService.getAllTrades();
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("totalTrades", trades.size());
-        double sum = trades.stream().filter(t -> t.getProfitLoss() != null).mapToDouble(Trade::getProfitLoss).sum();
-        double avg = trades.stream().filter(t -> t.getProfitLoss() != null).mapToDouble(Trade::getProfitLoss).average().orElse(0.0);
-        stats.put("sumProfitLoss", sum);
-        stats.put("avgProfitLoss", avg);
-        long wins = trades.stream().filter(t -> t.getProfitLoss() != null && t.getProfitLoss() > 0).count();
-        double winRate = trades.isEmpty() ? 0.0 : (wins * 100.0 / trades.size());
-        stats.put("winRatePercent", winRate);
-        Map<String, Long> bySymbol = trades.stream().filter(t -> t.getSymbol() != null)
-                .collect(Collectors.groupingBy(Trade::getSymbol, Collectors.counting()));
-        stats.put("bySymbol", bySymbol);
-        return stats;
+    public Map<String, Object> getStats(@RequestParam(value = "from", required = false)
+                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                        @RequestParam(value = "to", required = false)
+                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return TradeResponses.toMap(tradeStatsService.getStats(from, to));
+    }
+
+    /**
+     * P/L je Tag/Woche/Monat ({@code interval=day|week|month}).
+     */
+    @GetMapping("/pnl")
+    public ResponseEntity<?> getProfitLoss(@RequestParam(value = "interval", defaultValue = "day") String interval,
+                                           @RequestParam(value = "from", required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                           @RequestParam(value = "to", required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return series(interval, from, to, b -> {
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("bucket", b.getBucket());
+            point.put("trades", b.getTrades());
+            point.put("profitLoss", b.getProfitLoss());
+            point.put("wins", b.getWins());
+            return point;
+        });
+    }
+
+    /**
+     * Equity-Kurve (kumulierter P/L) je Tag/Woche/Monat, beginnend bei 0 am Anfang des Zeitraums.
+     */
+    @GetMapping("/equity")
+    public ResponseEntity<?> getEquityCurve(@RequestParam(value = "interval", defaultValue = "day") String interval,
+                                            @RequestParam(value = "from", required = false)
+                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                            @RequestParam(value = "to", required = false)
+                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return series(interval, from, to, b -> {
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("bucket", b.getBucket());
+            point.put("profitLoss", b.getProfitLoss());
+            point.put("equity", b.getEquity());
+            return point;
+        });
     }
 
+    /**
+     * Drawdown-Verlauf (Abstand der Equity zum bisherigen Höchststand) und maximaler Drawdown.
+     */
+    @GetMapping("/drawdown")
+    public ResponseEntity<?> getDrawdown(@RequestParam(value = "interval", defaultValue = "day") String interval,
+                                         @RequestParam(value = "from", required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                         @RequestParam(value = "to", required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            List<ProfitLossBucket> buckets =
+                    tradeStatsService.getProfitLossSeries(StatsInterval.fromParam(interval), from, to);
+            ProfitLossBucket worst = null;
+            List<Map<String, Object>> points = new ArrayList<>(buckets.size());
+            for (ProfitLossBucket b : buckets) {
+                if (worst == null || b.getDrawdown() < worst.getDrawdown()) {
+                    worst = b;
+                }
+                Map<String, Object> point = new LinkedHashMap<>();
+                point.put("bucket", b.getBucket());
+                point.put("equity", b.getEquity());
+                point.put("peak", b.getPeak());
+                point.put("drawdown", b.getDrawdown());
+                points.add(point);
+            }
+            Map<String, Object> resp = new LinkedHashMap<>();
+            resp.put("maxDrawdown", worst != null ? worst.getDrawdown() : 0.0);
+            resp.put("maxDrawdownAt", worst != null && worst.getDrawdown() < 0 ? worst.getBucket() : null);
+            resp.put("points", points);
+            return ResponseEntity.ok(resp);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
+    }
+
+    /**
+     * Baut die Statistiken komplett aus der Trade-Tabelle neu auf (z.B. nach manuellen DB-Änderungen).
+     */
+    @PostMapping("/stats/rebuild")
+    public Map<String, Object> rebuildStats() {
+        return TradeResponses.toMap(tradeStatsService.rebuild());
+    }
+
+    /**
+     * Seitenweise Trade-Liste (neueste zuerst). Die nächste Seite wird über {@code cursor=<nextCursor>} geladen.
+     */
     @GetMapping
-    public List<Trade> getAllTrades() {
-        return tradesService.getAllTrades();
+    public ResponseEntity<?> getTrades(@RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                       @RequestParam(value = "cursor", required = false) String cursor,
+                                       @RequestParam(value = "symbol", required = false) String symbol,
+                                       @RequestParam(value = "tag", required = false) String tag,
+                                       @RequestParam(value = "from", required = false)
+                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                       @RequestParam(value = "to", required = false)
+                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        try {
+            TradePage page = tradesService.findTrades(new TradeFilter(symbol, tag, from, to), cursor, pageSize);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
     }
-}
 
+    /**
+     * Volltextsuche über Symbol, Tags und Notizen ({@code q}: Wörter, {@code "Phrasen"}, {@code or},
+     * {@code -ausgeschlossen}), beste Treffer zuerst, mit hervorgehobenem Ausschnitt der Notizen.
+     * Nächste Seite über {@code cursor=<nextCursor>}.
+     * <p>
+     * Gerankt werden nur die neuesten 1000 Treffer; {@code truncated: true} heißt, es gibt ältere, die auf
+     * keiner Seite erscheinen. Die lassen sich mit {@code to} (oder einer genaueren Suche) erreichen.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchTrades(@RequestParam(value = "q") String query,
+                                          @RequestParam(value = "limit", defaultValue = "" + DEFAULT_SEARCH_PAGE_SIZE) int limit,
+                                          @RequestParam(value = "cursor", required = false) String cursor,
+                                          @RequestParam(value = "symbol", required = false) String symbol,
+                                          @RequestParam(value = "tag", required = false) String tag,
+                                          @RequestParam(value = "from", required = false)
+                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                          @RequestParam(value = "to", required = false)
+                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_SEARCH_PAGE_SIZE));
+        try {
+            TradeSearchPage page = tradesService.searchTrades(query, new TradeFilter(symbol, tag, from, to), cursor, pageSize);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
+    }
+
+    /**
+     * Alle passenden Trades als JSON-Array (bzw. CBOR bei {@code Accept: application/cbor}), direkt aus dem
+     * DB-Cursor geschrieben (kein Laden in den Speicher).
+     */
+    @GetMapping(value = "/stream", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamTrades(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestParam(value = "symbol", required = false) String symbol,
+            @RequestParam(value = "tag", required = false) String tag,
+            @RequestParam(value = "from", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        TradeFilter filter = new TradeFilter(symbol, tag, from, to);
+        boolean cbor = accept != null && accept.contains(MediaType.APPLICATION_CBOR_VALUE);
+        ObjectMapper mapper = cbor ? cborMapper : objectMapper;
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = mapper.getFactory().createGenerator(out)) {
+                json.writeStartArray();
+                tradesService.streamTrades(filter, view -> {
+                    try {
+                        json.writeObject(view);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(cbor ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Export als CSV oder XLSX im Spaltenlayout des Imports (wieder importierbar), direkt aus dem DB-Cursor
+     * geschrieben; der Speicherbedarf hängt nicht von der Anzahl der Trades ab.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTrades(
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "symbol", required = false) String symbol,
+            @RequestParam(value = "tag", required = false) String tag,
+            @RequestParam(value = "from", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        ImportFormat exportFormat;
+        try {
+            exportFormat = ImportFormat.fromParam(format);
+        } catch (IllegalArgumentException e) {
+            // the return type has to stay StreamingResponseBody, so the error map is written by hand
+            Map<String, Object> error = badRequest(e).getBody();
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, error));
+        }
+        TradeFilter filter = new TradeFilter(symbol, tag, from, to);
+        StreamingResponseBody body = out -> tradesService.exportTrades(filter, exportFormat, out);
+        MediaType contentType = exportFormat == ImportFormat.XLSX
+                ? MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
+                : new MediaType("text", "csv", StandardCharsets.UTF_8);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("trades" + exportFormat.getExtension()).build().toString())
+                .body(body);
+    }
+
+    /**
+     * Live-Feed (Server-Sent Events) mit neuen Trades, Statistiken und Import-Fortschritt, siehe {@link TradeLiveFeed}.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events() {
+        return tradeLiveFeed.subscribe();
+    }
+
+    private ResponseEntity<?> series(String interval, LocalDateTime from, LocalDateTime to,
+                                     Function<ProfitLossBucket, Map<String, Object>> mapper) {
+        try {
+            return ResponseEntity.ok(tradeStatsService.getProfitLossSeries(StatsInterval.fromParam(interval), from, to)
+                    .stream().map(mapper).toList());
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
+    }
+
+    private static ResponseEntity<Map<String, Object>> badRequest(IllegalArgumentException e) {
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("status", "error");
+        resp.put("message", e.getMessage());
+        return ResponseEntity.badRequest().body(resp);
+    }
+}
@@ -0,0 +1,76 @@
+package de.model.importjob;
+
+import java.time.Instant;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A file that is uploaded in chunks before it is imported. {@link #getOffset()} is the number of bytes received,
+ * the position where the next chunk has to start.
+ */
+public class ChunkedUpload {
+
+    private final String id;
+    private final String fileName;
+    private final long size;
+    private final String sha256;
+    private final Instant createdAt;
+    // one chunk at a time
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile long offset;
+    private volatile Instant updatedAt;
+
+    /**
+     * @param sha256 SHA-256 announced by the client, hex; {@code null} if unknown
+     */
+    public ChunkedUpload(String id, String fileName, long size, String sha256, Instant createdAt, long offset) {
+        this.id = id;
+        this.fileName = fileName;
+        this.size = size;
+        this.sha256 = sha256;
+        this.createdAt = createdAt;
+        this.offset = offset;
+        this.updatedAt = createdAt;
+    }
+
+    public void advanceTo(long offset) {
+        this.offset = offset;
+        this.updatedAt = Instant.now();
+    }
+
+    public boolean isComplete() {
+        return offset == size;
+    }
+
+    public ReentrantLock getLock() {
+        return lock;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
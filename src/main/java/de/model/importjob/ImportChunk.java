@@ -0,0 +1,12 @@
+package de.model.importjob;
+
+/**
+ * A chunk of the shared import queue, as claimed by a node.
+ *
+ * @param attempt    claim number of this chunk; finishing it is only accepted for the latest claim
+ * @param header     CSV header record to put in front of {@code data}, {@code null} for XLSX
+ * @param lineOffset added to the line numbers of the chunk in messages, so they are those of the uploaded file
+ */
+public record ImportChunk(long id, String jobId, int seq, int attempt, ImportFormat format, String header,
+                          long lineOffset, byte[] data) {
+}
@@ -0,0 +1,47 @@
+package de.model.importjob;
+
+import java.util.Locale;
+
+/**
+ * Supported upload and export formats.
+ */
+public enum ImportFormat {
+    CSV(".csv"),
+    XLSX(".xlsx");
+
+    private final String extension;
+
+    ImportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Picks the format from the file extension; unknown extensions are treated as CSV.
+     */
+    public static ImportFormat fromFileName(String fileName) {
+        if (fileName != null) {
+            String lower = fileName.toLowerCase(Locale.ROOT);
+            if (lower.endsWith(".xlsx") || lower.endsWith(".xls")) {
+                return XLSX;
+            }
+        }
+        return CSV;
+    }
+
+    /**
+     * @param value {@code csv} or {@code xlsx}, case-insensitive
+     * @throws IllegalArgumentException for other values
+     */
+    public static ImportFormat fromParam(String value) {
+        for (ImportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown format '" + value + "', expected csv or xlsx");
+    }
+}
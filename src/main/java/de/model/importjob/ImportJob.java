@@ -0,0 +1,133 @@
+package de.model.importjob;
+
+import de.model.trade.ImportResult;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * An upload that is imported in the background. {@link #getProgress()} is updated while the job runs.
+ * Jobs of the shared import queue are snapshots read from the database instead.
+ */
+public class ImportJob {
+
+    private final String id;
+    private final String fileName;
+    private final ImportFormat format;
+    private final Path spoolFile;
+    private final long sizeBytes;
+    private final String contentHash;
+    private final Instant createdAt;
+    private final ImportResult progress;
+
+    private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String errorMessage;
+
+    /**
+     * @param contentHash SHA-256 of the file content, hex
+     */
+    public ImportJob(String id, String fileName, ImportFormat format, Path spoolFile, long sizeBytes,
+                     String contentHash) {
+        this.id = id;
+        this.fileName = fileName;
+        this.format = format;
+        this.spoolFile = spoolFile;
+        this.sizeBytes = sizeBytes;
+        this.contentHash = contentHash;
+        this.createdAt = Instant.now();
+        this.progress = new ImportResult();
+    }
+
+    /**
+     * A job as stored in the shared import queue; it has no local spool file.
+     */
+    public ImportJob(String id, String fileName, ImportFormat format, long sizeBytes, String contentHash,
+                     ImportJobStatus status, Instant createdAt, Instant startedAt, Instant finishedAt,
+                     String errorMessage, ImportResult progress) {
+        this.id = id;
+        this.fileName = fileName;
+        this.format = format;
+        this.spoolFile = null;
+        this.sizeBytes = sizeBytes;
+        this.contentHash = contentHash;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.errorMessage = errorMessage;
+        this.progress = progress;
+    }
+
+    public void markRunning() {
+        startedAt = Instant.now();
+        progress.start();
+        status = ImportJobStatus.RUNNING;
+    }
+
+    public void markCompleted() {
+        progress.finish();
+        finishedAt = Instant.now();
+        status = ImportJobStatus.COMPLETED;
+    }
+
+    public void markFailed(String message) {
+        progress.finish();
+        errorMessage = message;
+        finishedAt = Instant.now();
+        status = ImportJobStatus.FAILED;
+    }
+
+    public boolean isDone() {
+        return status == ImportJobStatus.COMPLETED || status == ImportJobStatus.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public ImportFormat getFormat() {
+        return format;
+    }
+
+    public Path getSpoolFile() {
+        return spoolFile;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public ImportResult getProgress() {
+        return progress;
+    }
+
+    public ImportJobStatus getStatus() {
+        return status;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
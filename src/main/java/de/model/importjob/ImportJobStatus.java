@@ -0,0 +1,8 @@
+package de.model.importjob;
+
+public enum ImportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
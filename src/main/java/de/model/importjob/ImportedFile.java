@@ -0,0 +1,10 @@
+package de.model.importjob;
+
+import java.time.Instant;
+
+/**
+ * A file that was imported completely, identified by the SHA-256 of its content.
+ */
+public record ImportedFile(String sha256, String fileName, long sizeBytes, long rowsInserted, String jobId,
+                           Instant importedAt) {
+}
@@ -0,0 +1,29 @@
+package de.model.stats;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Selection of an analytics summary; {@code null} or empty means "no restriction". A trade matches if it has all
+ * of {@code tags} and none of {@code excludedTags}. The time range is half-open ({@code from <= timestamp < to}).
+ */
+public record AnalyticsFilter(String symbol, List<String> tags, List<String> excludedTags,
+                              LocalDateTime from, LocalDateTime to) {
+
+    public AnalyticsFilter {
+        tags = tags != null ? List.copyOf(tags) : List.of();
+        excludedTags = excludedTags != null ? List.copyOf(excludedTags) : List.of();
+    }
+
+    /**
+     * @return group name of the result, e.g. {@code AAPL/swing/-news}; {@code null} without symbol and tags
+     */
+    public String name() {
+        List<String> parts = new ArrayList<>();
+        if (symbol != null) parts.add(symbol);
+        parts.addAll(tags);
+        excludedTags.forEach(tag -> parts.add("-" + tag));
+        return parts.isEmpty() ? null : String.join("/", parts);
+    }
+}
@@ -0,0 +1,9 @@
+package de.model.stats;
+
+import java.time.LocalDate;
+
+/**
+ * One day of the equity curve: P/L of the day, cumulative P/L and drawdown from the running peak (&lt;= 0).
+ */
+public record EquityPoint(LocalDate day, long trades, double profitLoss, double equity, double drawdown) {
+}
@@ -0,0 +1,11 @@
+package de.model.stats;
+
+/**
+ * Count, P/L and wins of one group (symbol, tag, hour of day, ...) of an analytics query.
+ */
+public record GroupStats(String name, long trades, double profitLoss, long wins, double winRatePercent) {
+
+    public static GroupStats of(String name, long trades, double profitLoss, long wins) {
+        return new GroupStats(name, trades, profitLoss, wins, trades == 0 ? 0.0 : wins * 100.0 / trades);
+    }
+}
@@ -0,0 +1,24 @@
+package de.model.stats;
+
+import java.time.LocalDateTime;
+
+/**
+ * One time bucket of the P/L series: P/L of the bucket, equity (cumulative P/L), its running peak and
+ * the drawdown from that peak (&lt;= 0).
+ */
+public interface ProfitLossBucket {
+
+    LocalDateTime getBucket();
+
+    long getTrades();
+
+    double getProfitLoss();
+
+    long getWins();
+
+    double getEquity();
+
+    double getPeak();
+
+    double getDrawdown();
+}
@@ -0,0 +1,16 @@
+package de.model.stats;
+
+/**
+ * Projection of an aggregate query over trades; P/L is {@code (exitPrice - entryPrice) * quantity}.
+ */
+public interface ProfitLossSummary {
+
+    /** Symbol or tag of the group, {@code null} for the overall summary. */
+    String getName();
+
+    long getTrades();
+
+    double getProfitLoss();
+
+    long getWins();
+}
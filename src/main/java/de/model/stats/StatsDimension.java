@@ -0,0 +1,10 @@
+package de.model.stats;
+
+/**
+ * Grouping of a {@link TradeStatsEntry}: the overall total, per symbol or per tag.
+ */
+public enum StatsDimension {
+    TOTAL,
+    SYMBOL,
+    TAG
+}
@@ -0,0 +1,34 @@
+package de.model.stats;
+
+import java.util.Locale;
+
+/**
+ * Bucket size of time series; {@link #unit()} is the PostgreSQL {@code date_trunc} field.
+ */
+public enum StatsInterval {
+    DAY("day"),
+    WEEK("week"),
+    MONTH("month");
+
+    private final String unit;
+
+    StatsInterval(String unit) {
+        this.unit = unit;
+    }
+
+    public String unit() {
+        return unit;
+    }
+
+    /**
+     * @throws IllegalArgumentException for anything but day, week or month
+     */
+    public static StatsInterval fromParam(String value) {
+        for (StatsInterval interval : values()) {
+            if (interval.unit.equals(value.toLowerCase(Locale.ROOT))) {
+                return interval;
+            }
+        }
+        throw new IllegalArgumentException("Unknown interval: " + value + " (day, week or month)");
+    }
+}
@@ -0,0 +1,27 @@
+package de.model.stats;
+
+import java.util.Map;
+
+/**
+ * Snapshot of the aggregate store: overall figures plus the per-symbol and per-tag groups.
+ */
+public record TradeStats(TradeStatsEntry total,
+                         Map<String, TradeStatsEntry> bySymbol,
+                         Map<String, TradeStatsEntry> byTag) {
+
+    public long totalTrades() {
+        return total.getTradeCount();
+    }
+
+    public double sumProfitLoss() {
+        return total.getProfitLossSum();
+    }
+
+    public double avgProfitLoss() {
+        return total.getTradeCount() == 0 ? 0.0 : total.getProfitLossSum() / total.getTradeCount();
+    }
+
+    public double winRatePercent() {
+        return total.getTradeCount() == 0 ? 0.0 : total.getWinCount() * 100.0 / total.getTradeCount();
+    }
+}
@@ -0,0 +1,129 @@
+package de.model.stats;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Running aggregate over all trades of one group (see {@link StatsDimension}). The rows are kept up to date
+ * by the import and save paths and read by {@code /api/trades/stats}, so the statistics never scan the trades.
+ */
+@Entity
+@Table(name = "trade_stats")
+public class TradeStatsEntry {
+
+    /** Name of the single {@link StatsDimension#TOTAL} row. */
+    public static final String TOTAL_NAME = "";
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(name = "trade_count", nullable = false)
+    private long tradeCount;
+
+    @Column(name = "profit_loss_sum", nullable = false)
+    private double profitLossSum;
+
+    @Column(name = "win_count", nullable = false)
+    private long winCount;
+
+    public TradeStatsEntry() {
+    }
+
+    public TradeStatsEntry(StatsDimension dimension, String name) {
+        this(dimension, name, 0, 0.0, 0);
+    }
+
+    public TradeStatsEntry(StatsDimension dimension, String name, long tradeCount, double profitLossSum, long winCount) {
+        this.key = new Key(dimension, name);
+        this.tradeCount = tradeCount;
+        this.profitLossSum = profitLossSum;
+        this.winCount = winCount;
+    }
+
+    /**
+     * Adds ({@code sign = 1}) or removes ({@code sign = -1}) one trade with the given P/L.
+     */
+    public void add(double profitLoss, int sign) {
+        tradeCount += sign;
+        profitLossSum += sign * profitLoss;
+        if (profitLoss > 0) {
+            winCount += sign;
+        }
+    }
+
+    public Key getKey() {
+        return key;
+    }
+
+    public StatsDimension getDimension() {
+        return key.getDimension();
+    }
+
+    public String getName() {
+        return key.getName();
+    }
+
+    public long getTradeCount() {
+        return tradeCount;
+    }
+
+    public double getProfitLossSum() {
+        return profitLossSum;
+    }
+
+    public long getWinCount() {
+        return winCount;
+    }
+
+    @Override
+    public String toString() {
+        return "TradeStatsEntry{" + key.getDimension() + ":" + key.getName() +
+                ", trades=" + tradeCount +
+                ", profitLoss=" + profitLossSum +
+                ", wins=" + winCount +
+                '}';
+    }
+
+    @Embeddable
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "dimension", length = 16)
+        private StatsDimension dimension;
+
+        @Column(name = "name")
+        private String name;
+
+        public Key() {
+        }
+
+        public Key(StatsDimension dimension, String name) {
+            this.dimension = dimension;
+            this.name = name;
+        }
+
+        public StatsDimension getDimension() {
+            return dimension;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return dimension == other.dimension && Objects.equals(name, other.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dimension, name);
+        }
+    }
+}
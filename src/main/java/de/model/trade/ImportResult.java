@@ -0,0 +1,113 @@
+package de.model.trade;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of a single import run (CSV or Excel). Updated by the importing thread and
+ * read concurrently while an import job is polled.
+ */
+public class ImportResult {
+
+    private volatile long startedNanos = System.nanoTime();
+    private volatile long finishedNanos;
+
+    private final AtomicLong rowsParsed = new AtomicLong();
+    private final AtomicLong rowsInserted = new AtomicLong();
+    private final AtomicLong rowsSkipped = new AtomicLong();
+    private final AtomicLong rowsFailed = new AtomicLong();
+
+    /**
+     * Counters of a run that was recorded elsewhere, e.g. summed over the chunks of a job in the shared import queue.
+     *
+     * @param elapsed run time so far, or the total run time if {@code finished}
+     */
+    public static ImportResult of(long parsed, long inserted, long skipped, long failed, Duration elapsed,
+                                  boolean finished) {
+        ImportResult result = new ImportResult();
+        result.rowsParsed.set(parsed);
+        result.rowsInserted.set(inserted);
+        result.rowsSkipped.set(skipped);
+        result.rowsFailed.set(failed);
+        long now = System.nanoTime();
+        result.startedNanos = now - elapsed.toNanos();
+        if (finished) {
+            result.finishedNanos = now;
+        }
+        return result;
+    }
+
+    /**
+     * Restarts the clock, e.g. when a queued job actually begins.
+     */
+    public void start() {
+        startedNanos = System.nanoTime();
+    }
+
+    public void rowParsed() {
+        rowsParsed.incrementAndGet();
+    }
+
+    public void rowsInserted(long count) {
+        rowsInserted.addAndGet(count);
+    }
+
+    public void rowSkipped() {
+        rowsSkipped.incrementAndGet();
+    }
+
+    public void rowsSkipped(long count) {
+        rowsSkipped.addAndGet(count);
+    }
+
+    public void rowFailed() {
+        rowsFailed.incrementAndGet();
+    }
+
+    public void finish() {
+        finishedNanos = System.nanoTime();
+    }
+
+    public boolean isFinished() {
+        return finishedNanos != 0;
+    }
+
+    public long getRowsParsed() {
+        return rowsParsed.get();
+    }
+
+    public long getRowsInserted() {
+        return rowsInserted.get();
+    }
+
+    public long getRowsSkipped() {
+        return rowsSkipped.get();
+    }
+
+    public long getRowsFailed() {
+        return rowsFailed.get();
+    }
+
+    public long getDurationMillis() {
+        long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+        return (end - startedNanos) / 1_000_000;
+    }
+
+    public double getRowsPerSecond() {
+        long millis = getDurationMillis();
+        long parsed = getRowsParsed();
+        return millis == 0 ? parsed : parsed * 1000.0 / millis;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResult{" +
+                "parsed=" + getRowsParsed() +
+                ", inserted=" + getRowsInserted() +
+                ", skipped=" + getRowsSkipped() +
+                ", failed=" + getRowsFailed() +
+                ", durationMs=" + getDurationMillis() +
+                ", rowsPerSecond=" + String.format("%.1f", getRowsPerSecond()) +
+                '}';
+    }
+}
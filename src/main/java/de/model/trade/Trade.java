@@ -1,12 +1,15 @@
 package de.model.trade;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnTransformer;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.Objects;
 
+// Schema (partitions, constraints, indexes): src/main/resources/db/migration
 @Entity
 @Table(name = "trades")
 public class Trade {
@@ -25,29 +28,37 @@ public class Trade {
 
     private Double quantity;
 
-    private Double profitLoss;
+    // derived from the prices (see updateProfitLoss), persisted so queries can filter, sort and sum on it
+    @Column(nullable = false)
+    private double profitLoss;
 
+    // partition key, see TradePartitionRepository
+    @Column(nullable = false)
     private LocalDateTime timestamp;
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    // loaded on access only, for up to 100 trades per query; list and stats endpoints don't use the entity.
+    // trade_tags holds ids of the tag dictionary (V7__tag_dictionary.sql), mapped to names in SQL
+    @ElementCollection(fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     @CollectionTable(name = "trade_tags", joinColumns = @JoinColumn(name = "trade_id"))
-    @Column(name = "tag")
+    @Column(name = "tag_id")
+    @ColumnTransformer(read = "tag_name(tag_id)", write = "intern_tag(?)")
     private Set<String> tags = new HashSet<>();
 
-    @Lob
+    // plain TEXT; @Lob would make PostgreSQL treat the column as large-object OID
     @Column(name = "notes", columnDefinition = "TEXT")
     private String notes;
 
     public Trade() {
     }
 
-    // Convenience constructor
+    // Convenience constructor; profitLoss is always derived from the prices, the argument is not used
     public Trade(String symbol, Double entryPrice, Double exitPrice, Double quantity, Double profitLoss, LocalDateTime timestamp, Set<String> tags, String notes) {
         this.symbol = symbol;
-        this.   entryPrice = entryPrice;
+        this.entryPrice = entryPrice;
         this.exitPrice = exitPrice;
         this.quantity = quantity;
-        this.profitLoss = profitLoss;
+        updateProfitLoss();
         this.timestamp = timestamp;
         if (tags != null) {
             this.tags = tags;
@@ -79,6 +90,7 @@ public class Trade {
 
     public void setEntryPrice(Double entryPrice) {
         this.entryPrice = entryPrice;
+        updateProfitLoss();
     }
 
     public Double getExitPrice() {
@@ -87,6 +99,7 @@ public class Trade {
 
     public void setExitPrice(Double exitPrice) {
         this.exitPrice = exitPrice;
+        updateProfitLoss();
     }
 
     public Double getQuantity() {
@@ -95,17 +108,20 @@ public class Trade {
 
     public void setQuantity(Double quantity) {
         this.quantity = quantity;
+        updateProfitLoss();
     }
 
-    public Double getProfitLoss() {
-        if (entryPrice == null || exitPrice == null || quantity == null) {
-            return 0.0;
-        }
-        return (exitPrice - entryPrice) * quantity;
+    /**
+     * (exit - entry) * quantity, 0 if one of them is missing.
+     */
+    public double getProfitLoss() {
+        return profitLoss;
     }
 
-    public void setProfitLoss(Double exitPrice, Double entryPrice, Double quantity) {
-        if (exitPrice == null || entryPrice == null || quantity == null) {
+    @PrePersist
+    @PreUpdate
+    private void updateProfitLoss() {
+        if (entryPrice == null || exitPrice == null || quantity == null) {
             this.profitLoss = 0.0;
         } else {
             this.profitLoss = (exitPrice - entryPrice) * quantity;
@@ -0,0 +1,34 @@
+package de.model.trade;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset position in the trade list, which is ordered by {@code (timestamp DESC, id DESC)}. Encoded as an
+ * opaque URL-safe token for clients.
+ */
+public record TradeCursor(LocalDateTime timestamp, long id) {
+
+    public static TradeCursor after(TradeView last) {
+        return new TradeCursor(last.timestamp(), last.id());
+    }
+
+    public String encode() {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static TradeCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new TradeCursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package de.model.trade;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters for trade queries; {@code null} means "no restriction". The time range is half-open
+ * ({@code from <= timestamp < to}).
+ */
+public record TradeFilter(String symbol, String tag, LocalDateTime from, LocalDateTime to) {
+
+    public static TradeFilter none() {
+        return new TradeFilter(null, null, null, null);
+    }
+}
@@ -0,0 +1,14 @@
+package de.model.trade;
+
+import java.time.LocalDateTime;
+
+/**
+ * Business key of a trade (symbol, entry price, timestamp). Two trades with the same key are
+ * duplicates; the {@code trades} table enforces this with a unique constraint.
+ */
+public record TradeKey(String symbol, Double entryPrice, LocalDateTime timestamp) {
+
+    public static TradeKey of(Trade trade) {
+        return new TradeKey(trade.getSymbol(), trade.getEntryPrice(), trade.getTimestamp());
+    }
+}
@@ -0,0 +1,9 @@
+package de.model.trade;
+
+import java.util.List;
+
+/**
+ * One page of the trade list; {@code nextCursor} is {@code null} on the last page.
+ */
+public record TradePage(List<TradeView> items, String nextCursor) {
+}
@@ -0,0 +1,34 @@
+package de.model.trade;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset position in search results, which are ordered by {@code (rank DESC, timestamp DESC, id DESC)}.
+ * Encoded as an opaque URL-safe token like {@link TradeCursor}.
+ */
+public record TradeSearchCursor(float rank, LocalDateTime timestamp, long id) {
+
+    public static TradeSearchCursor after(TradeSearchHit last) {
+        return new TradeSearchCursor(last.rank(), last.trade().timestamp(), last.trade().id());
+    }
+
+    public String encode() {
+        String raw = rank + "|" + timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static TradeSearchCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            return new TradeSearchCursor(Float.parseFloat(parts[0]), LocalDateTime.parse(parts[1]),
+                    Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package de.model.trade;
+
+/**
+ * One search result. {@code snippet} is HTML: the escaped notes around the matches, which are wrapped in
+ * {@code <mark>}; {@code null} if the trade has no notes.
+ */
+public record TradeSearchHit(TradeView trade, float rank, String snippet) {
+}
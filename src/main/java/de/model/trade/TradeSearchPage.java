@@ -0,0 +1,11 @@
+package de.model.trade;
+
+import java.util.List;
+
+/**
+ * One page of search results, best match first; {@code nextCursor} is {@code null} on the last page.
+ *
+ * @param truncated whether the search matched more trades than are ranked; only the newest ones are paged through
+ */
+public record TradeSearchPage(List<TradeSearchHit> items, String nextCursor, boolean truncated) {
+}
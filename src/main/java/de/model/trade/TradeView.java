@@ -0,0 +1,25 @@
+package de.model.trade;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read-only trade row for list endpoints; serialized with the same field names as {@link Trade}.
+ */
+public record TradeView(
+        long id,
+        String symbol,
+        Double entryPrice,
+        Double exitPrice,
+        Double quantity,
+        double profitLoss,
+        LocalDateTime timestamp,
+        List<String> tags,
+        String notes) {
+
+    public static TradeView of(Trade trade) {
+        return new TradeView(trade.getId(), trade.getSymbol(), trade.getEntryPrice(), trade.getExitPrice(),
+                trade.getQuantity(), trade.getProfitLoss(), trade.getTimestamp(),
+                trade.getTags() == null ? List.of() : trade.getTags().stream().sorted().toList(), trade.getNotes());
+    }
+}
@@ -0,0 +1,273 @@
+package de.repository;
+
+import de.model.importjob.ImportChunk;
+import de.model.importjob.ImportFormat;
+import de.model.importjob.ImportJob;
+import de.model.importjob.ImportJobStatus;
+import de.model.trade.ImportResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Jobs and chunks of the shared import queue ({@code V6__import_queue.sql}).
+ * <p>
+ * State changes that may finish a job lock the job row first. The last two chunks of a job can be finished by
+ * two nodes at the same time; without the lock neither would see the other's chunk as done.
+ */
+@Repository
+public class ImportQueueRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportQueueRepository.class);
+
+    private static final String INSERT_JOB =
+            "INSERT INTO import_jobs (id, file_name, format, size_bytes, sha256, header, status, submitted_by) " +
+            "VALUES (?, ?, ?, ?, ?, ?, 'QUEUED', ?)";
+
+    private static final String INSERT_CHUNK =
+            "INSERT INTO import_chunks (job_id, seq, line_offset, data) VALUES (?, ?, ?, ?)";
+
+    // oldest queued chunk that no other node is claiming right now; a scalar subquery, which runs once (in a
+    // join the planner may rescan it, and every rescan skips to the next row and claims it too)
+    private static final String CLAIM_CHUNK =
+            "UPDATE import_chunks c SET status = 'RUNNING', claimed_by = ?, heartbeat_at = now(), " +
+            "attempts = c.attempts + 1, error_message = NULL FROM import_jobs j " +
+            "WHERE c.id = (SELECT id FROM import_chunks WHERE status = 'QUEUED' ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED) " +
+            "AND j.id = c.job_id " +
+            "RETURNING c.id, c.job_id, c.seq, c.attempts, j.format, j.header, c.line_offset, c.data";
+
+    private static final String MARK_JOB_RUNNING =
+            "UPDATE import_jobs SET status = 'RUNNING', started_at = now() WHERE id = ? AND status = 'QUEUED'";
+
+    private static final String LOCK_JOB = "SELECT id FROM import_jobs WHERE id = ? FOR UPDATE";
+
+    private static final String COMPLETE_CHUNK =
+            "UPDATE import_chunks SET status = 'DONE', claimed_by = NULL, rows_parsed = ?, rows_inserted = ?, " +
+            "rows_skipped = ?, rows_failed = ? WHERE id = ? AND status = 'RUNNING' AND claimed_by = ? AND attempts = ?";
+
+    private static final String RELEASE_CHUNK =
+            "UPDATE import_chunks SET status = CASE WHEN attempts >= ? THEN 'FAILED' ELSE 'QUEUED' END, " +
+            "claimed_by = NULL, error_message = ? " +
+            "WHERE id = ? AND status = 'RUNNING' AND claimed_by = ? AND attempts = ?";
+
+    private static final String HEARTBEAT =
+            "UPDATE import_chunks SET heartbeat_at = now() WHERE id = ANY(?) AND claimed_by = ? AND status = 'RUNNING'";
+
+    private static final String FIND_STALLED =
+            "SELECT DISTINCT job_id FROM import_chunks WHERE status = 'RUNNING' AND heartbeat_at < now() - ?::interval";
+
+    private static final String RECLAIM_STALLED =
+            "UPDATE import_chunks SET status = CASE WHEN attempts >= ? THEN 'FAILED' ELSE 'QUEUED' END, " +
+            "error_message = 'No heartbeat from ' || claimed_by || ' since ' || heartbeat_at, claimed_by = NULL " +
+            "WHERE job_id = ? AND status = 'RUNNING' AND heartbeat_at < now() - ?::interval " +
+            "RETURNING seq, status, error_message";
+
+    private static final String RELEASE_NODE =
+            "UPDATE import_chunks SET status = 'QUEUED', claimed_by = NULL WHERE claimed_by = ? AND status = 'RUNNING'";
+
+    // finishes the job once no chunk is left to import, with the totals of its chunks; the chunks are removed after
+    private static final String FINISH_JOB =
+            "UPDATE import_jobs j SET " +
+            "status = CASE WHEN s.failed > 0 THEN 'FAILED' ELSE 'COMPLETED' END, finished_at = now(), " +
+            "started_at = coalesce(j.started_at, now()), error_message = s.error, " +
+            "rows_parsed = s.parsed, rows_inserted = s.inserted, rows_skipped = s.skipped, rows_failed = s.row_errors " +
+            "FROM (SELECT count(*) FILTER (WHERE status IN ('QUEUED', 'RUNNING')) AS open, " +
+            "count(*) FILTER (WHERE status = 'FAILED') AS failed, " +
+            "min('Chunk ' || seq || ': ' || error_message) FILTER (WHERE status = 'FAILED') AS error, " +
+            "coalesce(sum(rows_parsed), 0) AS parsed, coalesce(sum(rows_inserted), 0) AS inserted, " +
+            "coalesce(sum(rows_skipped), 0) AS skipped, coalesce(sum(rows_failed), 0) AS row_errors " +
+            "FROM import_chunks WHERE job_id = ?) s " +
+            "WHERE j.id = ? AND j.status IN ('QUEUED', 'RUNNING') AND s.open = 0 RETURNING j.status";
+
+    private static final String DELETE_CHUNKS = "DELETE FROM import_chunks WHERE job_id = ?";
+
+    // running jobs show the totals of their finished chunks
+    private static final String SELECT_JOBS =
+            "SELECT j.id, j.file_name, j.format, j.size_bytes, j.sha256, j.status, j.created_at, j.started_at, " +
+            "j.finished_at, j.error_message, " +
+            "j.rows_parsed + coalesce(c.parsed, 0) AS rows_parsed, j.rows_inserted + coalesce(c.inserted, 0) AS rows_inserted, " +
+            "j.rows_skipped + coalesce(c.skipped, 0) AS rows_skipped, j.rows_failed + coalesce(c.row_errors, 0) AS rows_failed " +
+            "FROM import_jobs j LEFT JOIN LATERAL (SELECT sum(rows_parsed) AS parsed, sum(rows_inserted) AS inserted, " +
+            "sum(rows_skipped) AS skipped, sum(rows_failed) AS row_errors FROM import_chunks WHERE job_id = j.id) c ON true";
+
+    private static final String COUNT_QUEUED_JOBS = "SELECT count(*) FROM import_jobs WHERE status = 'QUEUED'";
+
+    private static final String PURGE_JOBS = "DELETE FROM import_jobs WHERE finished_at < ?";
+
+    private static final RowMapper<ImportChunk> CHUNK_MAPPER = (rs, rowNum) -> new ImportChunk(
+            rs.getLong("id"), rs.getString("job_id"), rs.getInt("seq"), rs.getInt("attempts"),
+            ImportFormat.valueOf(rs.getString("format")), rs.getString("header"), rs.getLong("line_offset"),
+            rs.getBytes("data"));
+
+    private static final RowMapper<ImportJob> JOB_MAPPER = (rs, rowNum) -> {
+        ImportJobStatus status = ImportJobStatus.valueOf(rs.getString("status"));
+        Instant created = toInstant(rs.getTimestamp("created_at"));
+        Instant started = toInstant(rs.getTimestamp("started_at"));
+        Instant finished = toInstant(rs.getTimestamp("finished_at"));
+        Duration elapsed = started == null ? Duration.ZERO
+                : Duration.between(started, finished != null ? finished : Instant.now());
+        ImportResult progress = ImportResult.of(rs.getLong("rows_parsed"), rs.getLong("rows_inserted"),
+                rs.getLong("rows_skipped"), rs.getLong("rows_failed"), elapsed, finished != null);
+        return new ImportJob(rs.getString("id"), rs.getString("file_name"), ImportFormat.valueOf(rs.getString("format")),
+                rs.getLong("size_bytes"), rs.getString("sha256"), status, created, started, finished,
+                rs.getString("error_message"), progress);
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+
+    public ImportQueueRepository(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Call in the transaction that also adds the chunks, so nodes only see the job complete.
+     */
+    public void insertJob(String id, String fileName, ImportFormat format, long sizeBytes, String sha256,
+                         String header, String submittedBy) {
+        jdbcTemplate.update(INSERT_JOB, id, fileName, format.name(), sizeBytes, sha256, header, submittedBy);
+    }
+
+    public void insertChunk(String jobId, int seq, long lineOffset, byte[] data) {
+        jdbcTemplate.update(INSERT_CHUNK, jobId, seq, lineOffset, data);
+    }
+
+    public Optional<ImportJob> findActiveJob(String sha256) {
+        return jdbcTemplate.query(SELECT_JOBS + " WHERE j.sha256 = ? AND j.status IN ('QUEUED', 'RUNNING')",
+                JOB_MAPPER, sha256).stream().findFirst();
+    }
+
+    public Optional<ImportJob> findJob(String id) {
+        return jdbcTemplate.query(SELECT_JOBS + " WHERE j.id = ?", JOB_MAPPER, id).stream().findFirst();
+    }
+
+    public List<ImportJob> findJobs() {
+        return jdbcTemplate.query(SELECT_JOBS + " ORDER BY j.created_at", JOB_MAPPER);
+    }
+
+    public long countQueuedJobs() {
+        Long count = jdbcTemplate.queryForObject(COUNT_QUEUED_JOBS, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Claims the oldest queued chunk for {@code node}; chunks claimed by other nodes are skipped, not waited for.
+     */
+    public Optional<ImportChunk> claimChunk(String node) {
+        return transaction.execute(status -> {
+            Optional<ImportChunk> chunk = jdbcTemplate.query(CLAIM_CHUNK, CHUNK_MAPPER, node).stream().findFirst();
+            chunk.ifPresent(c -> jdbcTemplate.update(MARK_JOB_RUNNING, c.jobId()));
+            return chunk;
+        });
+    }
+
+    /**
+     * Stores the counters of an imported chunk.
+     *
+     * @return the final status if this was the job's last open chunk; empty otherwise, also if the chunk was
+     * taken away from {@code node} in the meantime
+     */
+    public Optional<ImportJobStatus> completeChunk(ImportChunk chunk, String node, ImportResult result) {
+        return transaction.execute(status -> {
+            jdbcTemplate.queryForList(LOCK_JOB, chunk.jobId());
+            int updated = jdbcTemplate.update(COMPLETE_CHUNK, result.getRowsParsed(), result.getRowsInserted(),
+                    result.getRowsSkipped(), result.getRowsFailed(), chunk.id(), node, chunk.attempt());
+            if (updated == 0) {
+                logger.warn("Chunk {} of import job {} was reclaimed from {} before it finished",
+                        chunk.seq(), chunk.jobId(), node);
+                return Optional.<ImportJobStatus>empty();
+            }
+            return finishJobIfDone(chunk.jobId());
+        });
+    }
+
+    /**
+     * Gives a chunk back after its import failed: it is queued again, or fails for good after
+     * {@code maxAttempts} claims.
+     *
+     * @return the final status if the job is finished by this
+     */
+    public Optional<ImportJobStatus> releaseChunk(ImportChunk chunk, String node, String error, int maxAttempts) {
+        return transaction.execute(status -> {
+            jdbcTemplate.queryForList(LOCK_JOB, chunk.jobId());
+            int updated = jdbcTemplate.update(RELEASE_CHUNK, maxAttempts, error, chunk.id(), node, chunk.attempt());
+            return updated == 0 ? Optional.<ImportJobStatus>empty() : finishJobIfDone(chunk.jobId());
+        });
+    }
+
+    /**
+     * Confirms that {@code node} is still working on the given chunks. Only chunks that are actually in progress
+     * should be confirmed, a chunk lost by its worker is then queued again after the stall timeout.
+     */
+    public void heartbeat(String node, Collection<Long> chunkIds) {
+        if (chunkIds.isEmpty()) return;
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(HEARTBEAT);
+            ps.setArray(1, con.createArrayOf("bigint", chunkIds.toArray()));
+            ps.setString(2, node);
+            return ps;
+        });
+    }
+
+    /**
+     * Queues the chunks again whose node did not send a heartbeat within {@code timeout}
+     * (or fails them after {@code maxAttempts} claims).
+     *
+     * @return ids of the jobs that were finished by this
+     */
+    public List<String> reclaimStalledChunks(Duration timeout, int maxAttempts) {
+        String interval = timeout.toMillis() + " milliseconds";
+        return jdbcTemplate.queryForList(FIND_STALLED, String.class, interval).stream()
+                .filter(jobId -> Boolean.TRUE.equals(transaction.execute(status -> {
+                    jdbcTemplate.queryForList(LOCK_JOB, jobId);
+                    jdbcTemplate.query(RECLAIM_STALLED, rs -> {
+                        logger.warn("Chunk {} of import job {} {}: {}", rs.getInt("seq"), jobId,
+                                "QUEUED".equals(rs.getString("status")) ? "queued again" : "failed",
+                                rs.getString("error_message"));
+                    }, maxAttempts, jobId, interval);
+                    return finishJobIfDone(jobId).isPresent();
+                })))
+                .toList();
+    }
+
+    /**
+     * Queues all chunks of {@code node} again, e.g. when it shuts down.
+     */
+    public int releaseChunks(String node) {
+        return jdbcTemplate.update(RELEASE_NODE, node);
+    }
+
+    public int purgeFinishedJobs(Instant finishedBefore) {
+        return jdbcTemplate.update(PURGE_JOBS, Timestamp.from(finishedBefore));
+    }
+
+    /**
+     * Finishes a job without open chunks (e.g. an empty file). Call with the job row locked, or in the
+     * transaction that inserted it.
+     */
+    public Optional<ImportJobStatus> finishJobIfDone(String jobId) {
+        Optional<ImportJobStatus> finished = jdbcTemplate.queryForList(FINISH_JOB, String.class, jobId, jobId)
+                .stream().findFirst().map(ImportJobStatus::valueOf);
+        if (finished.isPresent()) {
+            jdbcTemplate.update(DELETE_CHUNKS, jobId);
+        }
+        return finished;
+    }
+
+    private static Instant toInstant(Timestamp ts) {
+        return ts == null ? null : ts.toInstant();
+    }
+}
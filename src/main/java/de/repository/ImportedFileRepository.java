@@ -0,0 +1,44 @@
+package de.repository;
+
+import de.model.importjob.ImportedFile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Optional;
+
+/**
+ * Content hashes of imported files ({@code imported_files}).
+ */
+@Repository
+public class ImportedFileRepository {
+
+    private static final String SELECT =
+            "SELECT sha256, file_name, size_bytes, rows_inserted, job_id, imported_at FROM imported_files WHERE sha256 = ?";
+
+    // the first import of a content wins
+    private static final String INSERT =
+            "INSERT INTO imported_files (sha256, file_name, size_bytes, rows_inserted, job_id, imported_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (sha256) DO NOTHING";
+
+    private static final RowMapper<ImportedFile> MAPPER = (rs, rowNum) -> new ImportedFile(
+            rs.getString("sha256"), rs.getString("file_name"), rs.getLong("size_bytes"),
+            rs.getLong("rows_inserted"), rs.getString("job_id"), rs.getObject("imported_at", Timestamp.class).toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ImportedFileRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<ImportedFile> find(String sha256) {
+        return jdbcTemplate.query(SELECT, MAPPER, sha256).stream().findFirst();
+    }
+
+    public void save(ImportedFile file) {
+        jdbcTemplate.update(INSERT, file.sha256(), file.fileName(), file.sizeBytes(), file.rowsInserted(), file.jobId(),
+                Timestamp.from(file.importedAt()));
+    }
+}
@@ -0,0 +1,111 @@
+package de.repository;
+
+import de.model.trade.Trade;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Dictionary of tag names ({@code tags}, see {@code V7__tag_dictionary.sql}); {@code trade_tags} stores the ids.
+ * Known names are cached, writers call {@link #ensureTags} before inserting and then look ids up with
+ * {@link #id}. Ids are never reused, so the cache does not need to be invalidated.
+ * <p>
+ * {@link #ensureTags} is meant to be called before the writing transaction ({@link de.service.impl.TradeBatchWriter}):
+ * new tags are then committed right away, and the import holds only one connection at a time.
+ */
+@Repository
+public class TagRepository {
+
+    private static final String SELECT_ALL = "SELECT id, name FROM tags";
+
+    private static final String INSERT_NAMES =
+            "INSERT INTO tags (name) SELECT unnest(?::varchar[]) ON CONFLICT (name) DO NOTHING";
+
+    private static final String SELECT_NAMES = "SELECT id, name FROM tags WHERE name = ANY(?::varchar[])";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    // held while the dictionary is loaded
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile boolean loaded;
+
+    public TagRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds the tags of the given trades that are not in the dictionary yet.
+     */
+    public void ensureTags(Collection<Trade> trades) {
+        if (!loaded) {
+            loadAll();
+        }
+        Set<String> missing = new TreeSet<>();
+        for (Trade t : trades) {
+            for (String tag : t.getTags()) {
+                if (tag != null && !ids.containsKey(tag)) {
+                    missing.add(tag);
+                }
+            }
+        }
+        if (missing.isEmpty()) return;
+
+        // the select sees the names that a concurrent insert skipped, once that one has committed
+        jdbcTemplate.update(con -> withNames(con.prepareStatement(INSERT_NAMES), missing));
+        jdbcTemplate.query(con -> withNames(con.prepareStatement(SELECT_NAMES), missing),
+                rs -> {
+                    ids.put(rs.getString("name"), rs.getInt("id"));
+                });
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // called inside a transaction after all: its new tags are gone if it rolls back
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        ids.keySet().removeAll(missing);
+                    }
+                }
+            });
+        }
+    }
+
+    private static PreparedStatement withNames(PreparedStatement ps, Set<String> names) throws SQLException {
+        ps.setArray(1, ps.getConnection().createArrayOf("varchar", names.toArray()));
+        return ps;
+    }
+
+    /**
+     * @return the id of a tag added by {@link #ensureTags}
+     * @throws IllegalStateException if the tag is not in the dictionary
+     */
+    public int id(String tag) {
+        Integer id = ids.get(tag);
+        if (id == null) {
+            throw new IllegalStateException("Tag not in the dictionary: " + tag);
+        }
+        return id;
+    }
+
+    private void loadAll() {
+        loadLock.lock();
+        try {
+            if (loaded) return;
+            jdbcTemplate.query(SELECT_ALL, rs -> {
+                ids.put(rs.getString("name"), rs.getInt("id"));
+            });
+            loaded = true;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package de.repository;
+
+import de.model.trade.Trade;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC batch inserts for the import path. JPA can't batch inserts with IDENTITY ids,
+ * so imported trades and their tags are written here with one round trip per statement type.
+ * Rows that hit the business key constraint ({@code uk_trades_business_key}) are skipped by the database.
+ * The full-text search vector is computed in the same statement, the tags are known at that point.
+ */
+@Repository
+public class TradeBatchRepository {
+
+    private static final String INSERT_TRADE =
+            "INSERT INTO trades (symbol, entry_price, exit_price, quantity, profit_loss, timestamp, notes, search_vector) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, trade_search_vector(?, ?, ?)) ON CONFLICT DO NOTHING";
+
+    private static final String INSERT_TAG = "INSERT INTO trade_tags (trade_id, tag_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TagRepository tagRepository;
+
+    public TradeBatchRepository(JdbcTemplate jdbcTemplate, TagRepository tagRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tagRepository = tagRepository;
+    }
+
+    /**
+     * Inserts all trades and their tags. Generated ids are written back into the inserted trades;
+     * trades that already exist in the database are left without id. The tags have to be in the dictionary
+     * ({@link TagRepository#ensureTags}).
+     *
+     * @return the inserted trades
+     */
+    public List<Trade> insertAll(List<Trade> trades) {
+        if (trades.isEmpty()) return List.of();
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        int[] counts = jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_TRADE, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Trade t = trades.get(i);
+                        ps.setString(1, t.getSymbol());
+                        ps.setObject(2, t.getEntryPrice(), Types.DOUBLE);
+                        ps.setObject(3, t.getExitPrice(), Types.DOUBLE);
+                        ps.setObject(4, t.getQuantity(), Types.DOUBLE);
+                        ps.setDouble(5, t.getProfitLoss());
+                        ps.setObject(6, t.getTimestamp());
+                        ps.setString(7, t.getNotes());
+                        ps.setString(8, t.getSymbol());
+                        ps.setString(9, String.join(" ", t.getTags()));
+                        ps.setString(10, t.getNotes());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return trades.size();
+                    }
+                }, keyHolder);
+
+        // keys are only returned for inserted rows, in statement order
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<Trade> inserted = new ArrayList<>(keys.size());
+        List<Object[]> tagRows = new ArrayList<>();
+        int key = 0;
+        for (int i = 0; i < trades.size(); i++) {
+            if (counts[i] == 0) continue;
+            Trade t = trades.get(i);
+            t.setId(((Number) keys.get(key++).get("id")).longValue());
+            inserted.add(t);
+            for (String tag : t.getTags()) {
+                if (tag != null) {
+                    tagRows.add(new Object[]{t.getId(), tagRepository.id(tag)});
+                }
+            }
+        }
+        if (!tagRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TAG, tagRows);
+        }
+        return inserted;
+    }
+}
@@ -0,0 +1,101 @@
+package de.repository;
+
+import de.model.trade.Trade;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Monthly partitions of {@code trades} (see {@code V3__partition_trades_by_month.sql}). A row whose month has no
+ * partition can't be inserted, so writers call {@link #ensurePartitions} before inserting. Known months are
+ * cached; only the first trade of a new month costs a catalog write.
+ */
+@Repository
+public class TradePartitionRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(TradePartitionRepository.class);
+
+    private static final String SELECT_PARTITIONS =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = 'trades'::regclass";
+
+    private static final String CREATE_PARTITION = "SELECT create_trades_partition(?)";
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'trades_p'yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate partitionTransaction;
+    private final Set<YearMonth> existing = ConcurrentHashMap.newKeySet();
+    // held while the existing partitions are loaded
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile boolean loaded;
+
+    public TradePartitionRepository(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        // own short transaction: attaching a partition locks the parent table, that lock must not be held
+        // for the rest of an import chunk
+        this.partitionTransaction = new TransactionTemplate(transactionManager);
+        this.partitionTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Creates the partitions for the months of the given trades that don't have one yet.
+     * Call before the inserting transaction; inside one, a new month takes a second connection.
+     */
+    public void ensurePartitions(Collection<Trade> trades) {
+        if (!loaded) {
+            loadExisting();
+        }
+        Set<YearMonth> missing = new TreeSet<>();
+        for (Trade t : trades) {
+            if (t.getTimestamp() != null) {
+                YearMonth month = YearMonth.from(t.getTimestamp());
+                if (!existing.contains(month)) {
+                    missing.add(month);
+                }
+            }
+        }
+        if (missing.isEmpty()) return;
+
+        partitionTransaction.executeWithoutResult(status -> {
+            // fail the write instead of queueing behind long-running queries on trades
+            jdbcTemplate.execute("SET LOCAL lock_timeout = '10s'");
+            for (YearMonth month : missing) {
+                jdbcTemplate.queryForList(CREATE_PARTITION, Date.valueOf(month.atDay(1)));
+            }
+        });
+        existing.addAll(missing);
+        logger.info("Created trade partitions for {}", missing);
+    }
+
+    private void loadExisting() {
+        loadLock.lock();
+        try {
+            if (loaded) return;
+            for (String name : jdbcTemplate.queryForList(SELECT_PARTITIONS, String.class)) {
+                try {
+                    existing.add(YearMonth.parse(name, PARTITION_NAME));
+                } catch (RuntimeException e) {
+                    // partition not created by create_trades_partition, e.g. attached by hand
+                    logger.debug("Ignoring trade partition {}", name);
+                }
+            }
+            loaded = true;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package de.repository;
+
+import de.model.trade.TradeCursor;
+import de.model.trade.TradeFilter;
+import de.model.trade.TradeView;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Read queries for trade lists. Rows are mapped to {@link TradeView} straight from JDBC (tags aggregated
+ * per row), so no entities or lazy collections are involved.
+ * <p>
+ * Lists are ordered by {@code (timestamp DESC, id DESC)} and paged by keyset, which is served by the
+ * {@code idx_trades_timestamp_id} / {@code idx_trades_symbol_timestamp_id} indexes.
+ */
+@Repository
+public class TradeQueryRepository {
+
+    private static final String SELECT_VIEW =
+            "SELECT t.id, t.symbol, t.entry_price, t.exit_price, t.quantity, " +
+            "t.profit_loss, t.timestamp, t.notes, " +
+            "(SELECT array_agg(tg.name ORDER BY tg.name) FROM trade_tags tt JOIN tags tg ON tg.id = tt.tag_id " +
+            "WHERE tt.trade_id = t.id) AS tags " +
+            "FROM trades t WHERE 1 = 1";
+
+    private static final String ORDER_BY = " ORDER BY t.timestamp DESC, t.id DESC";
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private static final RowMapper<TradeView> VIEW_MAPPER = TradeQueryRepository::mapView;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TradeQueryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param after last row of the previous page or {@code null} for the first page
+     */
+    public List<TradeView> findPage(TradeFilter filter, TradeCursor after, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_VIEW);
+        List<Object> args = new ArrayList<>();
+        appendFilter(filter, sql, args);
+        if (after != null) {
+            sql.append(" AND (t.timestamp, t.id) < (?, ?)");
+            args.add(Timestamp.valueOf(after.timestamp()));
+            args.add(after.id());
+        }
+        sql.append(ORDER_BY).append(" LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), VIEW_MAPPER, args.toArray());
+    }
+
+    /**
+     * Streams all matching trades in list order through a server-side cursor; only one fetch block
+     * is held in memory at a time.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(TradeFilter filter, Consumer<TradeView> consumer) {
+        StringBuilder sql = new StringBuilder(SELECT_VIEW);
+        List<Object> args = new ArrayList<>();
+        appendFilter(filter, sql, args);
+        sql.append(ORDER_BY);
+        stream(sql.toString(), args, consumer);
+    }
+
+    /**
+     * Streams all trades in id order, for building in-memory snapshots of the table.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllById(Consumer<TradeView> consumer) {
+        stream(SELECT_VIEW + " ORDER BY t.id", List.of(), consumer);
+    }
+
+    private void stream(String sql, List<Object> args, Consumer<TradeView> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(mapView(rs, 0)));
+    }
+
+    static void appendFilter(TradeFilter filter, StringBuilder sql, List<Object> args) {
+        if (filter.symbol() != null) {
+            sql.append(" AND t.symbol = ?");
+            args.add(filter.symbol());
+        }
+        if (filter.tag() != null) {
+            sql.append(" AND EXISTS (SELECT 1 FROM trade_tags ft JOIN tags fg ON fg.id = ft.tag_id " +
+                    "WHERE ft.trade_id = t.id AND fg.name = ?)");
+            args.add(filter.tag());
+        }
+        if (filter.from() != null) {
+            sql.append(" AND t.timestamp >= ?");
+            args.add(Timestamp.valueOf(filter.from()));
+        }
+        if (filter.to() != null) {
+            sql.append(" AND t.timestamp < ?");
+            args.add(Timestamp.valueOf(filter.to()));
+        }
+    }
+
+    static TradeView mapView(ResultSet rs, int rowNum) throws SQLException {
+        Timestamp ts = rs.getTimestamp("timestamp");
+        Array tags = rs.getArray("tags");
+        return new TradeView(
+                rs.getLong("id"),
+                rs.getString("symbol"),
+                rs.getObject("entry_price", Double.class),
+                rs.getObject("exit_price", Double.class),
+                rs.getObject("quantity", Double.class),
+                rs.getDouble("profit_loss"),
+                ts != null ? ts.toLocalDateTime() : null,
+                tags != null ? Arrays.asList((String[]) tags.getArray()) : List.of(),
+                rs.getString("notes"));
+    }
+}
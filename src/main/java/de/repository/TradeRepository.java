@@ -1,11 +1,106 @@
 package de.repository;
 
+import de.model.stats.ProfitLossBucket;
+import de.model.stats.ProfitLossSummary;
 import de.model.trade.Trade;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface TradeRepository extends JpaRepository<Trade, Long> {
     // CRUD-Methoden über JpaRepository verfügbar.
     // weitere querry methoden können hier definiert werden
-}
\ No newline at end of file
+
+    /**
+     * Bulk duplicate check: returns (symbol, entry_price, timestamp) of all stored trades whose business key
+     * is one of the given keys. The three arrays are zipped into key tuples and must have the same length.
+     * A missing entry price matches a stored one that is missing, like in {@code uk_trades_business_key}.
+     */
+    @Query(value = "SELECT t.symbol, t.entry_price, t.timestamp FROM trades t " +
+            "JOIN unnest(:symbols, :entryPrices, :timestamps) AS k(symbol, entry_price, ts) " +
+            "ON t.symbol = k.symbol AND t.entry_price IS NOT DISTINCT FROM k.entry_price AND t.timestamp = k.ts",
+            nativeQuery = true)
+    List<Object[]> findExistingKeys(@Param("symbols") String[] symbols,
+                                    @Param("entryPrices") Double[] entryPrices,
+                                    @Param("timestamps") LocalDateTime[] timestamps);
+
+    /**
+     * Business keys ordered by id, for paging through the table without loading entities:
+     * rows are (id, symbol, entryPrice, timestamp).
+     */
+    @Query("select t.id, t.symbol, t.entryPrice, t.timestamp from Trade t where t.id > :afterId order by t.id")
+    List<Object[]> findKeysAfter(@Param("afterId") long afterId, Limit limit);
+
+    // --- Aggregates, computed in the database on the persisted P/L (Trade.getProfitLoss()).
+    // from/to are optional (null = open range), to is exclusive. Open ends are bound as MIN/MAX_TIMESTAMP rather
+    // than tested for null in SQL: a plain "timestamp >= :from and timestamp < :to" lets PostgreSQL skip the
+    // monthly partitions outside the range, also in the generic plans of prepared statements.
+
+    LocalDateTime MIN_TIMESTAMP = LocalDateTime.of(1, 1, 1, 0, 0);
+    LocalDateTime MAX_TIMESTAMP = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    String PROFIT_LOSS = "t.profitLoss";
+    String RANGE = "t.timestamp >= :from and t.timestamp < :to";
+
+    default ProfitLossSummary summarize(LocalDateTime from, LocalDateTime to) {
+        return summarizeRange(lower(from), upper(to));
+    }
+
+    default List<ProfitLossSummary> summarizeBySymbol(LocalDateTime from, LocalDateTime to) {
+        return summarizeRangeBySymbol(lower(from), upper(to));
+    }
+
+    default List<ProfitLossSummary> summarizeByTag(LocalDateTime from, LocalDateTime to) {
+        return summarizeRangeByTag(lower(from), upper(to));
+    }
+
+    /**
+     * P/L per time bucket ({@code unit} is a {@code date_trunc} field) with equity curve and drawdown,
+     * all evaluated with window functions in PostgreSQL. Equity starts at 0 at the beginning of the range.
+     */
+    default List<ProfitLossBucket> findProfitLossBuckets(String unit, LocalDateTime from, LocalDateTime to) {
+        return findProfitLossBucketsInRange(unit, lower(from), upper(to));
+    }
+
+    @Query("select cast(null as string) as name, count(t) as trades, coalesce(sum(" + PROFIT_LOSS + "), 0) as profitLoss, " +
+            "sum(case when " + PROFIT_LOSS + " > 0 then 1 else 0 end) as wins " +
+            "from Trade t where " + RANGE)
+    ProfitLossSummary summarizeRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("select t.symbol as name, count(t) as trades, sum(" + PROFIT_LOSS + ") as profitLoss, " +
+            "sum(case when " + PROFIT_LOSS + " > 0 then 1 else 0 end) as wins " +
+            "from Trade t where " + RANGE + " group by t.symbol order by t.symbol")
+    List<ProfitLossSummary> summarizeRangeBySymbol(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("select tag as name, count(t) as trades, sum(" + PROFIT_LOSS + ") as profitLoss, " +
+            "sum(case when " + PROFIT_LOSS + " > 0 then 1 else 0 end) as wins " +
+            "from Trade t join t.tags tag where " + RANGE + " group by tag order by tag")
+    List<ProfitLossSummary> summarizeRangeByTag(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query(value = "SELECT b.bucket AS bucket, b.trades AS trades, b.profit_loss AS profitLoss, b.wins AS wins, " +
+            "b.equity AS equity, b.peak AS peak, b.equity - b.peak AS drawdown FROM (" +
+            "  SELECT e.*, greatest(max(e.equity) OVER (ORDER BY e.bucket), 0) AS peak FROM (" +
+            "    SELECT p.*, sum(p.profit_loss) OVER (ORDER BY p.bucket) AS equity FROM (" +
+            "      SELECT date_trunc(:unit, t.timestamp) AS bucket, count(*) AS trades, " +
+            "             sum(t.profit_loss) AS profit_loss, count(*) FILTER (WHERE t.profit_loss > 0) AS wins " +
+            "      FROM trades t WHERE t.timestamp >= :from AND t.timestamp < :to " +
+            "      GROUP BY 1) p) e) b ORDER BY b.bucket",
+            nativeQuery = true)
+    List<ProfitLossBucket> findProfitLossBucketsInRange(@Param("unit") String unit,
+                                                        @Param("from") LocalDateTime from,
+                                                        @Param("to") LocalDateTime to);
+
+    private static LocalDateTime lower(LocalDateTime from) {
+        return from != null ? from : MIN_TIMESTAMP;
+    }
+
+    private static LocalDateTime upper(LocalDateTime to) {
+        return to != null ? to : MAX_TIMESTAMP;
+    }
+}
@@ -0,0 +1,103 @@
+package de.repository;
+
+import de.model.trade.Trade;
+import de.model.trade.TradeFilter;
+import de.model.trade.TradeSearchCursor;
+import de.model.trade.TradeSearchHit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Full-text search over the {@code search_vector} column (symbol, tags, notes; see {@code V4__trade_search.sql})
+ * with its GIN index.
+ * <p>
+ * Only the newest {@value #MAX_RANKED_HITS} matches are ranked. Ordered by timestamp, PostgreSQL reads the
+ * monthly partitions newest first and stops once it has them, so a term that occurs in half of the journal
+ * costs about as much as a rare one. One match more is read to tell whether older ones were left out
+ * ({@link Result#truncated()}). Snippets are only built for the rows of the returned page.
+ */
+@Repository
+public class TradeSearchRepository {
+
+    static final int MAX_RANKED_HITS = 1000;
+
+    // websearch syntax: words, "quoted phrases", or, -excluded
+    private static final String QUERY = "websearch_to_tsquery('english', ?)";
+
+    private static final String SELECT_MATCHES =
+            "SELECT t.id, t.symbol, t.entry_price, t.exit_price, t.quantity, t.profit_loss, t.timestamp, t.notes, " +
+            "t.search_vector, q.query FROM trades t, " + QUERY + " AS q(query) WHERE t.search_vector @@ q.query";
+
+    // notes are HTML-escaped before highlighting, so only the <mark> tags are markup
+    private static final String SNIPPET =
+            "ts_headline('english', replace(replace(replace(h.notes, '&', '&amp;'), '<', '&lt;'), '>', '&gt;'), " +
+            "h.query, 'StartSel=<mark>, StopSel=</mark>, MaxWords=25, MinWords=8, MaxFragments=2')";
+
+    private static final String UPDATE_SEARCH_VECTOR =
+            "UPDATE trades t SET search_vector = trade_search_vector(t.symbol, " +
+            "(SELECT string_agg(tg.name, ' ') FROM trade_tags tt JOIN tags tg ON tg.id = tt.tag_id " +
+            "WHERE tt.trade_id = t.id), t.notes) " +
+            "WHERE t.id = ? AND t.timestamp = ?";
+
+    private static final RowMapper<TradeSearchHit> HIT_MAPPER = (rs, rowNum) ->
+            new TradeSearchHit(TradeQueryRepository.mapView(rs, rowNum), rs.getFloat("rank"), rs.getString("snippet"));
+
+    /**
+     * @param truncated whether there are more than {@value #MAX_RANKED_HITS} matches, the older ones are not ranked
+     */
+    public record Result(List<TradeSearchHit> hits, boolean truncated) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TradeSearchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param after last hit of the previous page or {@code null} for the first page
+     */
+    public Result search(String query, TradeFilter filter, TradeSearchCursor after, int limit) {
+        StringBuilder matches = new StringBuilder(SELECT_MATCHES);
+        List<Object> args = new ArrayList<>();
+        args.add(query);
+        TradeQueryRepository.appendFilter(filter, matches, args);
+        matches.append(" ORDER BY t.timestamp DESC, t.id DESC LIMIT ").append(MAX_RANKED_HITS + 1);
+
+        StringBuilder sql = new StringBuilder(
+                "SELECT h.*, (SELECT array_agg(tg.name ORDER BY tg.name) FROM trade_tags tt JOIN tags tg ON tg.id = tt.tag_id " +
+                "WHERE tt.trade_id = h.id) AS tags, ")
+                .append(SNIPPET).append(" AS snippet FROM (")
+                .append("SELECT m.*, ts_rank_cd(m.search_vector, m.query) AS rank, ")
+                .append("row_number() OVER (ORDER BY m.timestamp DESC, m.id DESC) AS recency, ")
+                .append("count(*) OVER () > ").append(MAX_RANKED_HITS).append(" AS truncated ")
+                .append("FROM (").append(matches).append(") m")
+                .append(") h WHERE h.recency <= ").append(MAX_RANKED_HITS);
+        if (after != null) {
+            sql.append(" AND (h.rank, h.timestamp, h.id) < (?, ?, ?)");
+            args.add(after.rank());
+            args.add(Timestamp.valueOf(after.timestamp()));
+            args.add(after.id());
+        }
+        sql.append(" ORDER BY h.rank DESC, h.timestamp DESC, h.id DESC LIMIT ?");
+        args.add(limit);
+        boolean[] truncated = {false};
+        List<TradeSearchHit> hits = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            truncated[0] = rs.getBoolean("truncated");
+            return HIT_MAPPER.mapRow(rs, rowNum);
+        }, args.toArray());
+        return new Result(hits, truncated[0]);
+    }
+
+    /**
+     * Recomputes the search vector of a trade written through JPA, after its tags were flushed.
+     */
+    public void updateSearchVector(Trade trade) {
+        jdbcTemplate.update(UPDATE_SEARCH_VECTOR, trade.getId(), Timestamp.valueOf(trade.getTimestamp()));
+    }
+}
@@ -0,0 +1,99 @@
+package de.repository;
+
+import de.model.stats.StatsDimension;
+import de.model.stats.TradeStatsEntry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * JDBC access to the {@code trade_stats} aggregate table. Increments are applied as upserts, so concurrent
+ * imports add to the same rows without reading them first; callers pass the rows in a fixed order
+ * ({@link #applyIncrements}) to keep the row locks deadlock-free.
+ */
+@Repository
+public class TradeStatsRepository {
+
+    private static final String UPSERT_INCREMENT =
+            "INSERT INTO trade_stats (dimension, name, trade_count, profit_loss_sum, win_count) VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (dimension, name) DO UPDATE SET " +
+            "trade_count = trade_stats.trade_count + EXCLUDED.trade_count, " +
+            "profit_loss_sum = trade_stats.profit_loss_sum + EXCLUDED.profit_loss_sum, " +
+            "win_count = trade_stats.win_count + EXCLUDED.win_count";
+
+    private static final String SELECT_ALL =
+            "SELECT dimension, name, trade_count, profit_loss_sum, win_count FROM trade_stats";
+
+    private static final String TRADE_PL = "SELECT id, symbol, profit_loss AS pl FROM trades";
+
+    private static final String REBUILD_TOTAL =
+            "INSERT INTO trade_stats (dimension, name, trade_count, profit_loss_sum, win_count) " +
+            "SELECT 'TOTAL', '', count(*), COALESCE(sum(t.pl), 0), count(*) FILTER (WHERE t.pl > 0) " +
+            "FROM (" + TRADE_PL + ") t";
+
+    private static final String REBUILD_SYMBOLS =
+            "INSERT INTO trade_stats (dimension, name, trade_count, profit_loss_sum, win_count) " +
+            "SELECT 'SYMBOL', t.symbol, count(*), sum(t.pl), count(*) FILTER (WHERE t.pl > 0) " +
+            "FROM (" + TRADE_PL + ") t WHERE t.symbol IS NOT NULL GROUP BY t.symbol";
+
+    private static final String REBUILD_TAGS =
+            "INSERT INTO trade_stats (dimension, name, trade_count, profit_loss_sum, win_count) " +
+            "SELECT 'TAG', tg.name, count(*), sum(t.pl), count(*) FILTER (WHERE t.pl > 0) " +
+            "FROM trade_tags tt JOIN tags tg ON tg.id = tt.tag_id JOIN (" + TRADE_PL + ") t ON t.id = tt.trade_id " +
+            "GROUP BY tg.name";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TradeStatsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds the given deltas to the stored rows, creating missing rows.
+     */
+    public void applyIncrements(List<TradeStatsEntry> deltas) {
+        if (deltas.isEmpty()) return;
+        jdbcTemplate.batchUpdate(UPSERT_INCREMENT, deltas, deltas.size(), (ps, d) -> {
+            ps.setString(1, d.getDimension().name());
+            ps.setString(2, d.getName());
+            ps.setLong(3, d.getTradeCount());
+            ps.setDouble(4, d.getProfitLossSum());
+            ps.setLong(5, d.getWinCount());
+        });
+    }
+
+    /**
+     * Removes symbol and tag groups that no longer contain any trade.
+     */
+    public void deleteEmptyGroups() {
+        jdbcTemplate.update("DELETE FROM trade_stats WHERE trade_count <= 0 AND dimension <> 'TOTAL'");
+    }
+
+    public List<TradeStatsEntry> findAll() {
+        return jdbcTemplate.query(SELECT_ALL, (rs, rowNum) -> new TradeStatsEntry(
+                StatsDimension.valueOf(rs.getString("dimension")), rs.getString("name"),
+                rs.getLong("trade_count"), rs.getDouble("profit_loss_sum"), rs.getLong("win_count")));
+    }
+
+    public boolean isInitialized() {
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM trade_stats WHERE dimension = 'TOTAL'", Integer.class);
+        return rows != null && rows > 0;
+    }
+
+    /**
+     * Recomputes all rows from the trades table in one transaction: the table lock makes concurrent imports
+     * wait with their increments until the rebuilt rows are committed, and the rebuild itself only starts
+     * after imports that already hold row locks have committed.
+     */
+    @Transactional
+    public void rebuild() {
+        jdbcTemplate.execute("LOCK TABLE trade_stats IN EXCLUSIVE MODE");
+        jdbcTemplate.update("DELETE FROM trade_stats");
+        jdbcTemplate.update(REBUILD_TOTAL);
+        jdbcTemplate.update(REBUILD_SYMBOLS);
+        jdbcTemplate.update(REBUILD_TAGS);
+    }
+}
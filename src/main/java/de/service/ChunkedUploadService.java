@@ -0,0 +1,56 @@
+package de.service;
+
+import de.model.importjob.ChunkedUpload;
+import de.model.importjob.ImportJob;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * Resumable uploads: a file is sent in chunks at increasing offsets and imported once it is complete. Received
+ * bytes are kept on disk, so an interrupted upload (or a restart of the server) continues at the last offset.
+ */
+public interface ChunkedUploadService {
+
+    /**
+     * Starts an upload.
+     *
+     * @param sha256 SHA-256 of the file, hex; optional, lets the server answer a duplicate before any chunk is sent
+     * @throws IllegalArgumentException if the size is out of range or the hash is malformed
+     * @throws DuplicateImportException if a file with that hash was imported before
+     */
+    ChunkedUpload create(String fileName, long size, String sha256) throws IOException;
+
+    Optional<ChunkedUpload> find(String id);
+
+    /**
+     * Appends a chunk. If the stream breaks off, the bytes received so far are kept and the offset tells the
+     * client where to resume.
+     *
+     * @throws NoSuchElementException if the upload does not exist
+     * @throws UploadOffsetException if {@code offset} is not the current offset of the upload
+     * @throws IllegalArgumentException if the chunk goes beyond the announced size; it is discarded
+     */
+    ChunkedUpload writeChunk(String id, long offset, InputStream chunk) throws IOException;
+
+    /**
+     * Checks the content hash of the complete file and queues it for import. A file that was imported before
+     * is not queued; its upload is removed and {@link DuplicateImportException} thrown.
+     *
+     * @param sha256 expected SHA-256, hex; {@code null} to use the one given at creation, if any
+     * @throws NoSuchElementException if the upload does not exist
+     * @throws IllegalStateException if bytes are missing
+     * @throws IllegalArgumentException if the content does not match the expected hash; the upload is removed
+     * @throws ImportRejectedException if the import queue is full; the upload is kept for another try
+     */
+    ImportJob complete(String id, String sha256) throws IOException;
+
+    /**
+     * Cancels an upload and removes its data.
+     *
+     * @return {@code false} if the upload does not exist
+     */
+    boolean delete(String id) throws IOException;
+}
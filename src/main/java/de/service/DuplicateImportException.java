@@ -0,0 +1,22 @@
+package de.service;
+
+import de.model.importjob.ImportedFile;
+
+/**
+ * Thrown when an upload has the same content (SHA-256) as a file that was already imported; nothing is imported.
+ */
+public class DuplicateImportException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient ImportedFile previous;
+
+    public DuplicateImportException(ImportedFile previous) {
+        super("File was already imported as " + previous.fileName() + " at " + previous.importedAt());
+        this.previous = previous;
+    }
+
+    public ImportedFile getPrevious() {
+        return previous;
+    }
+}
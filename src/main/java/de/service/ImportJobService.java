@@ -0,0 +1,48 @@
+package de.service;
+
+import de.model.importjob.ImportJob;
+import de.model.importjob.ImportedFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Runs uploads as background import jobs.
+ */
+public interface ImportJobService {
+
+    /**
+     * Spools the upload to local disk and queues it for import. If the same content is already queued or
+     * running, that job may be returned instead.
+     *
+     * @throws ImportRejectedException if the import queue is full
+     * @throws DuplicateImportException if a file with the same content was imported before
+     */
+    ImportJob submit(MultipartFile file) throws IOException;
+
+    /**
+     * Queues a file that is already on local disk, e.g. an assembled chunked upload. The file is taken over
+     * (moved into the spool directory or deleted) once the job is accepted; on an exception it is left where it is.
+     *
+     * @param sha256 SHA-256 of the file content, hex
+     * @throws ImportRejectedException if the import queue is full
+     * @throws DuplicateImportException if a file with the same content was imported before
+     */
+    ImportJob submit(Path file, String fileName, String sha256) throws IOException;
+
+    /**
+     * @param sha256 SHA-256 of a file content, hex
+     * @return the completed import of a file with that content
+     */
+    Optional<ImportedFile> findImportedFile(String sha256);
+
+    Optional<ImportJob> findJob(String id);
+
+    /**
+     * @return all jobs that are queued, running or finished within the retention period
+     */
+    List<ImportJob> findJobs();
+}
@@ -0,0 +1,13 @@
+package de.service;
+
+/**
+ * Thrown when an import can't be accepted because all import slots and the queue are taken.
+ */
+public class ImportRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ImportRejectedException(String message) {
+        super(message);
+    }
+}
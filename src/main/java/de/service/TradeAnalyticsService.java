@@ -0,0 +1,27 @@
+package de.service;
+
+import de.model.stats.AnalyticsFilter;
+import de.model.stats.EquityPoint;
+import de.model.stats.GroupStats;
+
+import java.util.List;
+
+/**
+ * Interactive analytics over an in-memory columnar snapshot of all trades. Results reflect every committed
+ * import; unlike {@link TradeStatsService} the groupings are not limited to what is pre-aggregated.
+ */
+public interface TradeAnalyticsService {
+
+    /**
+     * Totals of the selected trades; tag conditions (all of, none of) are evaluated on tag bitmaps, not joins.
+     */
+    GroupStats summary(AnalyticsFilter filter);
+
+    List<GroupStats> bySymbol();
+
+    List<GroupStats> byTag();
+
+    List<GroupStats> byHourOfDay();
+
+    List<EquityPoint> equityByDay();
+}
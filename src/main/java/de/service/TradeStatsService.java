@@ -0,0 +1,48 @@
+package de.service;
+
+import de.model.stats.ProfitLossBucket;
+import de.model.stats.StatsInterval;
+import de.model.stats.TradeStats;
+import de.model.trade.Trade;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Aggregate store behind {@code /api/trades/stats}. Count, P/L sum and wins are kept per symbol, per tag and
+ * in total, and updated together with every write of trades, so reading the statistics is independent of the
+ * number of trades.
+ */
+public interface TradeStatsService {
+
+    TradeStats getStats();
+
+    /**
+     * Statistics of the trades in {@code [from, to)}; either bound may be {@code null}. Without any bound
+     * this is {@link #getStats()}, otherwise the aggregates are computed by the database.
+     */
+    TradeStats getStats(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * P/L per day, week or month with equity curve and drawdown, for trades in {@code [from, to)}.
+     */
+    List<ProfitLossBucket> getProfitLossSeries(StatsInterval interval, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Adds newly stored trades to the aggregates. Must be called in the transaction that stored them.
+     */
+    void tradesAdded(Collection<Trade> trades);
+
+    /**
+     * Removes trades (or the old state of updated trades) from the aggregates, in the writing transaction.
+     */
+    void tradesRemoved(Collection<Trade> trades);
+
+    /**
+     * Recomputes all aggregates from the stored trades, e.g. after manual changes in the database.
+     *
+     * @return the rebuilt statistics
+     */
+    TradeStats rebuild();
+}
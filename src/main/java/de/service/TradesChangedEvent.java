@@ -0,0 +1,30 @@
+package de.service;
+
+import de.model.trade.Trade;
+
+import java.util.List;
+
+/**
+ * Published inside the writing transaction whenever trades are stored. Listeners that keep derived
+ * state (caches, in-memory snapshots) should react after commit.
+ *
+ * @param inserted newly inserted trades, with ids
+ * @param updated  {@code true} if existing trades were changed, so derived state has to be rebuilt
+ */
+public record TradesChangedEvent(List<Trade> inserted, boolean updated) {
+
+    public static TradesChangedEvent inserted(List<Trade> trades) {
+        return new TradesChangedEvent(trades, false);
+    }
+
+    public static TradesChangedEvent updated(Trade trade) {
+        return new TradesChangedEvent(List.of(trade), true);
+    }
+
+    /**
+     * Trades were changed by another application node; published outside a transaction.
+     */
+    public static TradesChangedEvent external() {
+        return new TradesChangedEvent(List.of(), true);
+    }
+}
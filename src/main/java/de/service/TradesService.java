@@ -1,7 +1,17 @@
 package de.service;
 
+import de.model.importjob.ImportFormat;
+import de.model.trade.ImportResult;
 import de.model.trade.Trade;
+import de.model.trade.TradeFilter;
+import de.model.trade.TradePage;
+import de.model.trade.TradeSearchPage;
+import de.model.trade.TradeView;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
@@ -9,8 +19,49 @@ import org.springframework.web.multipart.MultipartFile;
 @Component
 public interface TradesService {
     List<Trade> getAllTrades();
+
+    /**
+     * Keyset-paginated trade list, newest first.
+     *
+     * @param cursor {@code nextCursor} of the previous page, {@code null} for the first page
+     * @throws IllegalArgumentException for an invalid cursor
+     */
+    TradePage findTrades(TradeFilter filter, String cursor, int limit);
+
+    /**
+     * Full-text search over symbol, tags and notes, best match first; only the newest matches are ranked.
+     *
+     * @param query  words, {@code "quoted phrases"}, {@code or} and {@code -excluded} words
+     * @param cursor {@code nextCursor} of the previous page, {@code null} for the first page
+     * @throws IllegalArgumentException for an empty query or an invalid cursor
+     */
+    TradeSearchPage searchTrades(String query, TradeFilter filter, String cursor, int limit);
+
+    /**
+     * Passes all matching trades to {@code consumer} in list order without materializing them.
+     */
+    void streamTrades(TradeFilter filter, Consumer<TradeView> consumer);
+
+    /**
+     * Writes all matching trades in list order as CSV or XLSX in the import column layout, straight from a
+     * database cursor.
+     */
+    void exportTrades(TradeFilter filter, ImportFormat format, OutputStream out) throws IOException;
+
     Trade saveTrade(Trade trade);
-    void importTradesFromExcel(MultipartFile file) throws Exception;
-    void importTradesFromCsv(MultipartFile file) throws Exception;
+    ImportResult importTradesFromExcel(MultipartFile file) throws Exception;
+    ImportResult importTradesFromCsv(MultipartFile file) throws Exception;
+
+    /**
+     * Imports a file from local disk; the counters of {@code progress} are updated while the import runs.
+     */
+    default void importTrades(Path file, ImportFormat format, ImportResult progress) throws Exception {
+        importTrades(file, format, 0, progress);
+    }
+
+    /**
+     * Imports a part of a larger file; {@code lineOffset} is added to the CSV line numbers in messages.
+     */
+    void importTrades(Path file, ImportFormat format, long lineOffset, ImportResult progress) throws Exception;
 
 }
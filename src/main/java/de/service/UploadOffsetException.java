@@ -0,0 +1,21 @@
+package de.service;
+
+/**
+ * Thrown when a chunk does not start at the current offset of its upload, or while another chunk of the same
+ * upload is being written. The client continues at {@link #getOffset()}.
+ */
+public class UploadOffsetException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long offset;
+
+    public UploadOffsetException(String message, long offset) {
+        super(message);
+        this.offset = offset;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+}
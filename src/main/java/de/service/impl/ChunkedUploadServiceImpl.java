@@ -0,0 +1,270 @@
+package de.service.impl;
+
+import de.config.ImportProperties;
+import de.model.importjob.ChunkedUpload;
+import de.model.importjob.ImportJob;
+import de.service.ChunkedUploadService;
+import de.service.DuplicateImportException;
+import de.service.ImportJobService;
+import de.service.UploadOffsetException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chunked uploads below {@code <spool-dir>/uploads}: the received bytes in {@code <id>.part}, name, size and
+ * announced hash in {@code <id>.properties}. The offset of an upload is the length of its part file, so nothing
+ * else has to be persisted to resume after a restart. Uploads without a chunk for
+ * {@code tradesense.import.chunked-upload-retention} are removed.
+ */
+@Service
+public class ChunkedUploadServiceImpl implements ChunkedUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadServiceImpl.class);
+
+    private static final int MAX_FILE_NAME_LENGTH = 255;
+
+    private final ImportJobService importJobService;
+    private final ImportProperties importProperties;
+    private final Path uploadDir;
+    // uploads touched since the start; others are read from their properties file on first access
+    private final Map<String, ChunkedUpload> uploads = new ConcurrentHashMap<>();
+
+    public ChunkedUploadServiceImpl(ImportJobService importJobService, ImportProperties importProperties)
+            throws IOException {
+        this.importJobService = importJobService;
+        this.importProperties = importProperties;
+        this.uploadDir = importProperties.getSpoolDir().resolve("uploads");
+        Files.createDirectories(uploadDir);
+    }
+
+    @Override
+    public ChunkedUpload create(String fileName, long size, String sha256) throws IOException {
+        purgeAbandonedUploads();
+        if (fileName == null || fileName.isBlank() || fileName.length() > MAX_FILE_NAME_LENGTH) {
+            throw new IllegalArgumentException("fileName is required (at most " + MAX_FILE_NAME_LENGTH + " characters)");
+        }
+        long maxSize = importProperties.getMaxUploadSize().toBytes();
+        if (size <= 0 || size > maxSize) {
+            throw new IllegalArgumentException("size must be between 1 and " + maxSize + " bytes");
+        }
+        String hash = sha256 == null ? null : ContentHash.normalize(sha256);
+        if (hash != null) {
+            importJobService.findImportedFile(hash).ifPresent(previous -> {
+                throw new DuplicateImportException(previous);
+            });
+        }
+
+        String id = UUID.randomUUID().toString();
+        ChunkedUpload upload = new ChunkedUpload(id, fileName, size, hash, Instant.now(), 0);
+        Files.createFile(partFile(id));
+        Properties meta = new Properties();
+        meta.setProperty("fileName", fileName);
+        meta.setProperty("size", Long.toString(size));
+        meta.setProperty("createdAt", upload.getCreatedAt().toString());
+        if (hash != null) {
+            meta.setProperty("sha256", hash);
+        }
+        try (Writer out = Files.newBufferedWriter(metaFile(id))) {
+            meta.store(out, null);
+        }
+        uploads.put(id, upload);
+        logger.info("Chunked upload {} started for {} ({} bytes)", id, fileName, size);
+        return upload;
+    }
+
+    @Override
+    public Optional<ChunkedUpload> find(String id) {
+        if (!isUploadId(id)) return Optional.empty();
+        try {
+            return Optional.ofNullable(uploads.computeIfAbsent(id, this::read));
+        } catch (UncheckedIOException e) {
+            logger.warn("Could not read chunked upload {}: {}", id, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public ChunkedUpload writeChunk(String id, long offset, InputStream chunk) throws IOException {
+        ChunkedUpload upload = get(id);
+        if (!upload.getLock().tryLock()) {
+            throw new UploadOffsetException("Another chunk of this upload is being written", upload.getOffset());
+        }
+        try {
+            Path part = existingPartFile(upload);
+            long current = Files.size(part);
+            if (offset != current) {
+                throw new UploadOffsetException("Chunk starts at " + offset + ", expected offset " + current, current);
+            }
+            long position = current;
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                byte[] buffer = new byte[64 * 1024];
+                int n;
+                while ((n = chunk.read(buffer)) > 0) {
+                    if (position + n > upload.getSize()) {
+                        channel.truncate(current);
+                        position = current;
+                        throw new IllegalArgumentException("Chunk exceeds the announced size of "
+                                + upload.getSize() + " bytes");
+                    }
+                    ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, n);
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes);
+                    }
+                    position += n;
+                }
+                // the offset reported to the client must survive a crash
+                channel.force(false);
+            } finally {
+                // also after a broken connection: what arrived stays, the client resumes behind it
+                upload.advanceTo(position);
+            }
+            return upload;
+        } finally {
+            upload.getLock().unlock();
+        }
+    }
+
+    @Override
+    public ImportJob complete(String id, String sha256) throws IOException {
+        ChunkedUpload upload = get(id);
+        if (!upload.getLock().tryLock()) {
+            throw new UploadOffsetException("A chunk of this upload is still being written", upload.getOffset());
+        }
+        try {
+            Path part = existingPartFile(upload);
+            if (!upload.isComplete()) {
+                throw new IllegalStateException("Upload is incomplete: " + upload.getOffset() + " of "
+                        + upload.getSize() + " bytes received");
+            }
+            String expected = sha256 != null ? ContentHash.normalize(sha256) : upload.getSha256();
+            String actual = ContentHash.sha256(part);
+            if (expected != null && !expected.equals(actual)) {
+                remove(id);
+                throw new IllegalArgumentException("Content does not match sha256 " + expected
+                        + " (received " + actual + "), upload discarded");
+            }
+            try {
+                ImportJob job = importJobService.submit(part, upload.getFileName(), actual);
+                remove(id);
+                logger.info("Chunked upload {} completed, import job {}", id, job.getId());
+                return job;
+            } catch (DuplicateImportException e) {
+                remove(id);
+                throw e;
+            }
+        } finally {
+            upload.getLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean delete(String id) throws IOException {
+        Optional<ChunkedUpload> upload = find(id);
+        if (upload.isEmpty()) return false;
+        upload.get().getLock().lock();
+        try {
+            remove(id);
+        } finally {
+            upload.get().getLock().unlock();
+        }
+        logger.info("Chunked upload {} cancelled", id);
+        return true;
+    }
+
+    private ChunkedUpload get(String id) {
+        return find(id).orElseThrow(() -> new NoSuchElementException("Unknown upload " + id));
+    }
+
+    private Path existingPartFile(ChunkedUpload upload) {
+        Path part = partFile(upload.getId());
+        if (!Files.exists(part)) {
+            // completed, cancelled or purged while the caller waited
+            uploads.remove(upload.getId());
+            throw new NoSuchElementException("Unknown upload " + upload.getId());
+        }
+        return part;
+    }
+
+    private ChunkedUpload read(String id) {
+        Path meta = metaFile(id);
+        Path part = partFile(id);
+        if (!Files.exists(meta) || !Files.exists(part)) return null;
+        try {
+            Properties props = new Properties();
+            try (Reader in = Files.newBufferedReader(meta)) {
+                props.load(in);
+            }
+            return new ChunkedUpload(id, props.getProperty("fileName"), Long.parseLong(props.getProperty("size")),
+                    props.getProperty("sha256"), Instant.parse(props.getProperty("createdAt")), Files.size(part));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void remove(String id) throws IOException {
+        uploads.remove(id);
+        Files.deleteIfExists(partFile(id));
+        Files.deleteIfExists(metaFile(id));
+    }
+
+    private void purgeAbandonedUploads() {
+        Instant cutoff = Instant.now().minus(importProperties.getChunkedUploadRetention());
+        try (DirectoryStream<Path> metas = Files.newDirectoryStream(uploadDir, "*.properties")) {
+            for (Path meta : metas) {
+                String name = meta.getFileName().toString();
+                String id = name.substring(0, name.length() - ".properties".length());
+                Path part = partFile(id);
+                Path touched = Files.exists(part) ? part : meta;
+                if (!Files.getLastModifiedTime(touched).toInstant().isBefore(cutoff)) continue;
+
+                ChunkedUpload upload = uploads.get(id);
+                if (upload != null && !upload.getLock().tryLock()) continue;
+                try {
+                    remove(id);
+                    logger.info("Removed chunked upload {}, no chunk since {}", id, cutoff);
+                } finally {
+                    if (upload != null) upload.getLock().unlock();
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not purge abandoned uploads in {}: {}", uploadDir, e.getMessage());
+        }
+    }
+
+    private static boolean isUploadId(String id) {
+        // ids become file names, so nothing but our own UUIDs
+        try {
+            return id != null && UUID.fromString(id).toString().equals(id);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private Path partFile(String id) {
+        return uploadDir.resolve(id + ".part");
+    }
+
+    private Path metaFile(String id) {
+        return uploadDir.resolve(id + ".properties");
+    }
+}
@@ -0,0 +1,397 @@
+package de.service.impl;
+
+import de.config.ImportProperties;
+import de.model.importjob.ImportChunk;
+import de.model.importjob.ImportFormat;
+import de.model.importjob.ImportJob;
+import de.model.importjob.ImportJobStatus;
+import de.model.importjob.ImportedFile;
+import de.model.trade.ImportResult;
+import de.repository.ImportQueueRepository;
+import de.repository.ImportedFileRepository;
+import de.service.DuplicateImportException;
+import de.service.ImportJobService;
+import de.service.ImportRejectedException;
+import de.service.TradesService;
+import de.service.impl.csv.CsvChunk;
+import de.service.impl.csv.CsvChunkReader;
+import de.service.impl.csv.CsvTokenizer;
+import de.service.impl.xlsx.XlsxSheetSplitter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Background imports through the shared queue in PostgreSQL ({@code V6__import_queue.sql}), for several
+ * application nodes on one database.
+ * <p>
+ * The node that receives an upload splits it into chunks of about {@code tradesense.import.queue-chunk-size}
+ * chars on record boundaries (XLSX: small workbooks of whole rows, {@link XlsxSheetSplitter}) and stores job
+ * and chunks in one transaction. Chunks know where they start in the file, so row errors name the file's lines.
+ * Every node runs {@code tradesense.import.max-concurrent-jobs} workers that claim the oldest queued chunk of any
+ * job with {@code FOR UPDATE SKIP LOCKED}, so the chunks of a large file are imported by all nodes in parallel.
+ * Duplicates are dropped by the unique business key of {@code trades}, also across chunks and nodes.
+ * <p>
+ * Claimed chunks are confirmed every {@code heartbeat-interval}. Chunks of a node that stopped confirming for
+ * {@code stall-timeout} are queued again by any other node; a chunk that failed {@code chunk-max-attempts}
+ * times fails its job. A retried chunk counts its rows stored by the lost attempt as skipped.
+ * <p>
+ * Caches and analytics of the other nodes learn about the imported trades through {@link ClusterTradeChanges}.
+ * Chunked uploads are assembled in the node-local spool directory unless {@code spool-dir} is shared storage,
+ * so without it all requests of an upload have to reach the same node (sticky routing).
+ */
+@Service
+@ConditionalOnProperty(prefix = "tradesense.import", name = "queue", havingValue = "cluster")
+public class ClusterImportJobServiceImpl implements ImportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterImportJobServiceImpl.class);
+
+    private static final char DELIMITER = ',';
+
+    private final TradesService tradesService;
+    private final ImportQueueRepository queue;
+    private final ImportedFileRepository importedFileRepository;
+    private final ImportProperties importProperties;
+    private final TransactionTemplate transaction;
+    private final ThreadFactory threadFactory;
+    private final String nodeId;
+    private final List<Thread> workers = new ArrayList<>();
+    // chunks the workers of this node are importing, confirmed by the heartbeat
+    private final Set<Long> inProgress = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService maintenance;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workQueued = lock.newCondition();
+    private volatile boolean running = true;
+
+    public ClusterImportJobServiceImpl(TradesService tradesService, ImportQueueRepository queue,
+                                       ImportedFileRepository importedFileRepository,
+                                       ImportProperties importProperties, PlatformTransactionManager transactionManager,
+                                       Environment environment) throws IOException {
+        this.tradesService = tradesService;
+        this.queue = queue;
+        this.importedFileRepository = importedFileRepository;
+        this.importProperties = importProperties;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.nodeId = hostName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+        Files.createDirectories(importProperties.getSpoolDir());
+
+        // as in ImportJobServiceImpl: virtual threads with spring.threads.virtual.enabled, the number of workers
+        // still limits the pooled connections busy with imports
+        this.threadFactory = Threading.VIRTUAL.isActive(environment)
+                ? Thread.ofVirtual().name("import-", 1).factory()
+                : new CustomizableThreadFactory("import-");
+    }
+
+    /**
+     * Starts pulling chunks once the application is ready, not while the context is still being built.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (int i = 0; i < Math.max(1, importProperties.getMaxConcurrentJobs()); i++) {
+            Thread worker = threadFactory.newThread(this::work);
+            workers.add(worker);
+            worker.start();
+        }
+        CustomizableThreadFactory maintenanceThreads = new CustomizableThreadFactory("import-heartbeat-");
+        maintenanceThreads.setDaemon(true);
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(maintenanceThreads);
+        long interval = importProperties.getHeartbeatInterval().toMillis();
+        maintenance.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.MILLISECONDS);
+        logger.info("Import node {} pulls from the cluster queue with {} workers", nodeId, workers.size());
+    }
+
+    @Override
+    public ImportJob submit(MultipartFile file) throws IOException {
+        String id = UUID.randomUUID().toString();
+        ImportFormat format = ImportFormat.fromFileName(file.getOriginalFilename());
+        Path spool = importProperties.getSpoolDir().resolve(id + format.getExtension());
+        // moves the multipart temp file if it is on disk, so hashing is the only full read before splitting
+        file.transferTo(spool);
+        try {
+            return enqueue(id, spool, file.getOriginalFilename(), format, ContentHash.sha256(spool));
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    @Override
+    public ImportJob submit(Path file, String fileName, String sha256) throws IOException {
+        String hash = ContentHash.normalize(sha256);
+        ImportJob job = enqueue(UUID.randomUUID().toString(), file, fileName, ImportFormat.fromFileName(fileName), hash);
+        // the content is in the queue now (or was queued by another upload)
+        Files.deleteIfExists(file);
+        return job;
+    }
+
+    @Override
+    public Optional<ImportedFile> findImportedFile(String sha256) {
+        return importedFileRepository.find(ContentHash.normalize(sha256));
+    }
+
+    @Override
+    public Optional<ImportJob> findJob(String id) {
+        return queue.findJob(id);
+    }
+
+    @Override
+    public List<ImportJob> findJobs() {
+        return queue.findJobs();
+    }
+
+    /**
+     * @return the new job, or the queued or running job of an earlier upload with the same content
+     */
+    private ImportJob enqueue(String id, Path file, String fileName, ImportFormat format, String sha256)
+            throws IOException {
+        Optional<ImportedFile> previous = importedFileRepository.find(sha256);
+        if (previous.isPresent()) {
+            logger.info("Upload {} was already imported as {} by job {}, skipping", sha256,
+                    previous.get().fileName(), previous.get().jobId());
+            throw new DuplicateImportException(previous.get());
+        }
+        Optional<ImportJob> active = queue.findActiveJob(sha256);
+        if (active.isPresent()) {
+            logger.info("Upload {} is already being imported by job {}", sha256, active.get().getId());
+            return active.get();
+        }
+        if (queue.countQueuedJobs() >= importProperties.getQueueCapacity()) {
+            throw new ImportRejectedException("Too many imports in progress, please retry later");
+        }
+
+        long size = Files.size(file);
+        int chunks;
+        try {
+            chunks = transaction.execute(status -> {
+                try {
+                    return split(id, file, fileName, format, size, sha256);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (DuplicateKeyException e) {
+            // the same content was queued by another upload in the meantime (uk_import_jobs_active_sha256)
+            return queue.findActiveJob(sha256).orElseThrow(() -> e);
+        }
+        logger.info("Import job {} queued for {} ({} bytes, sha256 {}) in {} chunks", id, fileName, size, sha256, chunks);
+        signalWork();
+        return queue.findJob(id).orElseThrow();
+    }
+
+    /**
+     * Stores job and chunks; call in a transaction.
+     *
+     * @return the number of chunks
+     */
+    private int split(String id, Path file, String fileName, ImportFormat format, long size, String sha256)
+            throws IOException {
+        if (format == ImportFormat.XLSX) {
+            queue.insertJob(id, fileName, format, size, sha256, null, nodeId);
+            int chunks;
+            try {
+                chunks = XlsxSheetSplitter.split(file.toFile(), importProperties.getQueueChunkSize(),
+                        (seq, workbook) -> queue.insertChunk(id, seq, 0, workbook));
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Could not read workbook " + fileName + ": " + e.getMessage(), e);
+            }
+            if (chunks == 0) {
+                queue.finishJobIfDone(id);
+            }
+            return chunks;
+        }
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            CsvChunkReader reader = new CsvChunkReader(in, DELIMITER, importProperties.getQueueChunkSize());
+            CsvChunk chunk = reader.next();
+            // the first chunk keeps the header record, the others get it put in front when they are imported
+            String header = chunk == null ? null : headerRecord(chunk);
+            queue.insertJob(id, fileName, format, size, sha256, header, nodeId);
+            long headerLines = header == null ? 0 : header.lines().count();
+            int seq = 0;
+            for (; chunk != null; chunk = reader.next()) {
+                long lineOffset = seq == 0 ? 0 : chunk.firstLine() - 1 - headerLines;
+                queue.insertChunk(id, seq++, lineOffset,
+                        new String(chunk.chars(), 0, chunk.length()).getBytes(StandardCharsets.UTF_8));
+            }
+            if (seq == 0) {
+                queue.finishJobIfDone(id);
+            }
+            return seq;
+        }
+    }
+
+    private static String headerRecord(CsvChunk first) throws IOException {
+        CsvTokenizer records = new CsvTokenizer(first, DELIMITER);
+        if (!records.next()) return null;
+        StringBuilder header = new StringBuilder();
+        for (int i = 0; i < records.getFieldCount(); i++) {
+            if (i > 0) header.append(DELIMITER);
+            header.append('"').append(records.getString(i).replace("\"", "\"\"")).append('"');
+        }
+        return header.toString();
+    }
+
+    private void work() {
+        while (running) {
+            Optional<ImportChunk> chunk;
+            try {
+                chunk = queue.claimChunk(nodeId);
+            } catch (RuntimeException e) {
+                logger.warn("Could not claim an import chunk: {}", e.getMessage());
+                chunk = Optional.empty();
+            }
+            if (chunk.isPresent()) {
+                process(chunk.get());
+            } else {
+                awaitWork();
+            }
+        }
+    }
+
+    private void process(ImportChunk chunk) {
+        inProgress.add(chunk.id());
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(importProperties.getSpoolDir(), "chunk-", chunk.format().getExtension());
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                if (chunk.seq() > 0 && chunk.header() != null) {
+                    out.write((chunk.header() + "\n").getBytes(StandardCharsets.UTF_8));
+                }
+                out.write(chunk.data());
+            }
+            ImportResult result = new ImportResult();
+            tradesService.importTrades(tmp, chunk.format(), chunk.lineOffset(), result);
+            logger.debug("Chunk {} of import job {} imported: {}", chunk.seq(), chunk.jobId(), result);
+            queue.completeChunk(chunk, nodeId, result).ifPresent(status -> jobFinished(chunk.jobId()));
+        } catch (Exception e) {
+            logger.error("Chunk {} of import job {} failed (attempt {}): {}", chunk.seq(), chunk.jobId(),
+                    chunk.attempt(), e.getMessage(), e);
+            try {
+                queue.releaseChunk(chunk, nodeId, e.getMessage(), importProperties.getChunkMaxAttempts())
+                        .ifPresent(status -> jobFinished(chunk.jobId()));
+            } catch (RuntimeException releaseEx) {
+                // requeued by another node after the stall timeout
+                logger.warn("Could not release chunk {} of import job {}: {}", chunk.seq(), chunk.jobId(),
+                        releaseEx.getMessage());
+            }
+        } finally {
+            inProgress.remove(chunk.id());
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException e) {
+                    logger.warn("Could not delete chunk file {}: {}", tmp, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void jobFinished(String jobId) {
+        queue.findJob(jobId).ifPresent(job -> {
+            if (job.getStatus() == ImportJobStatus.FAILED) {
+                logger.error("Import job {} failed: {}", jobId, job.getErrorMessage());
+                return;
+            }
+            logger.info("Import job {} completed: {}", jobId, job.getProgress());
+            try {
+                importedFileRepository.save(new ImportedFile(job.getContentHash(), job.getFileName(),
+                        job.getSizeBytes(), job.getProgress().getRowsInserted(), jobId, job.getFinishedAt()));
+            } catch (RuntimeException e) {
+                // the trades are in; without the record a re-upload is parsed again and its rows skipped as duplicates
+                logger.warn("Could not record imported file {} of job {}: {}", job.getContentHash(), jobId,
+                        e.getMessage());
+            }
+        });
+    }
+
+    private void maintain() {
+        try {
+            queue.heartbeat(nodeId, List.copyOf(inProgress));
+            queue.reclaimStalledChunks(importProperties.getStallTimeout(), importProperties.getChunkMaxAttempts())
+                    .forEach(this::jobFinished);
+            queue.purgeFinishedJobs(Instant.now().minus(importProperties.getJobRetention()));
+        } catch (RuntimeException e) {
+            logger.warn("Import queue maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private void awaitWork() {
+        lock.lock();
+        try {
+            workQueued.await(importProperties.getQueuePollInterval().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void signalWork() {
+        lock.lock();
+        try {
+            workQueued.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "unknown";
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        signalWork();
+        // a worker finishes the chunk it is importing
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
+        int released = queue.releaseChunks(nodeId);
+        if (released > 0) {
+            logger.info("Import node {} gave {} unfinished chunks back to the queue", nodeId, released);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package de.service.impl;
+
+import de.config.ImportProperties;
+import de.service.TradesChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trade changes of other nodes for the derived state of this node, with the cluster import queue.
+ * <p>
+ * {@link TradeDataVersion}, the caches keyed by it and the column store follow {@link TradesChangedEvent}s, which
+ * are only published on the node that wrote the trades. Every writing transaction therefore increments
+ * {@code trade_data_generation} ({@code V8__trade_data_generation.sql}) right before it commits. The row lock
+ * orders the commits, so the counter only moves by committed changes. This node polls the counter every
+ * {@code queue-poll-interval} and publishes {@link TradesChangedEvent#external()} if it moved by more than the
+ * commits of this node.
+ */
+@Component
+@ConditionalOnProperty(prefix = "tradesense.import", name = "queue", havingValue = "cluster")
+public class ClusterTradeChanges {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterTradeChanges.class);
+
+    private static final String INCREMENT =
+            "UPDATE trade_data_generation SET generation = generation + 1 RETURNING generation";
+
+    private static final String CURRENT = "SELECT generation FROM trade_data_generation";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ImportProperties importProperties;
+    // generations committed by this node that the poll has not passed yet
+    private final Set<Long> committedHere = ConcurrentHashMap.newKeySet();
+    // only used by the polling thread
+    private long seen = -1;
+    private ScheduledExecutorService poller;
+
+    public ClusterTradeChanges(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher,
+                               ImportProperties importProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.importProperties = importProperties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("trade-changes-");
+        threads.setDaemon(true);
+        poller = Executors.newSingleThreadScheduledExecutor(threads);
+        long interval = importProperties.getQueuePollInterval().toMillis();
+        poller.scheduleWithFixedDelay(this::pollSafely, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+
+    // in the writing transaction, after everything else was written
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onTradesChanged(TradesChangedEvent event) {
+        Long generation = jdbcTemplate.queryForObject(INCREMENT, Long.class);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                committedHere.add(generation);
+            }
+        });
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            logger.warn("Could not check for trade changes of other nodes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return {@code true} if other nodes committed changes since the last poll
+     */
+    boolean poll() {
+        long current = jdbcTemplate.queryForObject(CURRENT, Long.class);
+        if (seen < 0 || current == seen) {
+            seen = current;
+            return false;
+        }
+        long previous = seen;
+        // a commit of this node that is still running its afterCommit callbacks counts as external: one rebuild more
+        long here = committedHere.stream().filter(g -> g > previous && g <= current).count();
+        committedHere.removeIf(g -> g <= current);
+        seen = current;
+        if (current - previous <= here) {
+            return false;
+        }
+        logger.debug("Trades changed by other nodes (generation {} -> {})", previous, current);
+        eventPublisher.publishEvent(TradesChangedEvent.external());
+        return true;
+    }
+}
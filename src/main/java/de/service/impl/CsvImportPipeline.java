@@ -0,0 +1,131 @@
+package de.service.impl;
+
+import de.config.ImportProperties;
+import de.service.impl.csv.CsvChunk;
+import de.service.impl.csv.CsvChunkReader;
+import de.service.impl.csv.CsvTokenizer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Parallel CSV parsing in three stages:
+ * <ol>
+ *     <li>reader: one thread per import cuts the input into record-aligned {@link CsvChunk}s,</li>
+ *     <li>parsers: a shared pool of {@code tradesense.import.parser-threads} turns chunks into results,</li>
+ *     <li>writer: the calling thread consumes the results in file order.</li>
+ * </ol>
+ * Reader and writer are connected by a bounded queue of parse futures in file order, so at most
+ * {@code 2 * parser-threads} chunks per import are in flight; a slow writer stops the reader.
+ */
+@Component
+public class CsvImportPipeline {
+
+    private static final char DELIMITER = ',';
+    private static final Future<?> END = CompletableFuture.completedFuture(null);
+
+    private final ThreadPoolExecutor parsers;
+    private final int chunkSize;
+    private final int queueCapacity;
+    private final AtomicInteger readerThreads = new AtomicInteger();
+
+    /**
+     * Parses all records of one chunk; called on a parser thread, must not share mutable state.
+     */
+    @FunctionalInterface
+    public interface ChunkParser<T> {
+        T parse(CsvTokenizer records) throws IOException;
+    }
+
+    public CsvImportPipeline(ImportProperties importProperties) {
+        int threads = Math.max(1, importProperties.getParserThreads());
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("csv-parser-");
+        threadFactory.setDaemon(true);
+        this.parsers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+        this.chunkSize = importProperties.getCsvChunkSize();
+        this.queueCapacity = 2 * threads;
+    }
+
+    /**
+     * Reads the header record on the calling thread, then parses the remaining records chunk by chunk in
+     * parallel and passes the results to {@code sink} in file order, on the calling thread.
+     *
+     * @param header receives the tokenizer positioned on the header record and returns the parser for the rows
+     * @return {@code false} if the input is empty
+     */
+    public <T> boolean run(Reader in, Function<CsvTokenizer, ChunkParser<T>> header,
+                           Consumer<T> sink) throws Exception {
+        CsvChunkReader chunks = new CsvChunkReader(in, DELIMITER, chunkSize);
+        CsvChunk first = chunks.next();
+        if (first == null) return false;
+        CsvTokenizer firstRecords = new CsvTokenizer(first, DELIMITER);
+        if (!firstRecords.next()) return false;
+        ChunkParser<T> parser = header.apply(firstRecords);
+
+        BlockingQueue<Future<?>> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        Thread reader = new Thread(() -> read(chunks, firstRecords, parser, parsed),
+                "csv-reader-" + readerThreads.incrementAndGet());
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            while (true) {
+                Future<?> next = parsed.take();
+                if (next == END) return true;
+                @SuppressWarnings("unchecked")
+                T result = (T) next.get();
+                sink.accept(result);
+            }
+        } catch (ExecutionException e) {
+            // an Error stays wrapped, so the import fails like for any other exception
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            reader.interrupt();
+            reader.join();
+            parsed.forEach(f -> f.cancel(false));
+        }
+    }
+
+    private <T> void read(CsvChunkReader chunks, CsvTokenizer firstRecords, ChunkParser<T> parser,
+                          BlockingQueue<Future<?>> parsed) {
+        try {
+            try {
+                // the rest of the first chunk, the tokenizer is already past the header
+                parsed.put(parsers.submit(() -> parser.parse(firstRecords)));
+                CsvChunk chunk;
+                while ((chunk = chunks.next()) != null) {
+                    CsvTokenizer records = new CsvTokenizer(chunk, DELIMITER);
+                    parsed.put(parsers.submit(() -> parser.parse(records)));
+                }
+                parsed.put(END);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Throwable e) {
+                // Errors too (e.g. OutOfMemoryError on a huge quoted field): the writer waits for a future
+                parsed.put(CompletableFuture.failedFuture(e));
+            }
+        } catch (InterruptedException e) {
+            // the writer gave up
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        parsers.shutdown();
+    }
+}
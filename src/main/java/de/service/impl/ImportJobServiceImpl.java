@@ -0,0 +1,197 @@
+package de.service.impl;
+
+import de.config.ImportProperties;
+import de.model.importjob.ImportFormat;
+import de.model.importjob.ImportJob;
+import de.model.importjob.ImportedFile;
+import de.repository.ImportedFileRepository;
+import de.service.DuplicateImportException;
+import de.service.ImportJobService;
+import de.service.ImportRejectedException;
+import de.service.TradesService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background imports on a bounded executor: at most {@code tradesense.import.max-concurrent-jobs} imports run
+ * at the same time (each holds a database connection while it flushes), further uploads wait in a bounded
+ * queue and are rejected once it is full. Job state is kept in memory and dropped some time after completion.
+ * <p>
+ * Every upload is hashed (SHA-256) before it is queued. Completed imports are recorded in {@code imported_files},
+ * so the same file uploaded again is rejected with {@link DuplicateImportException} without being parsed.
+ * <p>
+ * Only for a single instance ({@code tradesense.import.queue=local}); see {@link ClusterImportJobServiceImpl}.
+ */
+@Service
+@ConditionalOnProperty(prefix = "tradesense.import", name = "queue", havingValue = "local", matchIfMissing = true)
+public class ImportJobServiceImpl implements ImportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportJobServiceImpl.class);
+
+    private final TradesService tradesService;
+    private final ImportedFileRepository importedFileRepository;
+    private final ImportProperties importProperties;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobServiceImpl(TradesService tradesService, ImportedFileRepository importedFileRepository,
+                                ImportProperties importProperties, Environment environment) throws IOException {
+        this.tradesService = tradesService;
+        this.importedFileRepository = importedFileRepository;
+        this.importProperties = importProperties;
+        int workers = Math.max(1, importProperties.getMaxConcurrentJobs());
+        // with spring.threads.virtual.enabled the jobs run on virtual threads; the pool size still limits
+        // how many imports (and pooled connections) are busy at the same time
+        ThreadFactory threadFactory = Threading.VIRTUAL.isActive(environment)
+                ? Thread.ofVirtual().name("import-", 1).factory()
+                : new CustomizableThreadFactory("import-");
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, importProperties.getQueueCapacity())), threadFactory);
+        Files.createDirectories(importProperties.getSpoolDir());
+    }
+
+    @Override
+    public ImportJob submit(MultipartFile file) throws IOException {
+        purgeFinishedJobs();
+        checkCapacity();
+
+        String id = UUID.randomUUID().toString();
+        ImportFormat format = ImportFormat.fromFileName(file.getOriginalFilename());
+        Path spool = importProperties.getSpoolDir().resolve(id + format.getExtension());
+        // moves the multipart temp file if it is on disk, so hashing is the only full read before the import
+        file.transferTo(spool);
+        try {
+            String sha256 = ContentHash.sha256(spool);
+            rejectDuplicate(sha256);
+            return enqueue(new ImportJob(id, file.getOriginalFilename(), format, spool, file.getSize(), sha256));
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+    }
+
+    @Override
+    public ImportJob submit(Path file, String fileName, String sha256) throws IOException {
+        purgeFinishedJobs();
+        checkCapacity();
+        String hash = ContentHash.normalize(sha256);
+        rejectDuplicate(hash);
+
+        String id = UUID.randomUUID().toString();
+        ImportFormat format = ImportFormat.fromFileName(fileName);
+        Path spool = importProperties.getSpoolDir().resolve(id + format.getExtension());
+        long size = Files.size(file);
+        Files.move(file, spool);
+        try {
+            return enqueue(new ImportJob(id, fileName, format, spool, size, hash));
+        } catch (RuntimeException e) {
+            Files.move(spool, file);
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<ImportedFile> findImportedFile(String sha256) {
+        return importedFileRepository.find(ContentHash.normalize(sha256));
+    }
+
+    private void checkCapacity() {
+        if (executor.getQueue().remainingCapacity() == 0) {
+            throw new ImportRejectedException("Too many imports in progress, please retry later");
+        }
+    }
+
+    private void rejectDuplicate(String sha256) {
+        Optional<ImportedFile> previous = importedFileRepository.find(sha256);
+        if (previous.isPresent()) {
+            logger.info("Upload {} was already imported as {} by job {}, skipping", sha256,
+                    previous.get().fileName(), previous.get().jobId());
+            throw new DuplicateImportException(previous.get());
+        }
+    }
+
+    private ImportJob enqueue(ImportJob job) {
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new ImportRejectedException("Too many imports in progress, please retry later");
+        }
+        logger.info("Import job {} queued for {} ({} bytes, sha256 {})", job.getId(), job.getFileName(),
+                job.getSizeBytes(), job.getContentHash());
+        return job;
+    }
+
+    @Override
+    public Optional<ImportJob> findJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    @Override
+    public List<ImportJob> findJobs() {
+        return List.copyOf(jobs.values());
+    }
+
+    private void run(ImportJob job) {
+        job.markRunning();
+        try {
+            tradesService.importTrades(job.getSpoolFile(), job.getFormat(), job.getProgress());
+            job.markCompleted();
+            logger.info("Import job {} completed: {}", job.getId(), job.getProgress());
+            recordImportedFile(job);
+        } catch (Exception e) {
+            job.markFailed(e.getMessage());
+            logger.error("Import job {} failed: {}", job.getId(), e.getMessage(), e);
+        } finally {
+            try {
+                Files.deleteIfExists(job.getSpoolFile());
+            } catch (IOException e) {
+                logger.warn("Could not delete spool file {}: {}", job.getSpoolFile(), e.getMessage());
+            }
+        }
+    }
+
+    private void recordImportedFile(ImportJob job) {
+        try {
+            importedFileRepository.save(new ImportedFile(job.getContentHash(), job.getFileName(), job.getSizeBytes(),
+                    job.getProgress().getRowsInserted(), job.getId(), job.getFinishedAt()));
+        } catch (RuntimeException e) {
+            // the trades are in; without the record a re-upload is parsed again and its rows skipped as duplicates
+            logger.warn("Could not record imported file {} of job {}: {}", job.getContentHash(), job.getId(),
+                    e.getMessage());
+        }
+    }
+
+    private void purgeFinishedJobs() {
+        Instant cutoff = Instant.now().minus(importProperties.getJobRetention());
+        jobs.values().removeIf(j -> j.isDone() && j.getFinishedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,75 @@
+package de.service.impl;
+
+import de.model.importjob.ImportFormat;
+import de.model.trade.ImportResult;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Import metrics, recorded once per import from the counters the import keeps anyway, so the row loop
+ * itself stays free of instrumentation:
+ * <ul>
+ *     <li>{@code tradesense.import.duration} (format, outcome)</li>
+ *     <li>{@code tradesense.import.stage} (format, stage = parse|dedup|persist): time per stage and import</li>
+ *     <li>{@code tradesense.import.rows} (format, result = parsed|inserted|skipped|failed)</li>
+ *     <li>{@code tradesense.import.throughput}: parsed rows per second of each import</li>
+ * </ul>
+ */
+@Component
+public class ImportMetrics {
+
+    private final MeterRegistry registry;
+
+    public ImportMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * @param batcher the batcher of the import, holds the time spent in the dedup and persist stages
+     */
+    void importFinished(ImportFormat format, ImportResult result, TradeBatcher batcher, boolean success) {
+        String formatTag = format.name().toLowerCase();
+        long totalNanos = TimeUnit.MILLISECONDS.toNanos(result.getDurationMillis());
+        long dedupNanos = batcher.getDedupNanos();
+        long persistNanos = batcher.getPersistNanos();
+
+        Timer.builder("tradesense.import.duration")
+                .description("Duration of an import")
+                .tags("format", formatTag, "outcome", success ? "success" : "failure")
+                .register(registry)
+                .record(totalNanos, TimeUnit.NANOSECONDS);
+        stage(formatTag, "parse").record(Math.max(0, totalNanos - dedupNanos - persistNanos), TimeUnit.NANOSECONDS);
+        stage(formatTag, "dedup").record(dedupNanos, TimeUnit.NANOSECONDS);
+        stage(formatTag, "persist").record(persistNanos, TimeUnit.NANOSECONDS);
+
+        rows(formatTag, "parsed", result.getRowsParsed());
+        rows(formatTag, "inserted", result.getRowsInserted());
+        rows(formatTag, "skipped", result.getRowsSkipped());
+        rows(formatTag, "failed", result.getRowsFailed());
+
+        if (success) {
+            DistributionSummary.builder("tradesense.import.throughput")
+                    .description("Parsed rows per second of an import")
+                    .baseUnit("rows/s")
+                    .tag("format", formatTag)
+                    .register(registry)
+                    .record(result.getRowsPerSecond());
+        }
+    }
+
+    private Timer stage(String format, String stage) {
+        return Timer.builder("tradesense.import.stage")
+                .description("Time spent per import stage")
+                .tags("format", format, "stage", stage)
+                .register(registry);
+    }
+
+    private void rows(String format, String result, long count) {
+        if (count == 0) return;
+        registry.counter("tradesense.import.rows", "format", format, "result", result).increment(count);
+    }
+}
@@ -0,0 +1,59 @@
+package de.service.impl;
+
+import de.model.trade.Trade;
+import de.repository.TagRepository;
+import de.repository.TradeBatchRepository;
+import de.repository.TradePartitionRepository;
+import de.service.TradeStatsService;
+import de.service.TradesChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Transaction boundary for imports: every chunk of parsed trades is persisted in its own transaction,
+ * together with the matching increments of the statistics.
+ */
+@Component
+public class TradeBatchWriter {
+
+    private final TradeBatchRepository tradeBatchRepository;
+    private final TradePartitionRepository tradePartitionRepository;
+    private final TagRepository tagRepository;
+    private final TradeStatsService tradeStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+
+    public TradeBatchWriter(TradeBatchRepository tradeBatchRepository,
+                            TradePartitionRepository tradePartitionRepository, TagRepository tagRepository,
+                            TradeStatsService tradeStatsService, ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager) {
+        this.tradeBatchRepository = tradeBatchRepository;
+        this.tradePartitionRepository = tradePartitionRepository;
+        this.tagRepository = tagRepository;
+        this.tradeStatsService = tradeStatsService;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @return the trades that were inserted; duplicates of stored trades are skipped
+     */
+    public List<Trade> write(List<Trade> trades) {
+        // partitions and new tags are committed before the chunk takes its connection, so an import holds one
+        // pooled connection at a time (see TradePartitionRepository, TagRepository)
+        tradePartitionRepository.ensurePartitions(trades);
+        tagRepository.ensureTags(trades);
+        return transaction.execute(status -> {
+            List<Trade> inserted = tradeBatchRepository.insertAll(trades);
+            tradeStatsService.tradesAdded(inserted);
+            if (!inserted.isEmpty()) {
+                eventPublisher.publishEvent(TradesChangedEvent.inserted(inserted));
+            }
+            return inserted;
+        });
+    }
+}
@@ -0,0 +1,60 @@
+package de.service.impl;
+
+import de.model.trade.ImportResult;
+import de.model.trade.Trade;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects parsed trades of one import and flushes them in fixed-size chunks through the {@link TradeBatchWriter}.
+ * Each chunk is checked against stored trades first; trades that already exist count as skipped.
+ */
+class TradeBatcher {
+
+    private final TradeBatchWriter writer;
+    private final TradeDeduplicator deduplicator;
+    private final int batchSize;
+    private final ImportResult result;
+    private List<Trade> buffer;
+    private long dedupNanos;
+    private long persistNanos;
+
+    TradeBatcher(TradeBatchWriter writer, TradeDeduplicator deduplicator, int batchSize, ImportResult result) {
+        this.writer = writer;
+        this.deduplicator = deduplicator;
+        this.batchSize = Math.max(1, batchSize);
+        this.result = result;
+        this.buffer = new ArrayList<>(this.batchSize);
+    }
+
+    void add(Trade trade) {
+        buffer.add(trade);
+        if (buffer.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    void flush() {
+        if (buffer.isEmpty()) return;
+        List<Trade> chunk = buffer;
+        buffer = new ArrayList<>(batchSize);
+        long started = System.nanoTime();
+        List<Trade> fresh = deduplicator.removeExisting(chunk);
+        long deduplicated = System.nanoTime();
+        List<Trade> inserted = fresh.isEmpty() ? List.of() : writer.write(fresh);
+        dedupNanos += deduplicated - started;
+        persistNanos += System.nanoTime() - deduplicated;
+        deduplicator.register(inserted);
+        result.rowsInserted(inserted.size());
+        result.rowsSkipped(chunk.size() - inserted.size());
+    }
+
+    long getDedupNanos() {
+        return dedupNanos;
+    }
+
+    long getPersistNanos() {
+        return persistNanos;
+    }
+}
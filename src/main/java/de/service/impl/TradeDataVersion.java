@@ -0,0 +1,77 @@
+package de.service.impl;
+
+import de.service.TradesChangedEvent;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generation counter of the stored trades, incremented after every commit that inserts or changes trades
+ * (each import chunk, {@code saveTrade}) or rebuilds derived data. Cached query results are keyed by the
+ * generation, so a commit makes all older entries unreachable; they age out of the caches by size and TTL.
+ * HTTP validators (ETag, Last-Modified) are derived from it as well.
+ * <p>
+ * The generation only moves after the derived state (column store) has taken the change: a request that sees the
+ * new generation must not be answered from the old state, or its result would be cached and validated as current.
+ */
+@Component
+public class TradeDataVersion {
+
+    /**
+     * Order of the listener that advances the generation. Listeners that update derived state run before it
+     * (lower value), listeners that notify clients (live feed) after it.
+     */
+    public static final int LISTENER_ORDER = 0;
+
+    // distinguishes the generations of different application runs, the counter starts at 0 on every start
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Instant lastModified = Instant.ofEpochMilli(epoch);
+
+    public long current() {
+        return generation.get();
+    }
+
+    /**
+     * @return marker of the current generation, unique across restarts
+     */
+    public String marker() {
+        return Long.toString(epoch, 36) + "-" + generation.get();
+    }
+
+    public Instant lastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Starts a new generation once the current transaction commits (immediately without transaction).
+     */
+    public void advanceAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    advance();
+                }
+            });
+        } else {
+            advance();
+        }
+    }
+
+    @Order(LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradesChanged(TradesChangedEvent event) {
+        advance();
+    }
+
+    private void advance() {
+        lastModified = Instant.now();
+        generation.incrementAndGet();
+    }
+}
@@ -0,0 +1,134 @@
+package de.service.impl;
+
+import de.config.ImportProperties;
+import de.model.trade.Trade;
+import de.model.trade.TradeKey;
+import de.repository.TradeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Duplicate check of import chunks against the database.
+ * <p>
+ * A node-local Bloom filter over all stored business keys sits in front of the bulk existence query, so keys
+ * that are certainly new never reach the database. The filter is built lazily by paging through the keys
+ * once and is extended with every inserted chunk. It only saves queries: correctness comes from the unique
+ * constraint, which also catches trades inserted by other nodes.
+ */
+@Component
+public class TradeDeduplicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(TradeDeduplicator.class);
+
+    private static final int KEY_PAGE_SIZE = 10_000;
+
+    private final TradeRepository tradeRepository;
+    private final ImportProperties importProperties;
+
+    // held while the filter is built from the database
+    private final ReentrantLock lock = new ReentrantLock();
+    private TradeKeyBloomFilter bloomFilter;
+
+    public TradeDeduplicator(TradeRepository tradeRepository, ImportProperties importProperties) {
+        this.tradeRepository = tradeRepository;
+        this.importProperties = importProperties;
+    }
+
+    /**
+     * @return the trades of {@code chunk} whose business key is not stored yet (same order)
+     */
+    public List<Trade> removeExisting(List<Trade> chunk) {
+        List<Trade> candidates = new ArrayList<>();
+        lock.lock();
+        try {
+            TradeKeyBloomFilter filter = bloomFilter();
+            for (Trade t : chunk) {
+                if (filter.mightContain(t.getSymbol(), t.getEntryPrice(), t.getTimestamp())) {
+                    candidates.add(t);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (candidates.isEmpty()) return chunk;
+
+        Set<TradeKey> existing = findExisting(candidates);
+        if (existing.isEmpty()) return chunk;
+        List<Trade> fresh = new ArrayList<>(chunk.size());
+        for (Trade t : chunk) {
+            if (!existing.contains(TradeKey.of(t))) fresh.add(t);
+        }
+        return fresh;
+    }
+
+    /**
+     * Adds the keys of freshly inserted trades to the filter.
+     */
+    public void register(List<Trade> inserted) {
+        lock.lock();
+        try {
+            if (bloomFilter == null) return;
+            for (Trade t : inserted) {
+                bloomFilter.add(t.getSymbol(), t.getEntryPrice(), t.getTimestamp());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Set<TradeKey> findExisting(List<Trade> candidates) {
+        int n = candidates.size();
+        String[] symbols = new String[n];
+        Double[] entryPrices = new Double[n];
+        LocalDateTime[] timestamps = new LocalDateTime[n];
+        for (int i = 0; i < n; i++) {
+            Trade t = candidates.get(i);
+            symbols[i] = t.getSymbol();
+            entryPrices[i] = t.getEntryPrice();
+            timestamps[i] = t.getTimestamp();
+        }
+        Set<TradeKey> existing = new HashSet<>();
+        for (Object[] row : tradeRepository.findExistingKeys(symbols, entryPrices, timestamps)) {
+            existing.add(new TradeKey((String) row[0], row[1] != null ? ((Number) row[1]).doubleValue() : null,
+                    toLocalDateTime(row[2])));
+        }
+        return existing;
+    }
+
+    private TradeKeyBloomFilter bloomFilter() {
+        if (bloomFilter == null) {
+            long started = System.nanoTime();
+            long stored = tradeRepository.count();
+            TradeKeyBloomFilter filter = new TradeKeyBloomFilter(
+                    Math.max(importProperties.getBloomFilterExpectedKeys(), stored * 2), 0.01);
+            long afterId = 0;
+            List<Object[]> page;
+            do {
+                page = tradeRepository.findKeysAfter(afterId, Limit.of(KEY_PAGE_SIZE));
+                for (Object[] row : page) {
+                    afterId = (Long) row[0];
+                    filter.add((String) row[1], (Double) row[2], toLocalDateTime(row[3]));
+                }
+            } while (page.size() == KEY_PAGE_SIZE);
+            bloomFilter = filter;
+            logger.info("Duplicate filter built from {} stored trades in {} ms ({} KB)",
+                    stored, (System.nanoTime() - started) / 1_000_000, filter.sizeInBytes() / 1024);
+        }
+        return bloomFilter;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp ts) return ts.toLocalDateTime();
+        return (LocalDateTime) value;
+    }
+}
@@ -0,0 +1,27 @@
+package de.service.impl;
+
+import de.model.trade.TradeView;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Writes trades in the import column layout, so an export can be imported again (CSV and XLSX). Rows are
+ * written as they arrive, {@link #finish()} completes the document; {@link #close()} only releases resources
+ * and leaves the target stream open.
+ */
+public interface TradeFileWriter extends Closeable {
+
+    List<String> COLUMNS = List.of("Symbol", "EntryPrice", "ExitPrice", "Quantity", "Timestamp", "Tags", "Notes");
+
+    // understood by the CSV and the XLSX import; seconds are the import's precision
+    DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    String TAG_SEPARATOR = ";";
+
+    void write(TradeView trade) throws IOException;
+
+    void finish() throws IOException;
+}
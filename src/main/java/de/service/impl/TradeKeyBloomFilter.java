@@ -0,0 +1,73 @@
+package de.service.impl;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Bloom filter over trade business keys. Keys are hashed from their primitive parts
+ * (symbol hash, entry price bits, epoch second/nanos), so no key objects or Strings are created.
+ * <p>
+ * {@link #mightContain} never returns {@code false} for an added key. Not thread-safe.
+ */
+public final class TradeKeyBloomFilter {
+
+    private final long[] words;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedKeys          number of keys the filter is sized for
+     * @param falsePositiveRate     target false positive rate at {@code expectedKeys}
+     */
+    public TradeKeyBloomFilter(long expectedKeys, double falsePositiveRate) {
+        long n = Math.max(1, expectedKeys);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        bits = Math.max(64, bits);
+        this.words = new long[(int) Math.min(Integer.MAX_VALUE - 8, (bits + 63) >>> 6)];
+        this.bitCount = (long) words.length << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    public void add(String symbol, Double entryPrice, LocalDateTime timestamp) {
+        long h1 = hash(symbol, entryPrice, timestamp);
+        long h2 = fmix64(h1 ^ 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain(String symbol, Double entryPrice, LocalDateTime timestamp) {
+        long h1 = hash(symbol, entryPrice, timestamp);
+        long h2 = fmix64(h1 ^ 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    public long sizeInBytes() {
+        return (long) words.length * Long.BYTES;
+    }
+
+    private static long hash(String symbol, Double entryPrice, LocalDateTime timestamp) {
+        long h = fmix64((symbol != null ? symbol.hashCode() : 0) ^ 0x9E3779B97F4A7C15L);
+        h = fmix64(h ^ Double.doubleToLongBits(entryPrice != null ? entryPrice : Double.NaN));
+        if (timestamp != null) {
+            h = fmix64(h ^ timestamp.toEpochSecond(ZoneOffset.UTC));
+            h = fmix64(h ^ timestamp.getNano());
+        }
+        return h;
+    }
+
+    // MurmurHash3 finalizer
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
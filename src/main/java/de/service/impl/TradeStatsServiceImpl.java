@@ -0,0 +1,163 @@
+package de.service.impl;
+
+import de.config.CacheConfig;
+import de.model.stats.ProfitLossBucket;
+import de.model.stats.ProfitLossSummary;
+import de.model.stats.StatsDimension;
+import de.model.stats.StatsInterval;
+import de.model.stats.TradeStats;
+import de.model.stats.TradeStatsEntry;
+import de.model.trade.Trade;
+import de.repository.TradeRepository;
+import de.repository.TradeStatsRepository;
+import de.service.TradeStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Service
+public class TradeStatsServiceImpl implements TradeStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TradeStatsServiceImpl.class);
+
+    // fixed lock order for the upserts: TOTAL, then symbols, then tags, each by name
+    private static final Comparator<TradeStatsEntry> LOCK_ORDER =
+            Comparator.comparing(TradeStatsEntry::getDimension).thenComparing(TradeStatsEntry::getName);
+
+    private final TradeStatsRepository tradeStatsRepository;
+    private final TradeRepository tradeRepository;
+    private final TradeDataVersion tradeDataVersion;
+
+    public TradeStatsServiceImpl(TradeStatsRepository tradeStatsRepository, TradeRepository tradeRepository,
+                                 TradeDataVersion tradeDataVersion) {
+        this.tradeStatsRepository = tradeStatsRepository;
+        this.tradeRepository = tradeRepository;
+        this.tradeDataVersion = tradeDataVersion;
+    }
+
+    /**
+     * Fills the store on first start against an existing database, and after a migration that corrected
+     * the stored P/L cleared it (V2__recompute_profit_loss.sql).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!tradeStatsRepository.isInitialized()) {
+            logger.info("Trade statistics not initialized, rebuilding from stored trades");
+            rebuild();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.TRADE_STATS, keyGenerator = "tradeDataKeyGenerator")
+    public TradeStats getStats() {
+        TradeStatsEntry total = new TradeStatsEntry(StatsDimension.TOTAL, TradeStatsEntry.TOTAL_NAME);
+        Map<String, TradeStatsEntry> bySymbol = new TreeMap<>();
+        Map<String, TradeStatsEntry> byTag = new TreeMap<>();
+        for (TradeStatsEntry entry : tradeStatsRepository.findAll()) {
+            switch (entry.getDimension()) {
+                case TOTAL -> total = entry;
+                case SYMBOL -> bySymbol.put(entry.getName(), entry);
+                case TAG -> byTag.put(entry.getName(), entry);
+            }
+        }
+        return new TradeStats(total, bySymbol, byTag);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.TRADE_STATS, keyGenerator = "tradeDataKeyGenerator")
+    public TradeStats getStats(LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return getStats();
+        }
+        ProfitLossSummary summary = tradeRepository.summarize(from, to);
+        return new TradeStats(toEntry(StatsDimension.TOTAL, summary),
+                toEntries(StatsDimension.SYMBOL, tradeRepository.summarizeBySymbol(from, to)),
+                toEntries(StatsDimension.TAG, tradeRepository.summarizeByTag(from, to)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.TRADE_STATS, keyGenerator = "tradeDataKeyGenerator")
+    public List<ProfitLossBucket> getProfitLossSeries(StatsInterval interval, LocalDateTime from, LocalDateTime to) {
+        return tradeRepository.findProfitLossBuckets(interval.unit(), from, to);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void tradesAdded(Collection<Trade> trades) {
+        if (trades.isEmpty()) return;
+        tradeStatsRepository.applyIncrements(deltas(trades, 1));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void tradesRemoved(Collection<Trade> trades) {
+        if (trades.isEmpty()) return;
+        tradeStatsRepository.applyIncrements(deltas(trades, -1));
+        tradeStatsRepository.deleteEmptyGroups();
+    }
+
+    @Override
+    @Transactional
+    public TradeStats rebuild() {
+        long start = System.nanoTime();
+        tradeStatsRepository.rebuild();
+        // new generation: cached stats and ETags of the old aggregates become stale
+        tradeDataVersion.advanceAfterCommit();
+        TradeStats stats = getStats();
+        logger.info("Trade statistics rebuilt in {} ms: {} trades, {} symbols, {} tags",
+                (System.nanoTime() - start) / 1_000_000, stats.totalTrades(), stats.bySymbol().size(), stats.byTag().size());
+        return stats;
+    }
+
+    private static Map<String, TradeStatsEntry> toEntries(StatsDimension dimension, List<ProfitLossSummary> summaries) {
+        Map<String, TradeStatsEntry> entries = new TreeMap<>();
+        for (ProfitLossSummary summary : summaries) {
+            entries.put(summary.getName(), toEntry(dimension, summary));
+        }
+        return entries;
+    }
+
+    private static TradeStatsEntry toEntry(StatsDimension dimension, ProfitLossSummary summary) {
+        String name = summary.getName() != null ? summary.getName() : TradeStatsEntry.TOTAL_NAME;
+        return new TradeStatsEntry(dimension, name, summary.getTrades(), summary.getProfitLoss(), summary.getWins());
+    }
+
+    /**
+     * Folds the trades into one delta row per touched group, sorted in lock order.
+     */
+    static List<TradeStatsEntry> deltas(Collection<Trade> trades, int sign) {
+        Map<TradeStatsEntry.Key, TradeStatsEntry> deltas = new HashMap<>();
+        for (Trade trade : trades) {
+            double profitLoss = trade.getProfitLoss();
+            delta(deltas, StatsDimension.TOTAL, TradeStatsEntry.TOTAL_NAME).add(profitLoss, sign);
+            if (trade.getSymbol() != null) {
+                delta(deltas, StatsDimension.SYMBOL, trade.getSymbol()).add(profitLoss, sign);
+            }
+            for (String tag : trade.getTags()) {
+                if (tag != null) {
+                    delta(deltas, StatsDimension.TAG, tag).add(profitLoss, sign);
+                }
+            }
+        }
+        List<TradeStatsEntry> sorted = new ArrayList<>(deltas.values());
+        sorted.sort(LOCK_ORDER);
+        return sorted;
+    }
+
+    private static TradeStatsEntry delta(Map<TradeStatsEntry.Key, TradeStatsEntry> deltas,
+                                         StatsDimension dimension, String name) {
+        return deltas.computeIfAbsent(new TradeStatsEntry.Key(dimension, name),
+                k -> new TradeStatsEntry(dimension, name));
+    }
+}
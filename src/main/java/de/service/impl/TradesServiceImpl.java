@@ -1,34 +1,96 @@
 package de.service.impl;
 
+import de.config.CacheConfig;
+import de.config.ImportProperties;
+import de.model.importjob.ImportFormat;
+import de.model.trade.ImportResult;
 import de.model.trade.Trade;
+import de.model.trade.TradeCursor;
+import de.model.trade.TradeFilter;
+import de.model.trade.TradeKey;
+import de.model.trade.TradePage;
+import de.model.trade.TradeSearchCursor;
+import de.model.trade.TradeSearchHit;
+import de.model.trade.TradeSearchPage;
+import de.model.trade.TradeView;
+import de.repository.TradePartitionRepository;
+import de.repository.TradeQueryRepository;
 import de.repository.TradeRepository;
+import de.repository.TradeSearchRepository;
+import de.service.TradeStatsService;
+import de.service.TradesChangedEvent;
 import de.service.TradesService;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import de.service.impl.csv.CsvTokenizer;
+import de.service.impl.csv.CsvTradeWriter;
+import de.service.impl.format.TradeRowMapper;
+import de.service.impl.format.TradeSourceFormats;
+import de.service.impl.xlsx.XlsxSheetReader;
+import de.service.impl.xlsx.XlsxTradeWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
-import org.apache.poi.ss.usermodel.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 @Service
 public class TradesServiceImpl implements TradesService {
 
     private static final Logger logger = LoggerFactory.getLogger(TradesServiceImpl.class);
 
+    // row errors logged per import; the rest only shows up in the counters and the summary line
+    private static final int LOGGED_ROW_ERRORS = 10;
+
     private final TradeRepository tradeRepository;
+    private final TradeQueryRepository tradeQueryRepository;
+    private final TradeBatchWriter tradeBatchWriter;
+    private final TradeStatsService tradeStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TradeDeduplicator tradeDeduplicator;
+    private final ImportProperties importProperties;
+    private final ImportMetrics importMetrics;
+    private final CsvImportPipeline csvImportPipeline;
+    private final TradeSourceFormats tradeSourceFormats;
+    private final TradePartitionRepository tradePartitionRepository;
+    private final TradeSearchRepository tradeSearchRepository;
 
     @Autowired
-    public TradesServiceImpl(TradeRepository tradeRepository) {
+    public TradesServiceImpl(TradeRepository tradeRepository, TradeQueryRepository tradeQueryRepository,
+                             TradeBatchWriter tradeBatchWriter, TradeStatsService tradeStatsService,
+                             TradeDeduplicator tradeDeduplicator, ImportProperties importProperties,
+                             ApplicationEventPublisher eventPublisher, ImportMetrics importMetrics,
+                             CsvImportPipeline csvImportPipeline, TradeSourceFormats tradeSourceFormats,
+                             TradePartitionRepository tradePartitionRepository,
+                             TradeSearchRepository tradeSearchRepository) {
         this.tradeRepository = tradeRepository;
+        this.tradeQueryRepository = tradeQueryRepository;
+        this.tradeBatchWriter = tradeBatchWriter;
+        this.tradeStatsService = tradeStatsService;
+        this.eventPublisher = eventPublisher;
+        this.tradeDeduplicator = tradeDeduplicator;
+        this.importProperties = importProperties;
+        this.importMetrics = importMetrics;
+        this.csvImportPipeline = csvImportPipeline;
+        this.tradeSourceFormats = tradeSourceFormats;
+        this.tradePartitionRepository = tradePartitionRepository;
+        this.tradeSearchRepository = tradeSearchRepository;
     }
 
 
@@ -38,190 +100,236 @@ public class TradesServiceImpl implements TradesService {
     }
 
     @Override
-    public Trade saveTrade(Trade trade) {
-        return tradeRepository.save(trade);
+    @Cacheable(cacheNames = CacheConfig.TRADE_PAGES, keyGenerator = "tradeDataKeyGenerator")
+    public TradePage findTrades(TradeFilter filter, String cursor, int limit) {
+        TradeCursor after = cursor != null && !cursor.isBlank() ? TradeCursor.decode(cursor) : null;
+        // one extra row tells whether there is a next page
+        List<TradeView> rows = tradeQueryRepository.findPage(filter, after, limit + 1);
+        if (rows.size() <= limit) {
+            return new TradePage(rows, null);
+        }
+        List<TradeView> items = rows.subList(0, limit);
+        return new TradePage(items, TradeCursor.after(items.get(limit - 1)).encode());
     }
 
     @Override
-    public void importTradesFromExcel(MultipartFile file) throws Exception {
-        Set<String> uniqueKeys = new HashSet<>();
-        List<Trade> existingTrades = tradeRepository.findAll();
-
-        // add existing trades to duplicate map
-        for (Trade t : existingTrades) {
-            String key = t.getSymbol() + ":" + t.getEntryPrice();
-            uniqueKeys.add(key);
+    @Cacheable(cacheNames = CacheConfig.TRADE_PAGES, keyGenerator = "tradeDataKeyGenerator")
+    public TradeSearchPage searchTrades(String query, TradeFilter filter, String cursor, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        TradeSearchCursor after = cursor != null && !cursor.isBlank() ? TradeSearchCursor.decode(cursor) : null;
+        TradeSearchRepository.Result result = tradeSearchRepository.search(query, filter, after, limit + 1);
+        List<TradeSearchHit> rows = result.hits();
+        if (rows.size() <= limit) {
+            return new TradeSearchPage(rows, null, result.truncated());
         }
+        List<TradeSearchHit> items = rows.subList(0, limit);
+        return new TradeSearchPage(items, TradeSearchCursor.after(items.get(limit - 1)).encode(), result.truncated());
+    }
 
-        try (InputStream is = file.getInputStream(); Workbook workbook = new XSSFWorkbook(is)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            boolean firstRow = true;
+    @Override
+    public void streamTrades(TradeFilter filter, Consumer<TradeView> consumer) {
+        tradeQueryRepository.streamAll(filter, consumer);
+    }
 
-            for (Row row : sheet) {
-                if (firstRow) {
-                    firstRow = false;
-                    continue;
-                }
+    @Override
+    public void exportTrades(TradeFilter filter, ImportFormat format, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long[] rows = {0};
+        try (TradeFileWriter writer = switch (format) {
+            case CSV -> new CsvTradeWriter(out);
+            case XLSX -> new XlsxTradeWriter(out);
+        }) {
+            tradeQueryRepository.streamAll(filter, view -> {
                 try {
-                    if (row == null) continue;
+                    writer.write(view);
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        logger.info("{} export finished: {} trades in {} ms", format, rows[0], (System.nanoTime() - start) / 1_000_000);
+    }
 
-                    Cell symbolCell = row.getCell(0);
-                    Cell entryCell = row.getCell(1);
-                    Cell exitCell = row.getCell(2);
-                    Cell qtyCell = row.getCell(3);
-                    Cell dateCell = row.getCell(4);
-                    Cell timeCell = row.getCell(5);
+    @Override
+    @Transactional
+    public Trade saveTrade(Trade trade) {
+        // trades are partitioned by month of the timestamp
+        if (trade.getTimestamp() == null) {
+            trade.setTimestamp(LocalDateTime.now());
+        }
+        tradePartitionRepository.ensurePartitions(List.of(trade));
+        boolean update = false;
+        if (trade.getId() != null) {
+            // update: replace the old state in the statistics
+            Optional<Trade> old = tradeRepository.findById(trade.getId());
+            old.ifPresent(o -> tradeStatsService.tradesRemoved(List.of(o)));
+            update = old.isPresent();
+        }
+        // flushed, so the search vector sees the tags
+        Trade saved = tradeRepository.saveAndFlush(trade);
+        tradeSearchRepository.updateSearchVector(saved);
+        tradeStatsService.tradesAdded(List.of(saved));
+        eventPublisher.publishEvent(update ? TradesChangedEvent.updated(saved) : TradesChangedEvent.inserted(List.of(saved)));
+        return saved;
+    }
 
-                    if (symbolCell == null || entryCell == null || exitCell == null || qtyCell == null)
-                        continue;
+    @Override
+    public ImportResult importTradesFromExcel(MultipartFile file) throws Exception {
+        // the SAX reader needs random access to the zip entries, so the upload is spooled to disk first
+        Path spool = Files.createTempFile("tradesense-import-", ".xlsx");
+        try {
+            file.transferTo(spool);
+            ImportResult result = new ImportResult();
+            importExcel(spool.toFile(), result);
+            return result;
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
 
-                    String symbol = symbolCell.getStringCellValue();
-                    Double entry = entryCell.getNumericCellValue();
-                    Double exit = exitCell.getNumericCellValue();
-                    Double quantity = qtyCell.getNumericCellValue();
+    @Override
+    public ImportResult importTradesFromCsv(MultipartFile file) throws Exception {
+        ImportResult result = new ImportResult();
+        importCsv(file.getInputStream(), 0, result);
+        return result;
+    }
 
-                    // for test purposes: duplicate definition a bit looser (without date/time)
+    @Override
+    public void importTrades(Path file, ImportFormat format, long lineOffset, ImportResult progress) throws Exception {
+        switch (format) {
+            case CSV -> importCsv(Files.newInputStream(file), lineOffset, progress);
+            case XLSX -> importExcel(file.toFile(), progress);
+        }
+    }
 
-                    String key = symbol + ":" + entry;
+    private void importExcel(File xlsx, ImportResult result) throws Exception {
+        // in-file duplicates; duplicates of stored trades are removed per chunk by the TradeDeduplicator
+        Set<TradeKey> uniqueKeys = new HashSet<>();
+        TradeBatcher batcher = newBatcher(result);
+        // compiled from the first row (the header)
+        TradeRowMapper[] mapper = new TradeRowMapper[1];
 
-                    if (!uniqueKeys.contains(key)) {
-                        Trade trade = new Trade();
-                        trade.setSymbol(symbol != null ? symbol : "UNKNOWN");
-                        trade.setEntryPrice(entry);
-                        trade.setExitPrice(exit);
-                        trade.setQuantity(quantity);
+        try {
+            XlsxSheetReader.readFirstSheet(xlsx, 0, row -> {
+                if (mapper[0] == null) {
+                    mapper[0] = tradeSourceFormats.compile(header(row.getWidth(), row::getString));
+                    return;
+                }
+                try {
+                    result.rowParsed();
+                    Trade trade = mapper[0].map(row);
+                    TradeKey key = TradeKey.of(trade);
 
-                        tradeRepository.save(trade);
-                        uniqueKeys.add(key);
-                        logger.info("Trade saved: {}", key);
+                    if (uniqueKeys.add(key)) {
+                        batcher.add(trade);
                     } else {
-                        logger.info("Trade skipped (duplicat): {}", key);
+                        result.rowSkipped();
+                        logger.debug("Trade skipped (duplicat): {}", key);
                     }
 
                 } catch (Exception rowEx) {
-                    logger.error("Error while processing row {}: {}", row.getRowNum(), rowEx.getMessage(), rowEx);
+                    result.rowFailed();
+                    logRowError(result, "Excel", row.getRowNum(), rowEx);
                 }
-            }
+            });
+            batcher.flush();
+            result.finish();
+            importMetrics.importFinished(ImportFormat.XLSX, result, batcher, true);
+            logger.info("Excel import finished: {}", result);
         } catch (Exception e) {
+            importMetrics.importFinished(ImportFormat.XLSX, result, batcher, false);
             logger.error("Error while reading excel File: {}", e.getMessage(), e);
             throw e;
         }
     }
 
 
-    @Override
-    public void importTradesFromCsv(MultipartFile file) throws Exception {
-        Set<String> uniqueKeys = new HashSet<>();
-        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss");
-
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
-            String headerLine = br.readLine();
-            if (headerLine == null) {
-                logger.warn("CSV-File is empty");
-                return;
-            }
-
-            // Header-Mapping
-            String[] headers = headerLine.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)", -1);
-            Map<String, Integer> idx = new HashMap<>();
-            for (int i = 0; i < headers.length; i++) {
-                idx.put(headers[i].trim().replaceAll("\"", "").toLowerCase(), i);
-            }
-
-            String line;
-            int rowNum = 1;
-            while ((line = br.readLine()) != null) {
-                rowNum++;
-                try {
-                    String[] tokens = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)", -1);
-
-                    String symbol = getByIndex(tokens, idx.get("symbol"));
-                    Double entryPrice = parseDouble(getByIndex(tokens, idx.get("entryprice")));
-                    Double exitPrice = parseDouble(getByIndex(tokens, idx.get("exitprice")));
-                    Double quantity = parseDouble(getByIndex(tokens, idx.get("quantity")));
-                    String timestampStr = getByIndex(tokens, idx.get("timestamp"));
-                    LocalDateTime timestamp = null;
-
-                    if (timestampStr != null && !timestampStr.isEmpty()) {
-                        try {
-                            timestamp = LocalDateTime.parse(timestampStr, dtf);
-                        } catch (Exception ex) {
-                            try {
-                                timestamp = LocalDateTime.parse(timestampStr.replace(" ", "T"), dtf);
-                            } catch (Exception ex2) {
-                                timestamp = LocalDateTime.now();
-                            }
-                        }
+    private void importCsv(InputStream in, long lineOffset, ImportResult result) throws Exception {
+        // in-file duplicates; duplicates of stored trades are removed per chunk by the TradeDeduplicator
+        Set<TradeKey> uniqueKeys = new HashSet<>();
+        TradeBatcher batcher = newBatcher(result);
+
+        // rows are parsed in parallel; duplicate check, batching and error reporting run here, in file order
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            boolean hasHeader = csvImportPipeline.run(reader, header -> {
+                TradeRowMapper mapper = tradeSourceFormats.compile(header(header.getFieldCount(), header::getString));
+                return records -> parseCsvRows(records, mapper);
+            }, rows -> {
+                for (CsvRow row : rows) {
+                    result.rowParsed();
+                    if (row.error() != null) {
+                        result.rowFailed();
+                        logRowError(result, "CSV", lineOffset + row.line(), row.error());
+                    } else if (uniqueKeys.add(row.key())) {
+                        batcher.add(row.trade());
                     } else {
-                        timestamp = LocalDateTime.now();
+                        result.rowSkipped();
+                        logger.debug("CSV-Trade skipped (duplicat) row {}: {}", lineOffset + row.line(), row.key());
                     }
-
-                    // Profit/Loss berechnen, wenn nicht vorhanden
-                    Double profitLoss = parseDouble(getByIndex(tokens, idx.get("profitloss")));
-                    if (profitLoss == null && entryPrice != null && exitPrice != null && quantity != null) {
-                        profitLoss = (exitPrice - entryPrice) * quantity;
-                    }
-
-                    // Tags verarbeiten
-                    String tagsRaw = getByIndex(tokens, idx.get("tags"));
-                    Set<String> tags = new HashSet<>();
-                    if (tagsRaw != null && !tagsRaw.isEmpty()) {
-                        String[] ts = tagsRaw.split("[;|,]");
-                        for (String t : ts) {
-                            String s = t.trim().replaceAll("^\"|\"$", "");
-                            if (!s.isEmpty()) tags.add(s);
-                        }
-                    }
-
-                    String notes = getByIndex(tokens, idx.get("notes"));
-                    if (notes != null) {
-                        notes = notes.replaceAll("^\"|\"$", "");
-                    }
-
-                    // Einzigartigkeit prüfen
-                    String key = symbol + ":" + (entryPrice != null ? entryPrice.toString() : "null") + ":" + timestamp.toString();
-                    if (!uniqueKeys.contains(key)) {
-                        Trade trade = new Trade();
-                        trade.setSymbol(symbol);
-                        trade.setEntryPrice(entryPrice);
-                        trade.setExitPrice(exitPrice);
-                        trade.setQuantity(quantity);
-                        trade.setProfitLoss(entryPrice, exitPrice, quantity);
-                        trade.setTimestamp(timestamp);
-                        trade.setTags(tags);
-                        trade.setNotes(notes);
-
-                        tradeRepository.save(trade);
-                        uniqueKeys.add(key);
-                        logger.info("CSV-Trade saved (row {}): {}", rowNum, key);
-                    } else {
-                        logger.info("CSV-Trade skipped (duplicat) row {}: {}", rowNum, key);
-                    }
-                } catch (Exception ex) {
-                    logger.error("Error while processing CSV-row {}: {}", rowNum, ex.getMessage(), ex);
                 }
+            });
+            if (!hasHeader) {
+                logger.warn("CSV-File is empty");
             }
+            batcher.flush();
+            result.finish();
+            importMetrics.importFinished(ImportFormat.CSV, result, batcher, true);
+            logger.info("CSV import finished: {}", result);
         } catch (Exception e) {
+            importMetrics.importFinished(ImportFormat.CSV, result, batcher, false);
             logger.error("Error while reading CSV-file: {}", e.getMessage(), e);
             throw e;
         }
     }
 
+    // runs on the parser threads
+    private static List<CsvRow> parseCsvRows(CsvTokenizer csv, TradeRowMapper mapper) throws IOException {
+        List<CsvRow> rows = new ArrayList<>();
+        while (csv.next()) {
+            long rowNum = csv.getLineNumber();
+            if (csv.isBlankRecord()) continue;
+            try {
+                Trade trade = mapper.map(csv);
+                rows.add(new CsvRow(rowNum, trade, TradeKey.of(trade), null));
+            } catch (Exception ex) {
+                rows.add(new CsvRow(rowNum, null, null, ex));
+            }
+        }
+        return rows;
+    }
+
+    private static List<String> header(int width, IntFunction<String> cell) {
+        List<String> header = new ArrayList<>(width);
+        for (int i = 0; i < width; i++) {
+            header.add(cell.apply(i));
+        }
+        return header;
+    }
+
+    // one parsed row: the trade or the error, with the line it starts on
+    private record CsvRow(long line, Trade trade, TradeKey key, Exception error) {
+    }
+
     // Helfer-Methoden
-    private String getByIndex(String[] tokens, Integer i) {
-        if (i == null) return null;
-        if (i < 0 || i >= tokens.length) return null;
-        String v = tokens[i].trim();
-        if (v.isEmpty()) return null;
-        return v.replaceAll("^\"|\"$", "");
+    private TradeBatcher newBatcher(ImportResult result) {
+        return new TradeBatcher(tradeBatchWriter, tradeDeduplicator, importProperties.getBatchSize(), result);
     }
 
-    private Double parseDouble(String s) {
-        if (s == null) return null;
-        try {
-            return Double.parseDouble(s.replace(",", "."));
-        } catch (Exception e) {
-            return null;
+    // the first rows with errors are logged with their message (stack trace on debug), later ones are only counted
+    private static void logRowError(ImportResult result, String format, long rowNum, Exception ex) {
+        long failed = result.getRowsFailed();
+        if (failed < LOGGED_ROW_ERRORS) {
+            logger.warn("Error while processing {}-row {}: {}", format, rowNum, ex.getMessage());
+            logger.debug("Row error", ex);
+        } else if (failed == LOGGED_ROW_ERRORS) {
+            logger.warn("Error while processing {}-row {}: {} (further row errors of this import are not logged)",
+                    format, rowNum, ex.getMessage());
         }
     }
 }
@@ -0,0 +1,44 @@
+package de.service.impl.analytics;
+
+import de.model.stats.AnalyticsFilter;
+import de.model.stats.EquityPoint;
+import de.model.stats.GroupStats;
+import de.service.TradeAnalyticsService;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class TradeAnalyticsServiceImpl implements TradeAnalyticsService {
+
+    private final TradeColumnStore tradeColumnStore;
+
+    public TradeAnalyticsServiceImpl(TradeColumnStore tradeColumnStore) {
+        this.tradeColumnStore = tradeColumnStore;
+    }
+
+    @Override
+    public GroupStats summary(AnalyticsFilter filter) {
+        return tradeColumnStore.snapshot().summary(filter);
+    }
+
+    @Override
+    public List<GroupStats> bySymbol() {
+        return tradeColumnStore.snapshot().bySymbol();
+    }
+
+    @Override
+    public List<GroupStats> byTag() {
+        return tradeColumnStore.snapshot().byTag();
+    }
+
+    @Override
+    public List<GroupStats> byHourOfDay() {
+        return tradeColumnStore.snapshot().byHourOfDay();
+    }
+
+    @Override
+    public List<EquityPoint> equityByDay() {
+        return tradeColumnStore.snapshot().equityByDay();
+    }
+}
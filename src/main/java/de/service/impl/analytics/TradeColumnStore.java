@@ -0,0 +1,256 @@
+package de.service.impl.analytics;
+
+import de.model.trade.Trade;
+import de.model.trade.TradeView;
+import de.repository.TradeQueryRepository;
+import de.service.TradesChangedEvent;
+import de.service.impl.TradeDataVersion;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the current {@link TradeColumns} snapshot. The table is loaded once on first use; afterwards the
+ * trades of every committed import chunk are appended from {@link TradesChangedEvent}s, so the snapshot
+ * follows the database without re-reading it. Updates of existing trades invalidate the snapshot, which is
+ * then reloaded on the next query.
+ * <p>
+ * Appends write only behind the published size and replace arrays when they grow, so readers can keep
+ * using a snapshot without locking while the next one is built. Tag bitmaps are copied before the first
+ * change after a publish, the published ones are never modified.
+ */
+@Component
+public class TradeColumnStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(TradeColumnStore.class);
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final TradeQueryRepository tradeQueryRepository;
+
+    private volatile TradeColumns snapshot;
+
+    // writer state, guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private int size;
+    private long[] ids;
+    private double[] entryPrices;
+    private double[] exitPrices;
+    private double[] quantities;
+    private double[] profitLoss;
+    private long[] timestamps;
+    private int[] symbolIds;
+    private String[] symbols;
+    private final Map<String, Integer> symbolIndex = new HashMap<>();
+    private String[] tags;
+    private RoaringBitmap[] tagRows;
+    // tags whose bitmap was created or copied since the last publish, so it is not shared with a snapshot
+    private final BitSet writableTags = new BitSet();
+    private final Map<String, Integer> tagIndex = new HashMap<>();
+    // rows [0, loadedRows) come from the load and are sorted by id
+    private int loadedRows;
+
+    public TradeColumnStore(TradeQueryRepository tradeQueryRepository) {
+        this.tradeQueryRepository = tradeQueryRepository;
+    }
+
+    /**
+     * @return the current snapshot, loading the table first if necessary
+     */
+    public TradeColumns snapshot() {
+        TradeColumns current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        lock.lock();
+        try {
+            if (snapshot == null) {
+                load();
+            }
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the snapshot; the next query reloads the table.
+     */
+    public void invalidate() {
+        lock.lock();
+        try {
+            snapshot = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // before the generation moves on, see TradeDataVersion
+    @Order(TradeDataVersion.LISTENER_ORDER - 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradesChanged(TradesChangedEvent event) {
+        if (event.updated()) {
+            invalidate();
+        } else {
+            append(event.inserted());
+        }
+    }
+
+    void append(Collection<Trade> trades) {
+        lock.lock();
+        try {
+            if (snapshot == null) {
+                // not loaded yet, the load will read these trades from the database
+                return;
+            }
+            for (Trade t : trades) {
+                // an import that committed while the table was being loaded may already be part of it
+                if (t.getId() == null || Arrays.binarySearch(ids, 0, loadedRows, t.getId()) >= 0) continue;
+                addRow(t.getId(), t.getSymbol(), t.getEntryPrice(), t.getExitPrice(), t.getQuantity(),
+                        t.getProfitLoss(), t.getTimestamp(), t.getTags());
+            }
+            publish();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void load() {
+        long start = System.nanoTime();
+        reset();
+        tradeQueryRepository.streamAllById(this::addRow);
+        loadedRows = size;
+        publish();
+        logger.info("Loaded {} trades into the column store in {} ms ({} KB)",
+                size, (System.nanoTime() - start) / 1_000_000, snapshot.sizeInBytes() / 1024);
+    }
+
+    private void addRow(TradeView v) {
+        addRow(v.id(), v.symbol(), v.entryPrice(), v.exitPrice(), v.quantity(), v.profitLoss(), v.timestamp(), v.tags());
+    }
+
+    private void addRow(long id, String symbol, Double entry, Double exit, Double qty, double pl,
+                        LocalDateTime timestamp, Collection<String> rowTags) {
+        if (size == ids.length) {
+            grow();
+        }
+        int row = size;
+        ids[row] = id;
+        entryPrices[row] = entry != null ? entry : Double.NaN;
+        exitPrices[row] = exit != null ? exit : Double.NaN;
+        quantities[row] = qty != null ? qty : Double.NaN;
+        profitLoss[row] = pl;
+        timestamps[row] = timestamp != null ? timestamp.toEpochSecond(ZoneOffset.UTC) : TradeColumns.NO_TIMESTAMP;
+        symbolIds[row] = symbolId(symbol);
+        for (String tag : rowTags) {
+            if (tag != null) {
+                writableTagRows(tagId(tag)).add(row);
+            }
+        }
+        size++;
+    }
+
+    private int symbolId(String symbol) {
+        String key = symbol != null ? symbol : "";
+        Integer id = symbolIndex.get(key);
+        if (id == null) {
+            id = symbolIndex.size();
+            if (id == symbols.length) {
+                symbols = Arrays.copyOf(symbols, id * 2);
+            }
+            symbols[id] = key;
+            symbolIndex.put(key, id);
+        }
+        return id;
+    }
+
+    private int tagId(String tag) {
+        Integer id = tagIndex.get(tag);
+        if (id == null) {
+            id = tagIndex.size();
+            if (id == tags.length) {
+                tags = Arrays.copyOf(tags, id * 2);
+                tagRows = Arrays.copyOf(tagRows, id * 2);
+            }
+            tags[id] = tag;
+            tagRows[id] = new RoaringBitmap();
+            writableTags.set(id);
+            tagIndex.put(tag, id);
+        }
+        return id;
+    }
+
+    private RoaringBitmap writableTagRows(int tagId) {
+        if (!writableTags.get(tagId)) {
+            tagRows[tagId] = tagRows[tagId].clone();
+            writableTags.set(tagId);
+        }
+        return tagRows[tagId];
+    }
+
+    // new arrays on growth: published snapshots keep the old ones
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        entryPrices = Arrays.copyOf(entryPrices, capacity);
+        exitPrices = Arrays.copyOf(exitPrices, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        profitLoss = Arrays.copyOf(profitLoss, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        symbolIds = Arrays.copyOf(symbolIds, capacity);
+    }
+
+    private void publish() {
+        // consecutive rows (imports, a load sorted by id) compress into run containers
+        writableTags.stream().forEach(t -> tagRows[t].runOptimize());
+        writableTags.clear();
+        snapshot = new TradeColumns(size, ids, entryPrices, exitPrices, quantities, profitLoss, timestamps,
+                symbolIds, symbols, symbolIndex.size(), tags, Arrays.copyOf(tagRows, tagIndex.size()), tagIndex.size());
+    }
+
+    private void reset() {
+        size = 0;
+        loadedRows = 0;
+        ids = new long[INITIAL_CAPACITY];
+        entryPrices = new double[INITIAL_CAPACITY];
+        exitPrices = new double[INITIAL_CAPACITY];
+        quantities = new double[INITIAL_CAPACITY];
+        profitLoss = new double[INITIAL_CAPACITY];
+        timestamps = new long[INITIAL_CAPACITY];
+        symbolIds = new int[INITIAL_CAPACITY];
+        symbols = new String[16];
+        symbolIndex.clear();
+        tags = new String[16];
+        tagRows = new RoaringBitmap[16];
+        writableTags.clear();
+        tagIndex.clear();
+    }
+
+    /**
+     * Loads the store from the given rows instead of the database (tests, benchmarks).
+     */
+    public void loadFrom(List<TradeView> views) {
+        lock.lock();
+        try {
+            reset();
+            views.forEach(this::addRow);
+            loadedRows = size;
+            publish();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package de.service.impl.analytics;
+
+import de.model.stats.AnalyticsFilter;
+import de.model.stats.EquityPoint;
+import de.model.stats.GroupStats;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntConsumer;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable columnar snapshot of the trades table: one primitive array per column, symbols dictionary-encoded
+ * as {@code int} ids and tags as one compressed row bitmap ({@link RoaringBitmap}) per tag. Tag conditions are
+ * answered by combining bitmaps; only the rows that are left are read. Timestamps are epoch seconds of the local date-time
+ * (taken as UTC), {@link #NO_TIMESTAMP} for trades without one.
+ * <p>
+ * The arrays are shared with {@link TradeColumnStore}, which appends rows behind {@link #size()} while a
+ * snapshot is in use; every query therefore only looks at rows, symbols and tags below this snapshot's counts.
+ * The tag bitmaps are not shared, they only contain rows of this snapshot.
+ */
+public final class TradeColumns {
+
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    // rows per fork-join task; smaller snapshots are scanned in the calling thread
+    private static final int CHUNK_ROWS = 1 << 16;
+
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private final int size;
+    private final long[] ids;
+    private final double[] entryPrices;
+    private final double[] exitPrices;
+    private final double[] quantities;
+    private final double[] profitLoss;
+    private final long[] timestamps;
+    private final int[] symbolIds;
+    private final String[] symbols;
+    private final int symbolCount;
+    private final String[] tags;
+    private final RoaringBitmap[] tagRows;
+    private final int tagCount;
+
+    TradeColumns(int size, long[] ids, double[] entryPrices, double[] exitPrices, double[] quantities,
+                 double[] profitLoss, long[] timestamps, int[] symbolIds, String[] symbols, int symbolCount,
+                 String[] tags, RoaringBitmap[] tagRows, int tagCount) {
+        this.size = size;
+        this.ids = ids;
+        this.entryPrices = entryPrices;
+        this.exitPrices = exitPrices;
+        this.quantities = quantities;
+        this.profitLoss = profitLoss;
+        this.timestamps = timestamps;
+        this.symbolIds = symbolIds;
+        this.symbols = symbols;
+        this.symbolCount = symbolCount;
+        this.tags = tags;
+        this.tagRows = tagRows;
+        this.tagCount = tagCount;
+    }
+
+    static TradeColumns empty() {
+        return new TradeColumns(0, new long[0], new double[0], new double[0], new double[0], new double[0],
+                new long[0], new int[0], new String[0], 0, new String[0], new RoaringBitmap[0], 0);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long id(int row) {
+        return ids[row];
+    }
+
+    /** @return the entry price or {@code NaN} if missing */
+    public double entryPrice(int row) {
+        return entryPrices[row];
+    }
+
+    /** @return the exit price or {@code NaN} if missing */
+    public double exitPrice(int row) {
+        return exitPrices[row];
+    }
+
+    /** @return the quantity or {@code NaN} if missing */
+    public double quantity(int row) {
+        return quantities[row];
+    }
+
+    public String symbol(int row) {
+        return symbols[symbolIds[row]];
+    }
+
+    /**
+     * Approximate heap used by the column arrays and tag bitmaps (allocated capacity, without dictionary strings).
+     */
+    public long sizeInBytes() {
+        long bytes = (long) ids.length * (8 + 8 + 8 + 8 + 8 + 8 + 4);
+        for (int t = 0; t < tagCount; t++) {
+            bytes += tagRows[t].getLongSizeInBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Count, P/L and wins of all trades, optionally restricted to one symbol and/or tag
+     * ({@code null} = no restriction). Unknown symbols or tags match nothing.
+     */
+    public GroupStats summary(String symbol, String tag) {
+        return summary(new AnalyticsFilter(symbol, tag != null ? List.of(tag) : null, null, null, null));
+    }
+
+    /**
+     * Count, P/L and wins of the trades selected by {@code filter}, e.g. tagged A and not B in one quarter:
+     * the rows with all tags are intersected, the rows with an excluded tag removed, and only the remaining
+     * rows are checked for symbol and time range. Unknown symbols or required tags match nothing, unknown
+     * excluded tags exclude nothing.
+     */
+    public GroupStats summary(AnalyticsFilter filter) {
+        String name = filter.name();
+        int symbolId = filter.symbol() != null ? indexOf(symbols, symbolCount, filter.symbol()) : -1;
+        if (filter.symbol() != null && symbolId < 0) {
+            return GroupStats.of(name, 0, 0.0, 0);
+        }
+        long from = filter.from() != null ? filter.from().toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE;
+        long to = filter.to() != null ? filter.to().toEpochSecond(ZoneOffset.UTC) : Long.MAX_VALUE;
+        boolean ranged = filter.from() != null || filter.to() != null;
+        RowGrouper matches = row -> (symbolId < 0 || symbolIds[row] == symbolId)
+                && (!ranged || (timestamps[row] != NO_TIMESTAMP && timestamps[row] >= from && timestamps[row] < to))
+                ? 0 : -1;
+        if (filter.tags().isEmpty() && filter.excludedTags().isEmpty()) {
+            return groupBy(1, matches).toStats(0, name);
+        }
+
+        RoaringBitmap rows;
+        if (filter.tags().isEmpty()) {
+            rows = RoaringBitmap.bitmapOfRange(0, size);
+        } else {
+            RoaringBitmap[] required = new RoaringBitmap[filter.tags().size()];
+            for (int i = 0; i < required.length; i++) {
+                int tagId = indexOf(tags, tagCount, filter.tags().get(i));
+                if (tagId < 0) {
+                    return GroupStats.of(name, 0, 0.0, 0);
+                }
+                required[i] = tagRows[tagId];
+            }
+            rows = FastAggregation.and(required);
+        }
+        // static andNot: rows may be a bitmap of the snapshot itself (a single required tag)
+        List<RoaringBitmap> excluded = new ArrayList<>();
+        for (String tag : filter.excludedTags()) {
+            int tagId = indexOf(tags, tagCount, tag);
+            if (tagId >= 0) {
+                excluded.add(tagRows[tagId]);
+            }
+        }
+        if (!excluded.isEmpty()) {
+            rows = RoaringBitmap.andNot(rows, FastAggregation.or(excluded.iterator()));
+        }
+        Aggregate agg = new Aggregate(1);
+        rows.forEach((IntConsumer) row -> {
+            if (matches.group(row) == 0) {
+                agg.add(0, profitLoss[row]);
+            }
+        });
+        return agg.toStats(0, name);
+    }
+
+    public List<GroupStats> bySymbol() {
+        Aggregate agg = groupBy(symbolCount, row -> symbolIds[row]);
+        List<GroupStats> result = new ArrayList<>(symbolCount);
+        for (int s = 0; s < symbolCount; s++) {
+            result.add(agg.toStats(s, symbols[s]));
+        }
+        return result;
+    }
+
+    /**
+     * Per tag; a trade with several tags counts for each of them. Tags are scanned in parallel.
+     */
+    public List<GroupStats> byTag() {
+        return IntStream.range(0, tagCount).parallel()
+                .mapToObj(t -> {
+                    Aggregate agg = new Aggregate(1);
+                    tagRows[t].forEach((IntConsumer) row -> agg.add(0, profitLoss[row]));
+                    return agg.toStats(0, tags[t]);
+                })
+                .toList();
+    }
+
+    /**
+     * P/L by hour of day (0-23) of the trade timestamp.
+     */
+    public List<GroupStats> byHourOfDay() {
+        Aggregate agg = groupBy(24, row -> timestamps[row] == NO_TIMESTAMP
+                ? -1 : Math.floorMod(timestamps[row], SECONDS_PER_DAY) / 3600);
+        List<GroupStats> result = new ArrayList<>(24);
+        for (int h = 0; h < 24; h++) {
+            result.add(agg.toStats(h, String.format("%02d", h)));
+        }
+        return result;
+    }
+
+    /**
+     * Daily equity curve with drawdown; days without trades are left out.
+     */
+    public List<EquityPoint> equityByDay() {
+        long minDay = Long.MAX_VALUE;
+        long maxDay = Long.MIN_VALUE;
+        for (int row = 0; row < size; row++) {
+            if (timestamps[row] != NO_TIMESTAMP) {
+                long day = Math.floorDiv(timestamps[row], SECONDS_PER_DAY);
+                minDay = Math.min(minDay, day);
+                maxDay = Math.max(maxDay, day);
+            }
+        }
+        if (minDay > maxDay) {
+            return List.of();
+        }
+        long first = minDay;
+        long span = maxDay - minDay + 1;
+        if (span > Integer.MAX_VALUE / 2) {
+            throw new IllegalStateException("Timestamp range too large for a daily equity curve: " + span + " days");
+        }
+        Aggregate agg = groupBy((int) span, row -> timestamps[row] == NO_TIMESTAMP
+                ? -1 : (int) (Math.floorDiv(timestamps[row], SECONDS_PER_DAY) - first));
+        List<EquityPoint> points = new ArrayList<>();
+        double equity = 0.0;
+        double peak = 0.0;
+        for (int d = 0; d < span; d++) {
+            if (agg.counts[d] == 0) continue;
+            equity += agg.sums[d];
+            peak = Math.max(peak, equity);
+            points.add(new EquityPoint(LocalDate.ofEpochDay(first + d), agg.counts[d], agg.sums[d], equity, equity - peak));
+        }
+        return points;
+    }
+
+    @FunctionalInterface
+    interface RowGrouper {
+        /** @return group of the row or -1 to skip it */
+        int group(int row);
+    }
+
+    /**
+     * Single-pass aggregation into {@code groups} buckets; large snapshots are split into chunks that are
+     * aggregated on the common fork-join pool and merged.
+     */
+    Aggregate groupBy(int groups, RowGrouper grouper) {
+        int chunks = (size + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        if (chunks <= 1) {
+            return scan(groups, grouper, 0, size);
+        }
+        return IntStream.range(0, chunks).parallel()
+                .mapToObj(c -> scan(groups, grouper, c * CHUNK_ROWS, Math.min(size, (c + 1) * CHUNK_ROWS)))
+                .reduce(Aggregate::merge)
+                .orElseThrow();
+    }
+
+    private Aggregate scan(int groups, RowGrouper grouper, int from, int to) {
+        Aggregate agg = new Aggregate(groups);
+        for (int row = from; row < to; row++) {
+            int g = grouper.group(row);
+            if (g >= 0) {
+                agg.add(g, profitLoss[row]);
+            }
+        }
+        return agg;
+    }
+
+    private static int indexOf(String[] dictionary, int count, String value) {
+        for (int i = 0; i < count; i++) {
+            if (dictionary[i].equals(value)) return i;
+        }
+        return -1;
+    }
+
+    static final class Aggregate {
+        final long[] counts;
+        final double[] sums;
+        final long[] wins;
+
+        Aggregate(int groups) {
+            counts = new long[groups];
+            sums = new double[groups];
+            wins = new long[groups];
+        }
+
+        void add(int group, double profitLoss) {
+            counts[group]++;
+            sums[group] += profitLoss;
+            if (profitLoss > 0) wins[group]++;
+        }
+
+        Aggregate merge(Aggregate other) {
+            for (int g = 0; g < counts.length; g++) {
+                counts[g] += other.counts[g];
+                sums[g] += other.sums[g];
+                wins[g] += other.wins[g];
+            }
+            return this;
+        }
+
+        GroupStats toStats(int group, String name) {
+            return GroupStats.of(name, counts[group], sums[group], wins[group]);
+        }
+    }
+}
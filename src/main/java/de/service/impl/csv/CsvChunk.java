@@ -0,0 +1,9 @@
+package de.service.impl.csv;
+
+/**
+ * A run of complete CSV records, cut from the input by {@link CsvChunkReader}.
+ *
+ * @param firstLine physical line (1-based) on which the first record of the chunk starts
+ */
+public record CsvChunk(char[] chars, int length, long firstLine) {
+}
@@ -0,0 +1,117 @@
+package de.service.impl.csv;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Splits CSV input into chunks of roughly {@code chunkSize} chars that end on a record boundary, so every
+ * chunk can be tokenized on its own (and in parallel) with {@link CsvTokenizer#CsvTokenizer(CsvChunk, char)}.
+ * <p>
+ * Boundaries are found with the quoting rules of the tokenizer: line breaks inside quoted fields do not end a
+ * record. Each chunk carries the physical line its first record starts on, so row numbers stay those of the file.
+ * <p>
+ * Not thread-safe; one instance per input.
+ */
+public final class CsvChunkReader {
+
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+
+    private final Reader reader;
+    private final char delimiter;
+    private final int chunkSize;
+
+    // start of the next chunk that was already read
+    private char[] carry = new char[0];
+    private int carryLength;
+    private long nextLine = 1;
+    private boolean eof;
+
+    public CsvChunkReader(Reader reader, char delimiter, int chunkSize) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * @return the next chunk or {@code null} at end of input
+     */
+    public CsvChunk next() throws IOException {
+        char[] buf = new char[Math.max(chunkSize, carryLength + 1)];
+        System.arraycopy(carry, 0, buf, 0, carryLength);
+        int length = carryLength;
+
+        while (true) {
+            while (length < buf.length && !eof) {
+                int n = reader.read(buf, length, buf.length - length);
+                if (n < 0) eof = true;
+                else length += n;
+            }
+            if (length == 0) return null;
+
+            long[] lines = new long[1];
+            int cut = lastRecordEnd(buf, length, lines);
+            if (eof) {
+                // last chunk: everything that is left, including a final record without line break
+                cut = length;
+            }
+            if (cut > 0) {
+                carryLength = length - cut;
+                carry = Arrays.copyOfRange(buf, cut, length);
+                CsvChunk chunk = new CsvChunk(buf, cut, nextLine);
+                nextLine += lines[0];
+                return chunk;
+            }
+            // a single record longer than the buffer
+            buf = Arrays.copyOf(buf, buf.length * 2);
+        }
+    }
+
+    /**
+     * @param lines receives the number of physical lines before the returned position
+     * @return position after the last complete record in {@code buf[0, length)}, 0 if there is none
+     */
+    private int lastRecordEnd(char[] buf, int length, long[] lines) {
+        int state = FIELD_START;
+        int cut = 0;
+        long lineCount = 0;
+        long linesAtCut = 0;
+        for (int i = 0; i < length; i++) {
+            char c = buf[i];
+            if (state == QUOTED) {
+                if (c == '"') state = QUOTE_IN_QUOTED;
+                else if (c == '\n') lineCount++;
+                continue;
+            }
+            if (state == QUOTE_IN_QUOTED) {
+                if (c == '"') {
+                    state = QUOTED;
+                    continue;
+                }
+                // closing quote, the rest of the field is read like an unquoted one
+                state = UNQUOTED;
+            }
+            if (c == delimiter) {
+                state = FIELD_START;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    if (i + 1 == length) break; // can't tell CR from CRLF yet
+                    if (buf[i + 1] == '\n') i++;
+                }
+                lineCount++;
+                state = FIELD_START;
+                cut = i + 1;
+                linesAtCut = lineCount;
+            } else if (state == FIELD_START && c == '"') {
+                state = QUOTED;
+            } else if (state == FIELD_START && c != ' ' && c != '\t') {
+                state = UNQUOTED;
+            }
+        }
+        lines[0] = linesAtCut;
+        return cut;
+    }
+}
@@ -0,0 +1,361 @@
+package de.service.impl.csv;
+
+import de.service.impl.format.SourceRow;
+
+import java.io.CharArrayReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Streaming RFC-4180 CSV tokenizer for the import hot path.
+ * <p>
+ * Reads one record at a time into a reused char buffer; quoted fields may contain delimiters,
+ * escaped quotes ({@code ""}) and line breaks. Fields are exposed as ranges of that buffer, so numbers
+ * and timestamps are parsed directly from the chars and Strings are only created on request.
+ * Unquoted fields are trimmed, quoted fields are returned without their surrounding quotes.
+ * <p>
+ * Not thread-safe; one instance per input.
+ */
+public final class CsvTokenizer implements SourceRow, Closeable {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Reader reader;
+    private final char delimiter;
+
+    private final char[] readBuffer = new char[READ_BUFFER_SIZE];
+    private int readPos;
+    private int readLimit;
+
+    // unescaped content of the current record
+    private char[] data = new char[256];
+    private int dataLength;
+    private int[] fieldStart = new int[16];
+    private int[] fieldEnd = new int[16];
+    private int fieldCount;
+
+    private long linesRead;
+    private long recordLine;
+
+    public CsvTokenizer(Reader reader) {
+        this(reader, ',');
+    }
+
+    public CsvTokenizer(Reader reader, char delimiter) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Tokenizes a single chunk; line numbers continue those of the file the chunk was cut from.
+     */
+    public CsvTokenizer(CsvChunk chunk, char delimiter) {
+        this(new CharArrayReader(chunk.chars(), 0, chunk.length()), delimiter);
+        this.linesRead = chunk.firstLine() - 1;
+    }
+
+    /**
+     * Advances to the next record.
+     *
+     * @return {@code false} at end of input
+     */
+    public boolean next() throws IOException {
+        fieldCount = 0;
+        dataLength = 0;
+        int c = read();
+        if (c < 0) return false;
+        recordLine = linesRead + 1;
+
+        while (true) {
+            int start = dataLength;
+            int end;
+            while (c == ' ' || c == '\t') c = read();
+
+            if (c == '"') {
+                while (true) {
+                    c = read();
+                    if (c < 0) break;
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') break;
+                    } else if (c == '\n') {
+                        linesRead++;
+                    }
+                    append((char) c);
+                }
+                end = dataLength;
+                // lenient: keep non-blank garbage between the closing quote and the delimiter
+                while (c >= 0 && c != delimiter && c != '\n' && c != '\r') {
+                    if (c != ' ' && c != '\t') {
+                        append((char) c);
+                        end = dataLength;
+                    }
+                    c = read();
+                }
+            } else {
+                while (c >= 0 && c != delimiter && c != '\n' && c != '\r') {
+                    append((char) c);
+                    c = read();
+                }
+                end = dataLength;
+                while (end > start && (data[end - 1] == ' ' || data[end - 1] == '\t')) end--;
+            }
+            addField(start, end);
+
+            if (c == delimiter) {
+                c = read();
+                continue;
+            }
+            if (c == '\r' && peek() == '\n') {
+                read();
+            }
+            linesRead++;
+            return true;
+        }
+    }
+
+    /**
+     * Physical line (1-based) on which the current record starts.
+     */
+    public long getLineNumber() {
+        return recordLine;
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * @return {@code true} for empty fields and for indexes outside the current record
+     */
+    public boolean isEmpty(int field) {
+        return field < 0 || field >= fieldCount || fieldStart[field] == fieldEnd[field];
+    }
+
+    /**
+     * @return {@code true} if the record is a single empty field, i.e. a blank line
+     */
+    public boolean isBlankRecord() {
+        return fieldCount == 1 && isEmpty(0);
+    }
+
+    /**
+     * @return field value or {@code null} if the field is empty or missing
+     */
+    @Override
+    public String getString(int field) {
+        if (isEmpty(field)) return null;
+        return new String(data, fieldStart[field], fieldEnd[field] - fieldStart[field]);
+    }
+
+    /**
+     * Parses a decimal number; both {@code .} and {@code ,} are accepted as decimal separator.
+     *
+     * @return the value or {@link Double#NaN} if the field is empty, missing or not a number
+     */
+    public double getDouble(int field) {
+        if (isEmpty(field)) return Double.NaN;
+        return parseDouble(data, fieldStart[field], fieldEnd[field]);
+    }
+
+    @Override
+    public double getNumber(int field) {
+        return getDouble(field);
+    }
+
+    /**
+     * Parses {@code dd.MM.yyyy[ HH:mm[:ss]]} or ISO {@code yyyy-MM-dd[[T ]HH:mm[:ss]]}; plain dates are midnight.
+     *
+     * @return the timestamp or {@code null} if the field is empty, missing or invalid
+     */
+    public LocalDateTime getTimestamp(int field) {
+        if (isEmpty(field)) return null;
+        return parseTimestamp(data, fieldStart[field], fieldEnd[field]);
+    }
+
+    @Override
+    public LocalDateTime getDateTime(int field) {
+        return getTimestamp(field);
+    }
+
+    /**
+     * Parses {@code HH:mm[:ss]}.
+     */
+    @Override
+    public LocalTime getTime(int field) {
+        String value = getString(field);
+        if (value == null) return null;
+        try {
+            return LocalTime.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Splits a field at {@code ;}, {@code |} and {@code ,} and adds the trimmed, non-empty parts to {@code target}.
+     */
+    @Override
+    public void splitInto(int field, Collection<String> target) {
+        if (isEmpty(field)) return;
+        int end = fieldEnd[field];
+        int partStart = fieldStart[field];
+        for (int i = partStart; i <= end; i++) {
+            if (i == end || data[i] == ';' || data[i] == '|' || data[i] == ',') {
+                int s = partStart;
+                int e = i;
+                while (s < e && (Character.isWhitespace(data[s]) || data[s] == '"')) s++;
+                while (e > s && (Character.isWhitespace(data[e - 1]) || data[e - 1] == '"')) e--;
+                if (e > s) target.add(new String(data, s, e - s));
+                partStart = i + 1;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    static double parseDouble(char[] buf, int from, int to) {
+        int p = from;
+        boolean negative = false;
+        if (buf[p] == '+' || buf[p] == '-') {
+            negative = buf[p] == '-';
+            p++;
+        }
+        long mantissa = 0;
+        int significantDigits = 0;
+        int scale = 0;
+        boolean seenSeparator = false;
+        boolean seenDigit = false;
+        for (; p < to; p++) {
+            char ch = buf[p];
+            if (ch >= '0' && ch <= '9') {
+                seenDigit = true;
+                if (mantissa != 0 || ch != '0') significantDigits++;
+                if (significantDigits > 18) return parseDoubleSlow(buf, from, to);
+                mantissa = mantissa * 10 + (ch - '0');
+                if (seenSeparator) scale++;
+            } else if ((ch == '.' || ch == ',') && !seenSeparator) {
+                seenSeparator = true;
+            } else if (ch == 'e' || ch == 'E') {
+                return parseDoubleSlow(buf, from, to);
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (!seenDigit) return Double.NaN;
+        // both operands are exact doubles, so a single division is correctly rounded
+        if (mantissa >= (1L << 53) || scale >= POW10.length) return parseDoubleSlow(buf, from, to);
+        double value = mantissa / POW10[scale];
+        return negative ? -value : value;
+    }
+
+    private static double parseDoubleSlow(char[] buf, int from, int to) {
+        try {
+            return Double.parseDouble(new String(buf, from, to - from).replace(',', '.'));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    static LocalDateTime parseTimestamp(char[] buf, int from, int to) {
+        int len = to - from;
+        if (len == 10) return parseDate(buf, from);
+        if (len != 16 && len != 19) return null;
+        boolean withSeconds = len == 19;
+        if (withSeconds && buf[from + 16] != ':') return null;
+        if (buf[from + 13] != ':') return null;
+        try {
+            int hour = digits(buf, from + 11, 2);
+            int minute = digits(buf, from + 14, 2);
+            int second = withSeconds ? digits(buf, from + 17, 2) : 0;
+            if (buf[from + 2] == '.' && buf[from + 5] == '.' && buf[from + 10] == ' ') {
+                return LocalDateTime.of(digits(buf, from + 6, 4), digits(buf, from + 3, 2), digits(buf, from, 2),
+                        hour, minute, second);
+            }
+            if (buf[from + 4] == '-' && buf[from + 7] == '-' && (buf[from + 10] == 'T' || buf[from + 10] == ' ')) {
+                return LocalDateTime.of(digits(buf, from, 4), digits(buf, from + 5, 2), digits(buf, from + 8, 2),
+                        hour, minute, second);
+            }
+        } catch (DateTimeException e) {
+            return null;
+        }
+        return null;
+    }
+
+    private static LocalDateTime parseDate(char[] buf, int from) {
+        try {
+            if (buf[from + 2] == '.' && buf[from + 5] == '.') {
+                return LocalDateTime.of(digits(buf, from + 6, 4), digits(buf, from + 3, 2), digits(buf, from, 2), 0, 0);
+            }
+            if (buf[from + 4] == '-' && buf[from + 7] == '-') {
+                return LocalDateTime.of(digits(buf, from, 4), digits(buf, from + 5, 2), digits(buf, from + 8, 2), 0, 0);
+            }
+        } catch (DateTimeException e) {
+            return null;
+        }
+        return null;
+    }
+
+    private static int digits(char[] buf, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char ch = buf[i];
+            if (ch < '0' || ch > '9') throw new DateTimeException("Invalid digit '" + ch + "'");
+            value = value * 10 + (ch - '0');
+        }
+        return value;
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == fieldStart.length) {
+            fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+            fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = end;
+        fieldCount++;
+    }
+
+    private void append(char c) {
+        if (dataLength == data.length) {
+            data = Arrays.copyOf(data, dataLength * 2);
+        }
+        data[dataLength++] = c;
+    }
+
+    private int read() throws IOException {
+        if (readPos >= readLimit && !fill()) return -1;
+        return readBuffer[readPos++];
+    }
+
+    private int peek() throws IOException {
+        if (readPos >= readLimit && !fill()) return -1;
+        return readBuffer[readPos];
+    }
+
+    private boolean fill() throws IOException {
+        int n;
+        do {
+            n = reader.read(readBuffer, 0, readBuffer.length);
+        } while (n == 0);
+        if (n < 0) return false;
+        readPos = 0;
+        readLimit = n;
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+package de.service.impl.csv;
+
+import de.model.trade.TradeView;
+import de.service.impl.TradeFileWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CSV export (UTF-8, comma separated), readable by {@link CsvTokenizer}: fields with delimiters, quotes or line
+ * breaks are quoted, numbers are written in their shortest exact form.
+ */
+public final class CsvTradeWriter implements TradeFileWriter {
+
+    private static final char DELIMITER = ',';
+
+    private final Writer out;
+
+    public CsvTradeWriter(OutputStream out) throws IOException {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            if (i > 0) this.out.write(DELIMITER);
+            this.out.write(COLUMNS.get(i));
+        }
+        this.out.write('\n');
+    }
+
+    @Override
+    public void write(TradeView trade) throws IOException {
+        field(trade.symbol());
+        out.write(DELIMITER);
+        number(trade.entryPrice());
+        out.write(DELIMITER);
+        number(trade.exitPrice());
+        out.write(DELIMITER);
+        number(trade.quantity());
+        out.write(DELIMITER);
+        if (trade.timestamp() != null) {
+            TIMESTAMP_FORMAT.formatTo(trade.timestamp(), out);
+        }
+        out.write(DELIMITER);
+        if (trade.tags() != null) {
+            field(String.join(TAG_SEPARATOR, trade.tags()));
+        }
+        out.write(DELIMITER);
+        field(trade.notes());
+        out.write('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() {
+        // the target stream belongs to the caller
+    }
+
+    private void number(Double value) throws IOException {
+        if (value != null) out.write(Double.toString(value));
+    }
+
+    private void field(String value) throws IOException {
+        if (value == null || value.isEmpty()) return;
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == DELIMITER || c == '"' || c == '\n' || c == '\r';
+        }
+        // unquoted fields are trimmed by the import
+        quote |= Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1));
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') out.write('"');
+            out.write(c);
+        }
+        out.write('"');
+    }
+}
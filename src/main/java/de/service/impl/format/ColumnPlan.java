@@ -0,0 +1,61 @@
+package de.service.impl.format;
+
+import de.model.trade.Trade;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Column offsets of a file, {@code -1} for columns it doesn't have. The timestamp column may hold a plain
+ * date, then {@code time} is the column with the time of day. Rows without timestamp are rejected: the timestamp
+ * is part of the business key, so a stand-in like the import time would insert the row again on every re-import.
+ *
+ * @param pricesRequired whether rows without entry price, exit price or quantity are rejected
+ */
+public record ColumnPlan(int symbol, int entryPrice, int exitPrice, int quantity, int timestamp, int time,
+                         int tags, int notes, boolean pricesRequired) implements TradeRowMapper {
+
+    @Override
+    public Trade map(SourceRow row) {
+        String symbolValue = row.getString(symbol);
+        if (symbolValue == null) {
+            throw new IllegalArgumentException("symbol is missing");
+        }
+        Double entry = toDouble(row.getNumber(entryPrice));
+        Double exit = toDouble(row.getNumber(exitPrice));
+        Double qty = toDouble(row.getNumber(quantity));
+        if (pricesRequired && (entry == null || exit == null || qty == null)) {
+            throw new IllegalArgumentException("entry, exit and quantity are required");
+        }
+
+        LocalDateTime dateTime = row.getDateTime(timestamp);
+        if (dateTime != null && time >= 0) {
+            LocalTime timeOfDay = row.getTime(time);
+            if (timeOfDay != null) {
+                dateTime = dateTime.toLocalDate().atTime(timeOfDay);
+            }
+        }
+        if (dateTime == null) {
+            throw new IllegalArgumentException("timestamp is missing");
+        }
+
+        Set<String> tagValues = new HashSet<>();
+        row.splitInto(tags, tagValues);
+
+        Trade trade = new Trade();
+        trade.setSymbol(symbolValue);
+        trade.setEntryPrice(entry);
+        trade.setExitPrice(exit);
+        trade.setQuantity(qty);
+        trade.setTimestamp(dateTime);
+        trade.setTags(tagValues);
+        trade.setNotes(row.getString(notes));
+        return trade;
+    }
+
+    private static Double toDouble(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+}
@@ -0,0 +1,68 @@
+package de.service.impl.format;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Columns found by name in any order, the TradeSense layout of import and export ({@code Symbol, EntryPrice,
+ * ExitPrice, Quantity, Timestamp, Tags, Notes}) plus common spellings ({@code Entry Price}, {@code entry_price},
+ * {@code Qty}, separate {@code Date}/{@code Time} columns, ...). Needs at least symbol and entry price;
+ * missing prices are allowed per row.
+ */
+@Component
+@Order(100)
+public class NamedColumnsFormat implements TradeSourceFormat {
+
+    @Override
+    public String getName() {
+        return "named-columns";
+    }
+
+    @Override
+    public Optional<TradeRowMapper> compile(List<String> header) {
+        Map<String, Integer> idx = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i);
+            if (name != null) {
+                idx.putIfAbsent(normalize(name), i);
+            }
+        }
+        int symbol = find(idx, "symbol", "ticker", "instrument");
+        int entryPrice = find(idx, "entryprice", "entry", "openprice");
+        if (symbol < 0 || entryPrice < 0) {
+            return Optional.empty();
+        }
+        int timestamp = find(idx, "timestamp", "datetime");
+        int time = -1;
+        if (timestamp < 0) {
+            timestamp = find(idx, "date");
+            time = find(idx, "time");
+        }
+        return Optional.of(new ColumnPlan(symbol, entryPrice, find(idx, "exitprice", "exit", "closeprice"),
+                find(idx, "quantity", "qty", "size"), timestamp, time, find(idx, "tags", "tag"),
+                find(idx, "notes", "note", "comment"), false));
+    }
+
+    private static int find(Map<String, Integer> idx, String... names) {
+        for (String name : names) {
+            Integer i = idx.get(name);
+            if (i != null) return i;
+        }
+        return -1;
+    }
+
+    // "Entry Price", "entry_price" -> "entryprice"; also drops a byte order mark in front of the first name
+    private static String normalize(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isLetterOrDigit(c)) sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,29 @@
+package de.service.impl.format;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Fallback for sheets whose header doesn't name the columns: symbol, entry price, exit price, quantity, date
+ * (or date/time) and time of day in the first six columns. All prices are required.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class PositionalColumnsFormat implements TradeSourceFormat {
+
+    private static final ColumnPlan PLAN = new ColumnPlan(0, 1, 2, 3, 4, 5, -1, -1, true);
+
+    @Override
+    public String getName() {
+        return "positional";
+    }
+
+    @Override
+    public Optional<TradeRowMapper> compile(List<String> header) {
+        return Optional.of(PLAN);
+    }
+}
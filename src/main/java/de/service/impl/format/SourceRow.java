@@ -0,0 +1,38 @@
+package de.service.impl.format;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+
+/**
+ * Typed, index-based access to one row of an import file (CSV record, sheet row). Implementations are reused
+ * for every row, so values must be read before the reader advances. Missing columns (index {@code -1} or beyond
+ * the row) read as empty.
+ */
+public interface SourceRow {
+
+    /**
+     * @return the trimmed text or {@code null} if the cell is empty or missing
+     */
+    String getString(int column);
+
+    /**
+     * @return the number or {@link Double#NaN} if the cell is empty, missing or not a number
+     */
+    double getNumber(int column);
+
+    /**
+     * @return date/time (midnight for plain dates) or {@code null} if the cell is empty, missing or not a date
+     */
+    LocalDateTime getDateTime(int column);
+
+    /**
+     * @return time of day or {@code null} if the cell is empty, missing or not a time
+     */
+    LocalTime getTime(int column);
+
+    /**
+     * Splits the cell at {@code ;}, {@code |} and {@code ,} and adds the trimmed, non-empty parts to {@code target}.
+     */
+    void splitInto(int column, Collection<String> target);
+}
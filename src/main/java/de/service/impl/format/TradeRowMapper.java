@@ -0,0 +1,16 @@
+package de.service.impl.format;
+
+import de.model.trade.Trade;
+
+/**
+ * Maps rows of one file to trades; created once per import by {@link TradeSourceFormat#compile}. Mappers are
+ * immutable and used from several parser threads at once.
+ */
+@FunctionalInterface
+public interface TradeRowMapper {
+
+    /**
+     * @throws IllegalArgumentException if required values are missing or invalid; the row counts as failed
+     */
+    Trade map(SourceRow row);
+}
@@ -0,0 +1,23 @@
+package de.service.impl.format;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A file layout the import understands (column names, order, value formats), independent of the container
+ * (CSV or XLSX). Formats are Spring beans; for every import the first format in {@link org.springframework.core.annotation.Order}
+ * that accepts the header row wins, so a new broker layout is one more bean and needs no new import method.
+ * <p>
+ * {@link #compile} runs once per file: it resolves the header to column offsets and returns a mapper that
+ * reads rows by index only, without name lookups per row.
+ */
+public interface TradeSourceFormat {
+
+    String getName();
+
+    /**
+     * @param header cell texts of the first row, {@code null} for empty cells
+     * @return the mapper for rows of this file, or empty if the header does not belong to this format
+     */
+    Optional<TradeRowMapper> compile(List<String> header);
+}
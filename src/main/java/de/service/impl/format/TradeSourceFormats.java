@@ -0,0 +1,37 @@
+package de.service.impl.format;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * All {@link TradeSourceFormat} beans in order; picks the format of a file from its header row.
+ */
+@Component
+public class TradeSourceFormats {
+
+    private static final Logger logger = LoggerFactory.getLogger(TradeSourceFormats.class);
+
+    private final List<TradeSourceFormat> formats;
+
+    public TradeSourceFormats(List<TradeSourceFormat> formats) {
+        this.formats = List.copyOf(formats);
+    }
+
+    /**
+     * @throws IllegalArgumentException if no format accepts the header
+     */
+    public TradeRowMapper compile(List<String> header) {
+        for (TradeSourceFormat format : formats) {
+            Optional<TradeRowMapper> mapper = format.compile(header);
+            if (mapper.isPresent()) {
+                logger.info("Import format '{}' for header {}", format.getName(), header);
+                return mapper.get();
+            }
+        }
+        throw new IllegalArgumentException("Unknown file layout, header: " + header);
+    }
+}
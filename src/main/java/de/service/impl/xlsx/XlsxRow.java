@@ -0,0 +1,151 @@
+package de.service.impl.xlsx;
+
+import de.service.impl.format.SourceRow;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * One row as reported by {@link XlsxSheetReader}. The instance is reused for every row of a sheet.
+ */
+public final class XlsxRow implements SourceRow {
+
+    private static final DateTimeFormatter[] DATE_FORMATS = {
+            DateTimeFormatter.ofPattern("dd.MM.yyyy"), DateTimeFormatter.ISO_LOCAL_DATE
+    };
+    private static final DateTimeFormatter[] DATE_TIME_FORMATS = {
+            DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm[:ss]"), DateTimeFormatter.ofPattern("yyyy-MM-dd['T'][ ]HH:mm[:ss]")
+    };
+
+    private int rowNum;
+    private String[] values = new String[16];
+    private boolean[] numeric = new boolean[16];
+    private int width;
+
+    void reset(int rowNum) {
+        this.rowNum = rowNum;
+        Arrays.fill(values, 0, width, null);
+        width = 0;
+    }
+
+    void set(int col, String value, boolean isNumeric) {
+        if (col >= values.length) {
+            int size = Math.max(col + 1, values.length * 2);
+            values = Arrays.copyOf(values, size);
+            numeric = Arrays.copyOf(numeric, size);
+        }
+        values[col] = value;
+        numeric[col] = isNumeric;
+        width = Math.max(width, col + 1);
+    }
+
+    /**
+     * 0-based row index as stored in the sheet.
+     */
+    public int getRowNum() {
+        return rowNum;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public boolean isEmpty(int col) {
+        return col < 0 || col >= width || values[col] == null || values[col].isEmpty();
+    }
+
+    public boolean isNumeric(int col) {
+        return !isEmpty(col) && numeric[col];
+    }
+
+    /**
+     * @return the cell text (numbers as stored in the sheet) or {@code null} for missing cells
+     */
+    @Override
+    public String getString(int col) {
+        if (isEmpty(col)) return null;
+        String v = values[col].trim();
+        return v.isEmpty() ? null : v;
+    }
+
+    /**
+     * @return the numeric cell value, or for text cells the parsed number; {@link Double#NaN} if there is none
+     */
+    @Override
+    public double getNumber(int col) {
+        String v = getString(col);
+        if (v == null) return Double.NaN;
+        try {
+            return Double.parseDouble(numeric[col] ? v : v.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Reads a date or date/time cell: numeric cells as Excel date serial, text cells as
+     * {@code dd.MM.yyyy[ HH:mm[:ss]]} or ISO.
+     *
+     * @return the date/time (midnight for plain dates) or {@code null} if the cell is empty or not a date
+     */
+    @Override
+    public LocalDateTime getDateTime(int col) {
+        if (isNumeric(col)) {
+            double serial = getNumber(col);
+            return Double.isNaN(serial) ? null : DateUtil.getLocalDateTime(serial);
+        }
+        String v = getString(col);
+        if (v == null) return null;
+        for (DateTimeFormatter f : DATE_TIME_FORMATS) {
+            try {
+                return LocalDateTime.parse(v, f);
+            } catch (DateTimeParseException ignored) {
+                // try next format
+            }
+        }
+        for (DateTimeFormatter f : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(v, f).atStartOfDay();
+            } catch (DateTimeParseException ignored) {
+                // try next format
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads a time-of-day cell: numeric cells as fraction of a day, text cells as {@code HH:mm[:ss]}.
+     *
+     * @return the time or {@code null} if the cell is empty or not a time
+     */
+    @Override
+    public LocalTime getTime(int col) {
+        if (isNumeric(col)) {
+            double serial = getNumber(col);
+            return Double.isNaN(serial) ? null : DateUtil.getLocalDateTime(serial - Math.floor(serial)).toLocalTime();
+        }
+        String v = getString(col);
+        if (v == null) return null;
+        try {
+            return LocalTime.parse(v);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void splitInto(int col, Collection<String> target) {
+        String v = getString(col);
+        if (v == null) return;
+        for (String part : v.split("[;|,]")) {
+            String tag = part.replace("\"", "").trim();
+            if (!tag.isEmpty()) target.add(tag);
+        }
+    }
+}
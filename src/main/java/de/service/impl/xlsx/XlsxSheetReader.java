@@ -0,0 +1,156 @@
+package de.service.impl.xlsx;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Event-based reader for the first sheet of an XLSX file.
+ * <p>
+ * The sheet XML is parsed with SAX straight from the zip entry, so memory use does not depend on the
+ * number of rows (only the shared strings table is kept). Cells are reported with their raw values:
+ * numbers and dates as the stored double, strings resolved from the shared strings table.
+ */
+public final class XlsxSheetReader {
+
+    @FunctionalInterface
+    public interface RowCallback {
+        void onRow(XlsxRow row) throws Exception;
+    }
+
+    private XlsxSheetReader() {
+    }
+
+    /**
+     * Streams all rows of the first sheet to {@code callback}, skipping the first {@code skipRows} physical rows.
+     */
+    public static void readFirstSheet(File file, int skipRows, RowCallback callback) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) return;
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new SheetHandler(strings, skipRows, callback));
+                try {
+                    parser.parse(new InputSource(sheet));
+                } catch (SAXException e) {
+                    if (e.getException() != null) throw e.getException();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static final class SheetHandler extends DefaultHandler {
+
+        private final ReadOnlySharedStringsTable strings;
+        private final RowCallback callback;
+        private final XlsxRow row = new XlsxRow();
+        private final StringBuilder text = new StringBuilder();
+
+        private int rowsToSkip;
+        private int nextRowNum;
+        private int nextCol;
+        private int col;
+        private String cellType;
+        private boolean inValue;
+
+        SheetHandler(ReadOnlySharedStringsTable strings, int skipRows, RowCallback callback) {
+            this.strings = strings;
+            this.rowsToSkip = skipRows;
+            this.callback = callback;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attrs) {
+            switch (localName) {
+                case "row" -> {
+                    String r = attrs.getValue("r");
+                    row.reset(r != null ? Integer.parseInt(r) - 1 : nextRowNum);
+                    nextCol = 0;
+                }
+                case "c" -> {
+                    String ref = attrs.getValue("r");
+                    col = ref != null ? columnIndex(ref) : nextCol;
+                    nextCol = col + 1;
+                    cellType = attrs.getValue("t");
+                    text.setLength(0);
+                }
+                case "v" -> {
+                    inValue = true;
+                    text.setLength(0);
+                }
+                case "t" -> inValue = true;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "v" -> {
+                    inValue = false;
+                    if ("s".equals(cellType)) {
+                        row.set(col, strings.getItemAt(Integer.parseInt(text.toString().trim())).getString(), false);
+                    } else if ("str".equals(cellType) || "e".equals(cellType)) {
+                        row.set(col, text.toString(), false);
+                    } else if ("b".equals(cellType)) {
+                        row.set(col, "1".equals(text.toString()) ? "TRUE" : "FALSE", false);
+                    } else {
+                        row.set(col, text.toString(), true);
+                    }
+                }
+                case "t" -> {
+                    // inline string: <c t="inlineStr"><is><t>..</t></is></c>, rich text runs are concatenated
+                    inValue = false;
+                    if ("inlineStr".equals(cellType)) {
+                        row.set(col, text.toString(), false);
+                    }
+                }
+                case "row" -> {
+                    nextRowNum = row.getRowNum() + 1;
+                    if (rowsToSkip > 0) {
+                        rowsToSkip--;
+                        return;
+                    }
+                    try {
+                        callback.onRow(row);
+                    } catch (Exception e) {
+                        throw new SAXException(e);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) text.append(ch, start, length);
+        }
+
+        private static int columnIndex(String cellRef) {
+            int col = 0;
+            for (int i = 0; i < cellRef.length(); i++) {
+                char c = cellRef.charAt(i);
+                if (c < 'A' || c > 'Z') break;
+                col = col * 26 + (c - 'A' + 1);
+            }
+            return col - 1;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package de.service.impl.xlsx;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Cuts the first sheet of a workbook into small workbooks of about {@code chunkSize} chars of cell text each,
+ * for the cluster import queue. The sheet is streamed with {@link XlsxSheetReader} and every chunk is written
+ * with POI's streaming workbook, so memory use does not depend on the number of rows.
+ * <p>
+ * Each chunk starts with the header row (the first row of the sheet). Rows keep their row number and the cells
+ * their type (number or text), so a chunk reads back like the rows of the original sheet.
+ */
+public final class XlsxSheetSplitter {
+
+    private static final int ROW_WINDOW = 100;
+
+    @FunctionalInterface
+    public interface ChunkCallback {
+        void onChunk(int seq, byte[] workbook) throws Exception;
+    }
+
+    private XlsxSheetSplitter() {
+    }
+
+    /**
+     * Passes the chunks of {@code file} to {@code callback} in sheet order.
+     *
+     * @return the number of chunks, 0 if there are no rows below the header
+     */
+    public static int split(File file, int chunkSize, ChunkCallback callback) throws Exception {
+        Splitter splitter = new Splitter(Math.max(1, chunkSize), callback);
+        try {
+            XlsxSheetReader.readFirstSheet(file, 0, splitter::onRow);
+            splitter.flush();
+        } finally {
+            splitter.discard();
+        }
+        return splitter.chunks;
+    }
+
+    private static final class Splitter {
+
+        private final int chunkSize;
+        private final ChunkCallback callback;
+
+        private int headerRowNum = -1;
+        private String[] headerValues;
+        private boolean[] headerNumeric;
+
+        private SXSSFWorkbook workbook;
+        private Sheet sheet;
+        private long chars;
+        private int chunks;
+
+        Splitter(int chunkSize, ChunkCallback callback) {
+            this.chunkSize = chunkSize;
+            this.callback = callback;
+        }
+
+        void onRow(XlsxRow row) throws Exception {
+            if (headerRowNum < 0) {
+                headerRowNum = row.getRowNum();
+                headerValues = new String[row.getWidth()];
+                headerNumeric = new boolean[row.getWidth()];
+                for (int col = 0; col < row.getWidth(); col++) {
+                    headerValues[col] = row.getString(col);
+                    headerNumeric[col] = row.isNumeric(col);
+                }
+                return;
+            }
+            if (workbook == null) {
+                workbook = new SXSSFWorkbook(ROW_WINDOW);
+                workbook.setCompressTempFiles(true);
+                sheet = workbook.createSheet();
+                Row header = sheet.createRow(headerRowNum);
+                for (int col = 0; col < headerValues.length; col++) {
+                    cell(header, col, headerValues[col], headerNumeric[col]);
+                }
+                chars = 0;
+            }
+            Row target = sheet.createRow(row.getRowNum());
+            for (int col = 0; col < row.getWidth(); col++) {
+                String value = row.getString(col);
+                cell(target, col, value, row.isNumeric(col));
+                if (value != null) chars += value.length();
+            }
+            if (chars >= chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() throws Exception {
+            if (workbook == null) return;
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            workbook.write(out);
+            discard();
+            callback.onChunk(chunks++, out.toByteArray());
+        }
+
+        void discard() throws IOException {
+            if (workbook == null) return;
+            workbook.dispose(); // temp files
+            workbook.close();
+            workbook = null;
+            sheet = null;
+        }
+
+        private static void cell(Row row, int col, String value, boolean numeric) {
+            if (value == null) return;
+            if (numeric) {
+                try {
+                    double number = Double.parseDouble(value);
+                    row.createCell(col).setCellValue(number);
+                    return;
+                } catch (NumberFormatException e) {
+                    // not a plain number (e.g. an ISO date cell), kept as text
+                }
+            }
+            row.createCell(col).setCellValue(value);
+        }
+    }
+}
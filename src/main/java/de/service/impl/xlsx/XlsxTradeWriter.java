@@ -0,0 +1,80 @@
+package de.service.impl.xlsx;
+
+import de.model.trade.TradeView;
+import de.service.impl.TradeFileWriter;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * XLSX export with POI's streaming workbook: only a window of rows is kept in memory, older rows go to a
+ * (compressed) temp file until {@link #finish()} writes the workbook. The timestamp is a real date cell,
+ * so the sheet sorts and filters in Excel and is read back by {@link XlsxRow#getDateTime(int)}.
+ */
+public final class XlsxTradeWriter implements TradeFileWriter {
+
+    private static final int ROW_WINDOW = 100;
+
+    private final OutputStream out;
+    private final SXSSFWorkbook workbook;
+    private final Sheet sheet;
+    private final CellStyle timestampStyle;
+    private int rowNum;
+
+    public XlsxTradeWriter(OutputStream out) {
+        this.out = out;
+        this.workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        this.sheet = workbook.createSheet("Trades");
+        this.timestampStyle = workbook.createCellStyle();
+        timestampStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+
+        Row header = sheet.createRow(rowNum++);
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            header.createCell(i).setCellValue(COLUMNS.get(i));
+        }
+    }
+
+    @Override
+    public void write(TradeView trade) {
+        Row row = sheet.createRow(rowNum++);
+        text(row, 0, trade.symbol());
+        number(row, 1, trade.entryPrice());
+        number(row, 2, trade.exitPrice());
+        number(row, 3, trade.quantity());
+        if (trade.timestamp() != null) {
+            Cell cell = row.createCell(4);
+            cell.setCellValue(trade.timestamp());
+            cell.setCellStyle(timestampStyle);
+        }
+        if (trade.tags() != null && !trade.tags().isEmpty()) {
+            text(row, 5, String.join(TAG_SEPARATOR, trade.tags()));
+        }
+        text(row, 6, trade.notes());
+    }
+
+    @Override
+    public void finish() throws IOException {
+        workbook.write(out);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.dispose(); // temp files
+        workbook.close();
+    }
+
+    private static void text(Row row, int col, String value) {
+        if (value != null) row.createCell(col).setCellValue(value);
+    }
+
+    private static void number(Row row, int col, Double value) {
+        if (value != null) row.createCell(col).setCellValue(value);
+    }
+}
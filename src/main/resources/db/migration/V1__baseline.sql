@@ -0,0 +1,56 @@
+-- Schema as created by Hibernate (ddl-auto=update) before the migrations were introduced, plus the constraint and
+-- indexes added since. New databases start here; databases created by Hibernate are baselined at version 0
+-- (spring.flyway.baseline-on-migrate), so every statement has to work on their existing tables as well.
+
+CREATE TABLE IF NOT EXISTS trades (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    symbol      varchar(255) NOT NULL,
+    entry_price double precision,
+    exit_price  double precision,
+    quantity    double precision,
+    profit_loss double precision NOT NULL,
+    timestamp   timestamp(6),
+    notes       text
+);
+
+CREATE TABLE IF NOT EXISTS trade_tags (
+    trade_id bigint NOT NULL REFERENCES trades (id),
+    tag      varchar(255)
+);
+
+-- Hibernate left profit_loss nullable; V2 recomputes the values properly
+UPDATE trades SET profit_loss = COALESCE((exit_price - entry_price) * quantity, 0) WHERE profit_loss IS NULL;
+ALTER TABLE trades ALTER COLUMN profit_loss SET NOT NULL;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = 'trades'::regclass AND conname = 'uk_trades_business_key') THEN
+        -- the CSV import never checked the database for duplicates; keep the first row of each business key
+        -- (NULL equal to NULL, as in the constraint)
+        CREATE TEMPORARY TABLE duplicate_trades ON COMMIT DROP AS
+        SELECT id FROM (SELECT id, row_number() OVER (PARTITION BY symbol, entry_price, timestamp ORDER BY id) AS n
+                        FROM trades) k
+        WHERE n > 1;
+        DELETE FROM trade_tags WHERE trade_id IN (SELECT id FROM duplicate_trades);
+        DELETE FROM trades WHERE id IN (SELECT id FROM duplicate_trades);
+
+        ALTER TABLE trades ADD CONSTRAINT uk_trades_business_key UNIQUE NULLS NOT DISTINCT (symbol, entry_price, timestamp);
+    END IF;
+END $$;
+
+CREATE INDEX IF NOT EXISTS idx_trades_timestamp_id ON trades (timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_trades_symbol_timestamp_id ON trades (symbol, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_trades_profit_loss ON trades (profit_loss);
+
+CREATE INDEX IF NOT EXISTS idx_trade_tags_trade_id ON trade_tags (trade_id);
+CREATE INDEX IF NOT EXISTS idx_trade_tags_tag_trade_id ON trade_tags (tag, trade_id);
+
+CREATE TABLE IF NOT EXISTS trade_stats (
+    dimension       varchar(16)  NOT NULL CHECK (dimension IN ('TOTAL', 'SYMBOL', 'TAG')),
+    name            varchar(255) NOT NULL,
+    trade_count     bigint           NOT NULL,
+    profit_loss_sum double precision NOT NULL,
+    win_count       bigint           NOT NULL,
+    PRIMARY KEY (dimension, name)
+);
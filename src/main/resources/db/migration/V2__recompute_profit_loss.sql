@@ -0,0 +1,13 @@
+-- profit_loss of rows written before it was maintained (empty or stale values); previously done on every start.
+-- Statistics are rebuilt from the corrected rows on the next start.
+DO $$
+DECLARE
+    corrected bigint;
+BEGIN
+    UPDATE trades SET profit_loss = COALESCE((exit_price - entry_price) * quantity, 0)
+    WHERE profit_loss IS DISTINCT FROM COALESCE((exit_price - entry_price) * quantity, 0);
+    GET DIAGNOSTICS corrected = ROW_COUNT;
+    IF corrected > 0 THEN
+        DELETE FROM trade_stats;
+    END IF;
+END $$;
@@ -0,0 +1,76 @@
+-- trades is range-partitioned by month on timestamp, so date-range queries only touch the months they cover
+-- and old months can be detached or archived as a whole. Partitions are named trades_pYYYY_MM; the application
+-- creates missing ones before inserting (TradePartitionRepository) through create_trades_partition.
+--
+-- Consequences of the partition key:
+--  * timestamp is NOT NULL (rows without timestamp get the import/save time)
+--  * the primary key is (id, timestamp); ids still come from one identity sequence and stay unique
+--  * trade_tags can no longer reference trades(id) with a foreign key, tags are written and deleted together
+--    with their trade by TradeBatchRepository and JPA
+
+CREATE OR REPLACE FUNCTION create_trades_partition(month date) RETURNS void
+LANGUAGE plpgsql AS $$
+DECLARE
+    first_day date := date_trunc('month', month);
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF trades FOR VALUES FROM (%L) TO (%L)',
+                   'trades_p' || to_char(first_day, 'YYYY_MM'), first_day, (first_day + interval '1 month')::date);
+END $$;
+
+-- foreign keys of trade_tags have generated names
+DO $$
+DECLARE
+    fk record;
+BEGIN
+    FOR fk IN SELECT conname FROM pg_constraint WHERE conrelid = 'trade_tags'::regclass AND contype = 'f' LOOP
+        EXECUTE format('ALTER TABLE trade_tags DROP CONSTRAINT %I', fk.conname);
+    END LOOP;
+END $$;
+
+ALTER TABLE trades RENAME TO trades_unpartitioned;
+ALTER TABLE trades_unpartitioned DROP CONSTRAINT IF EXISTS uk_trades_business_key;
+ALTER TABLE trades_unpartitioned DROP CONSTRAINT trades_pkey;
+ALTER TABLE trades_unpartitioned ALTER COLUMN id DROP IDENTITY;
+DROP INDEX IF EXISTS idx_trades_timestamp_id, idx_trades_symbol_timestamp_id, idx_trades_profit_loss;
+
+CREATE TABLE trades (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY,
+    symbol      varchar(255) NOT NULL,
+    entry_price double precision,
+    exit_price  double precision,
+    quantity    double precision,
+    profit_loss double precision NOT NULL DEFAULT 0,
+    timestamp   timestamp(6) NOT NULL,
+    notes       text,
+    CONSTRAINT trades_pkey PRIMARY KEY (id, timestamp),
+    CONSTRAINT uk_trades_business_key UNIQUE NULLS NOT DISTINCT (symbol, entry_price, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+-- keyset pagination on (timestamp, id); symbol and P/L included so range aggregates
+-- (totals, per symbol, buckets) are answered from the index alone
+CREATE INDEX idx_trades_timestamp_id ON trades (timestamp, id) INCLUDE (symbol, profit_loss);
+-- list filtered by symbol, per-symbol ranges
+CREATE INDEX idx_trades_symbol_timestamp_id ON trades (symbol, timestamp, id) INCLUDE (profit_loss);
+CREATE INDEX idx_trades_profit_loss ON trades (profit_loss);
+
+SELECT create_trades_partition(month::date)
+FROM (SELECT DISTINCT date_trunc('month', timestamp) AS month FROM trades_unpartitioned WHERE timestamp IS NOT NULL
+      UNION
+      SELECT date_trunc('month', localtimestamp)) months;
+
+INSERT INTO trades (id, symbol, entry_price, exit_price, quantity, profit_loss, timestamp, notes)
+SELECT id, symbol, entry_price, exit_price, quantity, COALESCE(profit_loss, 0),
+       COALESCE(timestamp, localtimestamp), notes
+FROM trades_unpartitioned;
+
+SELECT setval(pg_get_serial_sequence('trades', 'id'), COALESCE(max(id), 0) + 1, false) FROM trades;
+
+DROP TABLE trades_unpartitioned;
+
+-- the join from tags to their trades goes through the primary key of every partition;
+-- (trade_id, tag) lets the tag statistics read both from the index
+DROP INDEX IF EXISTS idx_trade_tags_trade_id;
+CREATE INDEX idx_trade_tags_trade_id ON trade_tags (trade_id) INCLUDE (tag);
+
+ANALYZE trades;
+ANALYZE trade_tags;
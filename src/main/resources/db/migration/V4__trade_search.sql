@@ -0,0 +1,20 @@
+-- Full-text search over symbol, tags and notes (GET /api/trades/search). Symbol and tags are weighted above the
+-- notes. The vector is written by the application together with the row (TradeBatchRepository, TradeSearchRepository),
+-- because the tags live in trade_tags and are inserted after their trade.
+
+CREATE FUNCTION trade_search_vector(symbol text, tags text, notes text) RETURNS tsvector
+LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+    SELECT setweight(to_tsvector('english', coalesce(symbol, '') || ' ' || coalesce(tags, '')), 'A')
+        || setweight(to_tsvector('english', coalesce(notes, '')), 'B')
+$$;
+
+ALTER TABLE trades ADD COLUMN search_vector tsvector;
+
+UPDATE trades t
+SET search_vector = trade_search_vector(t.symbol,
+        (SELECT string_agg(tt.tag, ' ') FROM trade_tags tt WHERE tt.trade_id = t.id), t.notes);
+
+-- created on every partition, also on the ones created later by create_trades_partition
+CREATE INDEX idx_trades_search ON trades USING gin (search_vector);
+
+ANALYZE trades;
@@ -0,0 +1,10 @@
+-- SHA-256 of every file that was imported completely. An upload with a known hash is answered from here
+-- instead of being parsed again (ImportJobServiceImpl).
+CREATE TABLE imported_files (
+    sha256        char(64)     PRIMARY KEY,
+    file_name     varchar(255) NOT NULL,
+    size_bytes    bigint       NOT NULL,
+    rows_inserted bigint       NOT NULL,
+    job_id        varchar(36)  NOT NULL,
+    imported_at   timestamptz  NOT NULL DEFAULT now()
+);
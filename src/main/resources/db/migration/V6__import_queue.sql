@@ -0,0 +1,70 @@
+-- Shared import queue for several application nodes (ClusterImportJobServiceImpl).
+--
+-- An upload becomes one import_jobs row and its content is split into import_chunks (CSV: record-aligned pieces,
+-- XLSX: small workbooks of consecutive rows), written in the transaction that accepts the upload. Nodes claim
+-- queued chunks with FOR UPDATE SKIP LOCKED, so every chunk is imported by exactly one node at a time, and confirm
+-- them with a heartbeat. Chunks whose heartbeat stops are queued again. Duplicates are still prevented by
+-- uk_trades_business_key, so a chunk that is imported twice (after its node was presumed dead) inserts nothing twice.
+
+CREATE TABLE import_jobs (
+    id            varchar(36)  PRIMARY KEY,
+    file_name     varchar(255) NOT NULL,
+    format        varchar(8)   NOT NULL,
+    size_bytes    bigint       NOT NULL,
+    sha256        char(64)     NOT NULL,
+    -- CSV header record, put in front of every chunk but the first
+    header        text,
+    status        varchar(16)  NOT NULL,
+    chunk_count   int          NOT NULL DEFAULT 0,
+    submitted_by  varchar(100) NOT NULL,
+    created_at    timestamptz  NOT NULL DEFAULT now(),
+    started_at    timestamptz,
+    finished_at   timestamptz,
+    error_message text,
+    -- totals, filled when the job finishes and its chunks are removed
+    rows_parsed   bigint       NOT NULL DEFAULT 0,
+    rows_inserted bigint       NOT NULL DEFAULT 0,
+    rows_skipped  bigint       NOT NULL DEFAULT 0,
+    rows_failed   bigint       NOT NULL DEFAULT 0
+);
+
+-- one active job per content: the same file submitted twice while it is imported joins the running job
+CREATE UNIQUE INDEX uk_import_jobs_active_sha256 ON import_jobs (sha256) WHERE status IN ('QUEUED', 'RUNNING');
+CREATE INDEX idx_import_jobs_finished_at ON import_jobs (finished_at);
+
+CREATE TABLE import_chunks (
+    -- queue order
+    id            bigint       GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    job_id        varchar(36)  NOT NULL REFERENCES import_jobs (id) ON DELETE CASCADE,
+    seq           int          NOT NULL,
+    data          bytea        NOT NULL,
+    -- added to the CSV line numbers of the chunk (with the header in front) to get those of the uploaded file;
+    -- XLSX chunks keep the row numbers of the sheet
+    line_offset   bigint       NOT NULL DEFAULT 0,
+    status        varchar(16)  NOT NULL DEFAULT 'QUEUED',
+    -- incremented by every claim; a node may only finish the chunk with the attempt it claimed
+    attempts      int          NOT NULL DEFAULT 0,
+    claimed_by    varchar(100),
+    heartbeat_at  timestamptz,
+    error_message text,
+    rows_parsed   bigint       NOT NULL DEFAULT 0,
+    rows_inserted bigint       NOT NULL DEFAULT 0,
+    rows_skipped  bigint       NOT NULL DEFAULT 0,
+    rows_failed   bigint       NOT NULL DEFAULT 0,
+    CONSTRAINT uk_import_chunks_job_seq UNIQUE (job_id, seq)
+);
+
+CREATE INDEX idx_import_chunks_queued ON import_chunks (id) WHERE status = 'QUEUED';
+CREATE INDEX idx_import_chunks_running ON import_chunks (heartbeat_at) WHERE status = 'RUNNING';
+
+-- Nodes importing chunks of the same file create the same partitions at the same time; CREATE TABLE IF NOT
+-- EXISTS does not cover that race ("relation already exists"). The lock serializes partition creation.
+CREATE OR REPLACE FUNCTION create_trades_partition(month date) RETURNS void
+LANGUAGE plpgsql AS $$
+DECLARE
+    first_day date := date_trunc('month', month);
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('create_trades_partition'));
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF trades FOR VALUES FROM (%L) TO (%L)',
+                   'trades_p' || to_char(first_day, 'YYYY_MM'), first_day, (first_day + interval '1 month')::date);
+END $$;
@@ -0,0 +1,50 @@
+-- Tags interned into a dictionary: trade_tags stores the integer id of the tag instead of repeating its text on
+-- every trade. The application keeps the dictionary in memory (TagRepository) and writes ids; JPA reads and
+-- writes names through tag_name/intern_tag (see Trade.tags).
+
+CREATE TABLE tags (
+    id   integer      GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    name varchar(255) NOT NULL,
+    CONSTRAINT uk_tags_name UNIQUE (name)
+);
+
+INSERT INTO tags (name)
+SELECT DISTINCT tag FROM trade_tags WHERE tag IS NOT NULL ORDER BY tag;
+
+DELETE FROM trade_tags WHERE tag IS NULL;
+
+ALTER TABLE trade_tags ADD COLUMN tag_id integer REFERENCES tags (id);
+
+UPDATE trade_tags tt SET tag_id = tg.id FROM tags tg WHERE tg.name = tt.tag;
+
+ALTER TABLE trade_tags ALTER COLUMN tag_id SET NOT NULL;
+
+-- drops idx_trade_tags_trade_id and idx_trade_tags_tag_trade_id with it
+ALTER TABLE trade_tags DROP COLUMN tag;
+
+CREATE INDEX idx_trade_tags_trade_id ON trade_tags (trade_id) INCLUDE (tag_id);
+CREATE INDEX idx_trade_tags_tag_id_trade_id ON trade_tags (tag_id, trade_id);
+
+CREATE FUNCTION tag_name(tag_id integer) RETURNS varchar
+LANGUAGE sql STABLE STRICT PARALLEL SAFE AS $$
+    SELECT name FROM tags WHERE id = tag_id
+$$;
+
+-- id of a tag, added to the dictionary if it is new; concurrent callers get the same id
+CREATE FUNCTION intern_tag(tag_name varchar) RETURNS integer
+LANGUAGE plpgsql STRICT AS $$
+DECLARE
+    tag_id integer;
+BEGIN
+    SELECT id INTO tag_id FROM tags WHERE name = tag_name;
+    IF tag_id IS NULL THEN
+        INSERT INTO tags (name) VALUES (tag_name) ON CONFLICT (name) DO NOTHING RETURNING id INTO tag_id;
+        IF tag_id IS NULL THEN
+            SELECT id INTO tag_id FROM tags WHERE name = tag_name;
+        END IF;
+    END IF;
+    RETURN tag_id;
+END $$;
+
+ANALYZE tags;
+ANALYZE trade_tags;
@@ -0,0 +1,10 @@
+-- Generation of the stored trades across application nodes (ClusterTradeChanges, cluster import queue only).
+-- Every transaction that writes trades increments it right before it commits; the nodes poll it and rebuild
+-- what they derived from the trades (caches, column store) once another node has committed.
+
+CREATE TABLE trade_data_generation (
+    id         boolean PRIMARY KEY DEFAULT true CHECK (id),
+    generation bigint  NOT NULL
+);
+
+INSERT INTO trade_data_generation (generation) VALUES (0);
@@ -1,21 +1,83 @@
 // Minimal React (Dark Mode) - uses React 17 UMD
-const { useState, useEffect } = React;
+const { useState, useEffect, useRef } = React;
+const PAGE_SIZE = 100;
+
+// Sortierung wie GET /api/trades: timestamp desc, dann id desc
+function compareTrades(a, b) {
+    if (a.timestamp !== b.timestamp) {
+        return a.timestamp < b.timestamp ? 1 : -1;
+    }
+    return b.id - a.id;
+}
+
+// neue/geänderte Zeilen einsortieren; bei weiteren Seiten nur innerhalb des geladenen Bereichs
+function mergeTrades(prev, inserted, updated, hasMore) {
+    const byId = new Map(prev.map(t => [t.id, t]));
+    updated.forEach(t => { if (byId.has(t.id)) byId.set(t.id, t); });
+    const last = prev.length > 0 ? prev[prev.length - 1] : null;
+    inserted.forEach(t => {
+        if (!hasMore || last == null || compareTrades(t, last) < 0) byId.set(t.id, t);
+    });
+    return Array.from(byId.values()).sort(compareTrades);
+}
 
 function App() {
     const [trades, setTrades] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
     const [stats, setStats] = useState({});
     const [file, setFile] = useState(null);
     const [message, setMessage] = useState("");
+    const importId = useRef(null);
+    const hasMore = useRef(false);
 
     useEffect(() => {
-        loadTrades();
-        loadStats();
+        document.body.style.backgroundColor = "#121212"; // Hintergrund dunkel
+        document.body.style.color = "#e0e0e0";           // Schrift hell
+        document.body.style.margin = "0";                // Browser-Rand weg
+        document.body.style.padding = "0";
     }, []);
 
+    // Live-Feed zuerst abonnieren, dann den Anfangszustand laden (sonst gehen Änderungen dazwischen verloren)
+    useEffect(() => {
+        const events = new EventSource("/api/trades/events");
+        events.addEventListener("trades", e => {
+            const delta = JSON.parse(e.data);
+            if (delta.truncated) {
+                loadTrades();
+            } else {
+                setTrades(prev => mergeTrades(prev, delta.inserted, delta.updated, hasMore.current));
+            }
+        });
+        events.addEventListener("stats", e => setStats(JSON.parse(e.data)));
+        events.addEventListener("import", e => showImport(JSON.parse(e.data)));
+        events.onopen = () => {
+            // auch nach einem Reconnect: verpasste Änderungen nachladen
+            loadTrades();
+            loadStats();
+        };
+        return () => events.close();
+    }, []);
+
+    // erste Seite laden; weitere Seiten über loadMoreTrades (Keyset-Cursor)
     function loadTrades() {
-        fetch("/api/trades")
+        fetch("/api/trades?limit=" + PAGE_SIZE)
             .then(r => r.json())
-            .then(data => setTrades(data))
+            .then(page => {
+                setTrades(page.items);
+                setNextCursor(page.nextCursor);
+                hasMore.current = page.nextCursor != null;
+            })
+            .catch(err => console.error(err));
+    }
+
+    function loadMoreTrades() {
+        fetch("/api/trades?limit=" + PAGE_SIZE + "&cursor=" + encodeURIComponent(nextCursor))
+            .then(r => r.json())
+            .then(page => {
+                setTrades(prev => prev.concat(page.items));
+                setNextCursor(page.nextCursor);
+                hasMore.current = page.nextCursor != null;
+            })
             .catch(err => console.error(err));
     }
 
@@ -41,10 +103,11 @@ function App() {
         fetch("/api/trades/upload", { method: "POST", body: formData })
             .then(res => res.json())
             .then(data => {
-                if (data.status === "ok") {
-                    setMessage("Import successfully.");
-                    loadTrades();
-                    loadStats();
+                if (data.status === "accepted") {
+                    setMessage("Import gestartet …");
+                    importId.current = data.jobId;
+                    // falls der Job schon fertig war, bevor die Antwort ankam
+                    fetch(data.statusUrl).then(r => r.json()).then(showImport).catch(err => console.error(err));
                 } else {
                     setMessage("Fehler: " + (data.message || "Unbekannter Fehler"));
                 }
@@ -55,6 +118,23 @@ function App() {
             });
     }
 
+    // Fortschritt des eigenen Imports aus dem Live-Feed; Trades und Statistiken kommen als eigene Events
+    function showImport(job) {
+        if (job.id !== importId.current) {
+            return;
+        }
+        if (job.status === "COMPLETED") {
+            setMessage("Import successfully: " + job.rowsInserted + " neu, " + job.rowsSkipped
+                + " Duplikate, " + job.rowsFailed + " Fehler.");
+            importId.current = null;
+        } else if (job.status === "FAILED") {
+            setMessage("Fehler: " + (job.message || "Import fehlgeschlagen"));
+            importId.current = null;
+        } else {
+            setMessage("Import läuft … " + job.rowsParsed + " Zeilen gelesen");
+        }
+    }
+
     // Farbschema Dark Mode
     const bgColor = "#1e1e1e";          // Seiten-Hintergrund
     const cardBg = "#2a2a2a";           // Cards / Boxen
@@ -64,12 +144,6 @@ function App() {
     const tableRowAltBg = "#252525";    // Alternative Zeilen
 
     return (
-        React.useEffect(() => {
-            document.body.style.backgroundColor = "#121212"; // Hintergrund dunkel
-            document.body.style.color = "#e0e0e0";           // Schrift hell
-            document.body.style.margin = "0";                // Browser-Rand weg
-            document.body.style.padding = "0";
-        }, []);
         React.createElement("div", { style: { padding: 16, fontFamily: "Arial", backgroundColor: "#1e1e1e", color: "#e0e0e0" } },
             React.createElement("h1", null, "TradeSense Dashboard"),
             React.createElement("form", { onSubmit: handleUpload, style: { marginBottom: 16 } },
@@ -132,7 +206,8 @@ function App() {
                             React.createElement("td", { colSpan: 9, style: { padding: 8, textAlign: "center" } }, "Keine Trades verfügbar")
                         )
                     )
-                )
+                ),
+                nextCursor && React.createElement("button", { onClick: loadMoreTrades, style: { marginTop: 8 } }, "Mehr laden")
             )
         )
     );
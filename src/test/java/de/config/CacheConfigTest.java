@@ -0,0 +1,64 @@
+package de.config;
+
+import de.service.TradesChangedEvent;
+import de.service.impl.TradeDataVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringJUnitConfig(CacheConfigTest.Config.class)
+class CacheConfigTest {
+
+    @Configuration
+    @Import({CacheConfig.class, TradeDataVersion.class})
+    static class Config {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(CacheConfig.TRADE_STATS);
+        }
+
+        @Bean
+        CountingService countingService() {
+            return new CountingService();
+        }
+    }
+
+    static class CountingService {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Cacheable(cacheNames = CacheConfig.TRADE_STATS, keyGenerator = "tradeDataKeyGenerator")
+        public int stats(String symbol) {
+            return calls.incrementAndGet();
+        }
+    }
+
+    @Autowired
+    CountingService service;
+
+    @Autowired
+    TradeDataVersion tradeDataVersion;
+
+    @Test
+    void cachedUntilTradesChange() {
+        assertThat(service.stats("AAPL")).isEqualTo(1);
+        assertThat(service.stats("AAPL")).isEqualTo(1);
+        assertThat(service.stats("MSFT")).isEqualTo(2);
+
+        tradeDataVersion.onTradesChanged(TradesChangedEvent.inserted(List.of()));
+
+        assertThat(service.stats("AAPL")).isEqualTo(3);
+        assertThat(service.stats("AAPL")).isEqualTo(3);
+    }
+}
@@ -0,0 +1,55 @@
+package de.controller;
+
+import de.service.TradesChangedEvent;
+import de.service.impl.TradeDataVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TradeDataConditionalRequestsTest {
+
+    private final TradeDataVersion version = new TradeDataVersion();
+    private final TradeDataConditionalRequests interceptor = new TradeDataConditionalRequests(version);
+
+    @Test
+    void answersUnchangedGenerationWith304() {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(get(null), first, null)).isTrue();
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("W/");
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(get(etag), second, null)).isFalse();
+        assertThat(second.getStatus()).isEqualTo(304);
+
+        version.onTradesChanged(TradesChangedEvent.inserted(List.of()));
+        MockHttpServletResponse afterImport = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(get(etag), afterImport, null)).isTrue();
+        assertThat(afterImport.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+    }
+
+    @Test
+    void distinguishesCborFromJson() {
+        MockHttpServletResponse json = new MockHttpServletResponse();
+        interceptor.preHandle(get(null), json, null);
+
+        MockHttpServletRequest cborRequest = get(json.getHeader(HttpHeaders.ETAG));
+        cborRequest.addHeader(HttpHeaders.ACCEPT, "application/cbor");
+        MockHttpServletResponse cbor = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(cborRequest, cbor, null)).isTrue();
+        assertThat(cbor.getHeader(HttpHeaders.ETAG)).isNotEqualTo(json.getHeader(HttpHeaders.ETAG));
+    }
+
+    private static MockHttpServletRequest get(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/trades/stats");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,68 @@
+package de.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlywayMigrationTest {
+
+    @Test
+    void migratesEmptyDatabase() {
+        try (TestDatabase db = TestDatabase.create("migrate_empty")) {
+            db.flyway().migrate();
+
+            assertThat(db.flyway().info().pending()).isEmpty();
+            assertThat(db.jdbc().queryForObject("SELECT count(*) FROM trades", Long.class)).isZero();
+        }
+    }
+
+    /**
+     * A database of the original application: schema from Hibernate, rows without P/L, duplicates from the CSV import.
+     * Baselined with the settings of application.properties, all migrations have to run on it.
+     */
+    @Test
+    void migratesDatabaseCreatedByHibernate() throws Exception {
+        try (TestDatabase db = TestDatabase.create("migrate_hibernate")) {
+            db.jdbc().execute("CREATE SCHEMA " + db.schema());
+            try (Connection connection = db.dataSource().getConnection()) {
+                ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/hibernate-schema.sql"));
+            }
+            db.jdbc().update("INSERT INTO trades (symbol, entry_price, exit_price, quantity, profit_loss, timestamp, notes) " +
+                    "VALUES ('AAPL', 100, 110, 2, NULL, '2024-01-05 10:00', 'first'), " +
+                    "       ('AAPL', 100, 110, 2, NULL, '2024-01-05 10:00', 'imported again'), " +
+                    "       ('MSFT', 50, 40, 1, 0, '2024-02-01 09:30', NULL), " +
+                    "       ('TSLA', NULL, NULL, NULL, NULL, NULL, NULL), " +
+                    "       ('TSLA', NULL, NULL, NULL, NULL, NULL, NULL)");
+            db.jdbc().update("INSERT INTO trade_tags (trade_id, tag) " +
+                    "SELECT id, CASE WHEN notes = 'first' THEN 'momentum' ELSE 'news' END FROM trades WHERE symbol <> 'TSLA'");
+
+            Properties props = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+            Flyway flyway = Flyway.configure().dataSource(db.dataSource()).schemas(db.schema())
+                    .baselineOnMigrate(Boolean.parseBoolean(props.getProperty("spring.flyway.baseline-on-migrate")))
+                    .baselineVersion(props.getProperty("spring.flyway.baseline-version"))
+                    .load();
+            flyway.migrate();
+
+            assertThat(flyway.info().pending()).isEmpty();
+            assertThat(db.jdbc().queryForList("SELECT symbol || ' ' || profit_loss FROM trades ORDER BY symbol", String.class))
+                    .containsExactly("AAPL 20", "MSFT -10", "TSLA 0");
+            assertThat(db.jdbc().queryForList("SELECT tag_name(tag_id) FROM trade_tags ORDER BY 1", String.class))
+                    .containsExactly("momentum", "news");
+            assertThat(db.jdbc().queryForObject(
+                    "SELECT count(*) FROM pg_constraint WHERE conrelid = 'trades'::regclass AND conname = 'uk_trades_business_key'", Long.class))
+                    .isEqualTo(1);
+
+            // inserts like the import after the migration
+            db.jdbc().update("INSERT INTO trades (symbol, entry_price, timestamp) VALUES ('NVDA', 10, '2024-02-03 12:00')");
+            assertThat(db.jdbc().update("INSERT INTO trades (symbol, entry_price, timestamp) " +
+                    "VALUES ('AAPL', 100, '2024-01-05 10:00') ON CONFLICT DO NOTHING")).isZero();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package de.repository;
+
+import de.model.importjob.ImportChunk;
+import de.model.importjob.ImportFormat;
+import de.model.importjob.ImportJobStatus;
+import de.model.trade.ImportResult;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImportQueueRepositoryTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static TestDatabase db;
+    private static ImportQueueRepository queue;
+    private static TransactionTemplate transaction;
+
+    @BeforeAll
+    static void migrate() {
+        db = TestDatabase.migrated("import_queue");
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(db.dataSource());
+        queue = new ImportQueueRepository(db.jdbc(), transactionManager);
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterAll
+    static void drop() {
+        if (db != null) db.close();
+    }
+
+    @BeforeEach
+    void clear() {
+        db.jdbc().update("DELETE FROM import_jobs");
+    }
+
+    private static void job(String id, int chunks) {
+        transaction.executeWithoutResult(status -> {
+            queue.insertJob(id, id + ".csv", ImportFormat.CSV, 100, "%064d".formatted(id.hashCode() & 0xffff),
+                    "\"symbol\"", "node-a");
+            for (int seq = 0; seq < chunks; seq++) {
+                queue.insertChunk(id, seq, seq * 10L, ("AAPL" + seq).getBytes());
+            }
+        });
+    }
+
+    private static ImportResult rows(long inserted) {
+        ImportResult result = new ImportResult();
+        for (long i = 0; i < inserted; i++) {
+            result.rowParsed();
+        }
+        result.rowsInserted(inserted);
+        return result;
+    }
+
+    private static void stall(ImportChunk chunk) {
+        db.jdbc().update("UPDATE import_chunks SET heartbeat_at = now() - interval '1 hour' WHERE id = ?", chunk.id());
+    }
+
+    private static String chunkStatus(ImportChunk chunk) {
+        return db.jdbc().queryForObject("SELECT status FROM import_chunks WHERE id = ?", String.class, chunk.id());
+    }
+
+    @Test
+    void claimsOldestQueuedChunkOnce() {
+        job("job-1", 2);
+
+        ImportChunk first = queue.claimChunk("node-a").orElseThrow();
+        ImportChunk second = queue.claimChunk("node-b").orElseThrow();
+
+        assertThat(first.seq()).isZero();
+        assertThat(first.attempt()).isEqualTo(1);
+        assertThat(first.header()).isEqualTo("\"symbol\"");
+        assertThat(second.seq()).isEqualTo(1);
+        assertThat(second.lineOffset()).isEqualTo(10);
+        assertThat(new String(second.data())).isEqualTo("AAPL1");
+        assertThat(queue.claimChunk("node-c")).isEmpty();
+        assertThat(queue.findJob("job-1").orElseThrow().getStatus()).isEqualTo(ImportJobStatus.RUNNING);
+    }
+
+    @Test
+    void concurrentClaimsGetDistinctChunks() throws Exception {
+        int chunks = 40;
+        job("job-1", chunks);
+
+        ExecutorService nodes = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Integer>>> claimed = new ArrayList<>();
+            for (int n = 0; n < 4; n++) {
+                String node = "node-" + n;
+                claimed.add(nodes.submit(() -> {
+                    List<Integer> seqs = new ArrayList<>();
+                    for (Optional<ImportChunk> c = queue.claimChunk(node); c.isPresent(); c = queue.claimChunk(node)) {
+                        seqs.add(c.get().seq());
+                    }
+                    return seqs;
+                }));
+            }
+            List<Integer> all = new ArrayList<>();
+            for (Future<List<Integer>> f : claimed) {
+                all.addAll(f.get());
+            }
+            assertThat(all).hasSize(chunks).doesNotHaveDuplicates();
+        } finally {
+            nodes.shutdownNow();
+        }
+    }
+
+    @Test
+    void completingLastChunkFinishesJobWithTotals() {
+        job("job-1", 2);
+        ImportChunk first = queue.claimChunk("node-a").orElseThrow();
+        ImportChunk second = queue.claimChunk("node-b").orElseThrow();
+
+        assertThat(queue.completeChunk(first, "node-a", rows(2))).isEmpty();
+        assertThat(queue.completeChunk(second, "node-b", rows(3))).contains(ImportJobStatus.COMPLETED);
+
+        var job = queue.findJob("job-1").orElseThrow();
+        assertThat(job.getStatus()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(job.getProgress().getRowsInserted()).isEqualTo(5);
+        assertThat(job.getProgress().getRowsParsed()).isEqualTo(5);
+        assertThat(db.jdbc().queryForObject("SELECT count(*) FROM import_chunks", Long.class)).isZero();
+    }
+
+    @Test
+    void reclaimsStalledChunkAndFencesOutFormerOwner() {
+        job("job-1", 1);
+        ImportChunk lost = queue.claimChunk("node-a").orElseThrow();
+        stall(lost);
+
+        assertThat(queue.reclaimStalledChunks(Duration.ofSeconds(30), MAX_ATTEMPTS)).isEmpty();
+        assertThat(chunkStatus(lost)).isEqualTo("QUEUED");
+
+        ImportChunk retry = queue.claimChunk("node-b").orElseThrow();
+        assertThat(retry.id()).isEqualTo(lost.id());
+        assertThat(retry.attempt()).isEqualTo(2);
+
+        // node-a comes back and finishes its attempt: neither its counters nor its failure count
+        assertThat(queue.completeChunk(lost, "node-a", rows(1))).isEmpty();
+        assertThat(queue.releaseChunk(lost, "node-a", "too late", MAX_ATTEMPTS)).isEmpty();
+        assertThat(chunkStatus(retry)).isEqualTo("RUNNING");
+        // same node, older attempt
+        assertThat(queue.completeChunk(lost, "node-b", rows(1))).isEmpty();
+
+        assertThat(queue.completeChunk(retry, "node-b", rows(4))).contains(ImportJobStatus.COMPLETED);
+        assertThat(queue.findJob("job-1").orElseThrow().getProgress().getRowsInserted()).isEqualTo(4);
+    }
+
+    @Test
+    void heartbeatKeepsChunkClaimed() {
+        job("job-1", 1);
+        ImportChunk chunk = queue.claimChunk("node-a").orElseThrow();
+        stall(chunk);
+
+        queue.heartbeat("node-b", List.of(chunk.id()));
+        queue.heartbeat("node-a", List.of(chunk.id()));
+        queue.reclaimStalledChunks(Duration.ofSeconds(30), MAX_ATTEMPTS);
+
+        assertThat(chunkStatus(chunk)).isEqualTo("RUNNING");
+    }
+
+    @Test
+    void failsJobAfterMaxAttempts() {
+        job("job-1", 2);
+        ImportChunk ok = queue.claimChunk("node-a").orElseThrow();
+        queue.completeChunk(ok, "node-a", rows(1));
+
+        for (int attempt = 1; attempt < MAX_ATTEMPTS; attempt++) {
+            ImportChunk chunk = queue.claimChunk("node-a").orElseThrow();
+            assertThat(queue.releaseChunk(chunk, "node-a", "broken", MAX_ATTEMPTS)).isEmpty();
+        }
+        ImportChunk last = queue.claimChunk("node-a").orElseThrow();
+        stall(last);
+
+        assertThat(queue.reclaimStalledChunks(Duration.ofSeconds(30), MAX_ATTEMPTS)).containsExactly("job-1");
+        var job = queue.findJob("job-1").orElseThrow();
+        assertThat(job.getStatus()).isEqualTo(ImportJobStatus.FAILED);
+        assertThat(job.getErrorMessage()).startsWith("Chunk 1: No heartbeat from node-a");
+        assertThat(job.getProgress().getRowsInserted()).isEqualTo(1);
+    }
+
+    @Test
+    void releasesChunksOfNodeOnShutdown() {
+        job("job-1", 2);
+        ImportChunk a = queue.claimChunk("node-a").orElseThrow();
+        ImportChunk b = queue.claimChunk("node-b").orElseThrow();
+
+        assertThat(queue.releaseChunks("node-a")).isEqualTo(1);
+
+        assertThat(chunkStatus(a)).isEqualTo("QUEUED");
+        assertThat(chunkStatus(b)).isEqualTo("RUNNING");
+    }
+
+    @Test
+    void finishesJobWithoutChunks() {
+        job("job-1", 0);
+
+        assertThat(queue.finishJobIfDone("job-1")).contains(ImportJobStatus.COMPLETED);
+        assertThat(queue.finishJobIfDone("job-1")).isEmpty();
+    }
+}
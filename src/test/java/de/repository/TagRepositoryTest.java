@@ -0,0 +1,68 @@
+package de.repository;
+
+import de.model.trade.Trade;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TagRepositoryTest {
+
+    private static TestDatabase db;
+    private static TransactionTemplate transaction;
+
+    @BeforeAll
+    static void migrate() {
+        db = TestDatabase.migrated("tags");
+        transaction = new TransactionTemplate(new DataSourceTransactionManager(db.dataSource()));
+    }
+
+    @AfterAll
+    static void drop() {
+        if (db != null) db.close();
+    }
+
+    private static Trade tagged(String... tags) {
+        return new Trade("AAPL", 100.0, 110.0, 1.0, null, LocalDateTime.of(2024, 1, 5, 10, 0), Set.of(tags), null);
+    }
+
+    @Test
+    void internsNewTagsRightAway() {
+        TagRepository tags = new TagRepository(db.jdbc());
+
+        tags.ensureTags(List.of(tagged("momentum", "news")));
+
+        assertThat(db.jdbc().queryForObject("SELECT id FROM tags WHERE name = 'news'", Integer.class))
+                .isEqualTo(tags.id("news"));
+        // a second instance loads the dictionary and inserts nothing
+        TagRepository other = new TagRepository(db.jdbc());
+        other.ensureTags(List.of(tagged("momentum")));
+        assertThat(other.id("momentum")).isEqualTo(tags.id("momentum"));
+        assertThat(db.jdbc().queryForObject("SELECT count(*) FROM tags WHERE name = 'momentum'", Long.class))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void forgetsTagsOfRolledBackTransaction() {
+        TagRepository tags = new TagRepository(db.jdbc());
+
+        transaction.executeWithoutResult(status -> {
+            tags.ensureTags(List.of(tagged("halted")));
+            assertThat(tags.id("halted")).isPositive();
+            status.setRollbackOnly();
+        });
+
+        assertThatThrownBy(() -> tags.id("halted")).isInstanceOf(IllegalStateException.class);
+        tags.ensureTags(List.of(tagged("halted")));
+        assertThat(db.jdbc().queryForObject("SELECT id FROM tags WHERE name = 'halted'", Integer.class))
+                .isEqualTo(tags.id("halted"));
+    }
+}
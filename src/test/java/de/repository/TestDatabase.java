@@ -0,0 +1,76 @@
+package de.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Assumptions;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.SQLException;
+
+/**
+ * A schema of its own in the local PostgreSQL for tests that need the real database. Connection as for the
+ * benchmarks ({@code -Dtest.jdbc.url=... -Dtest.jdbc.user=... -Dtest.jdbc.password=...}); without a reachable
+ * database the tests are skipped.
+ */
+public final class TestDatabase implements AutoCloseable {
+
+    private final String schema;
+    private final DriverManagerDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    private TestDatabase(String schema, DriverManagerDataSource dataSource) {
+        this.schema = schema;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Empty schema {@code tradesense_test_<name>}, dropped first if a previous run left it behind.
+     */
+    public static TestDatabase create(String name) {
+        String url = System.getProperty("test.jdbc.url", "jdbc:postgresql://localhost:5432/tradesense");
+        String schema = "tradesense_test_" + name;
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                url + (url.contains("?") ? "&" : "?") + "currentSchema=" + schema,
+                System.getProperty("test.jdbc.user", "postgres"),
+                System.getProperty("test.jdbc.password", "postgres"));
+        try {
+            dataSource.getConnection().close();
+        } catch (SQLException e) {
+            Assumptions.abort("PostgreSQL not available: " + e.getMessage());
+        }
+        TestDatabase db = new TestDatabase(schema, dataSource);
+        db.jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+        return db;
+    }
+
+    /**
+     * Schema created by the Flyway migrations of the application.
+     */
+    public static TestDatabase migrated(String name) {
+        TestDatabase db = create(name);
+        db.flyway().migrate();
+        return db;
+    }
+
+    public Flyway flyway() {
+        return Flyway.configure().dataSource(dataSource).schemas(schema).load();
+    }
+
+    public String schema() {
+        return schema;
+    }
+
+    public DriverManagerDataSource dataSource() {
+        return dataSource;
+    }
+
+    public JdbcTemplate jdbc() {
+        return jdbcTemplate;
+    }
+
+    @Override
+    public void close() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+    }
+}
@@ -0,0 +1,74 @@
+package de.repository;
+
+import de.model.trade.Trade;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TradeBatchRepository.class, TagRepository.class})
+class TradeRepositoryTest {
+
+    private static final LocalDateTime TIME = LocalDateTime.of(2024, 1, 5, 10, 0);
+
+    private static TestDatabase db;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private TradeBatchRepository tradeBatchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void createSchema() {
+        db = TestDatabase.create("trade_repository");
+    }
+
+    @AfterAll
+    static void dropSchema() {
+        db.close();
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> db.dataSource().getUrl());
+        registry.add("spring.datasource.username", () -> db.dataSource().getUsername());
+        registry.add("spring.datasource.password", () -> db.dataSource().getPassword());
+        registry.add("spring.flyway.schemas", () -> db.schema());
+    }
+
+    @Test
+    void businessKeyWithoutEntryPriceIsFoundAndNotInsertedTwice() {
+        jdbcTemplate.execute("SELECT create_trades_partition(DATE '2024-01-01')");
+        assertThat(tradeBatchRepository.insertAll(List.of(trade(100.0), trade(null)))).hasSize(2);
+
+        List<Object[]> existing = tradeRepository.findExistingKeys(
+                new String[]{"AAPL", "AAPL", "AAPL"}, new Double[]{100.0, null, 101.0}, new LocalDateTime[]{TIME, TIME, TIME});
+        assertThat(existing).extracting(row -> row[1]).containsExactlyInAnyOrder(100.0, null);
+
+        // imported again: the constraint skips it as well
+        assertThat(tradeBatchRepository.insertAll(List.of(trade(null)))).isEmpty();
+        assertThat(tradeRepository.count()).isEqualTo(2);
+    }
+
+    private static Trade trade(Double entryPrice) {
+        return new Trade("AAPL", entryPrice, 110.0, 1.0, null, TIME, Set.of(), null);
+    }
+}
@@ -0,0 +1,54 @@
+package de.repository;
+
+import de.model.trade.TradeFilter;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TradeSearchRepositoryTest {
+
+    private static final TradeFilter ALL = new TradeFilter(null, null, null, null);
+
+    private static TestDatabase db;
+    private static TradeSearchRepository repository;
+
+    @BeforeAll
+    static void seed() {
+        db = TestDatabase.migrated("search");
+        repository = new TradeSearchRepository(db.jdbc());
+        db.jdbc().execute("SELECT create_trades_partition(date '2024-03-01')");
+        // one breakout more than are ranked, and a single squeeze; one a minute from 2024-03-01
+        db.jdbc().update("INSERT INTO trades (symbol, entry_price, exit_price, quantity, profit_loss, timestamp, notes, " +
+                "search_vector) SELECT 'AAPL', g, g, 1, 0, timestamp '2024-03-01' + g * interval '1 minute', n, " +
+                "trade_search_vector('AAPL', NULL, n) FROM generate_series(1, ?) g, " +
+                "LATERAL (SELECT CASE WHEN g = 1 THEN 'short squeeze' ELSE 'clean breakout' END) AS x(n)",
+                TradeSearchRepository.MAX_RANKED_HITS + 2);
+    }
+
+    @AfterAll
+    static void drop() {
+        if (db != null) db.close();
+    }
+
+    @Test
+    void flagsMatchesBeyondTheRankedWindow() {
+        TradeSearchRepository.Result result = repository.search("breakout", ALL, null, 5);
+
+        assertThat(result.truncated()).isTrue();
+        assertThat(result.hits()).hasSize(5);
+        // the oldest breakout (minute 2) is not ranked
+        assertThat(repository.search("breakout", ALL, null, TradeSearchRepository.MAX_RANKED_HITS + 5).hits())
+                .hasSize(TradeSearchRepository.MAX_RANKED_HITS)
+                .noneMatch(hit -> hit.trade().entryPrice() == 2.0);
+    }
+
+    @Test
+    void doesNotFlagCompleteResults() {
+        TradeSearchRepository.Result result = repository.search("squeeze", ALL, null, 5);
+
+        assertThat(result.truncated()).isFalse();
+        assertThat(result.hits()).extracting(hit -> hit.trade().notes()).containsExactly("short squeeze");
+    }
+}
@@ -0,0 +1,107 @@
+package de.service.impl;
+
+import de.config.ImportProperties;
+import de.model.importjob.ChunkedUpload;
+import de.model.importjob.ImportFormat;
+import de.model.importjob.ImportJob;
+import de.service.ImportJobService;
+import de.service.UploadOffsetException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChunkedUploadServiceImplTest {
+
+    private static final byte[] CONTENT = "symbol\nAAPL\n".getBytes(StandardCharsets.UTF_8);
+    private static final String CONTENT_SHA256 = "7cebeea909b7e02c5c32625c084b4ee402dd75a4dbdd900cf7f53aea0a7c0c00";
+
+    @TempDir
+    Path spoolDir;
+
+    private final ImportJobService importJobService = Mockito.mock(ImportJobService.class);
+    private ImportProperties props;
+
+    @BeforeEach
+    void setUp() {
+        props = new ImportProperties();
+        props.setSpoolDir(spoolDir);
+    }
+
+    @Test
+    void resumesAfterBrokenChunkAndAfterRestart() throws Exception {
+        ChunkedUploadServiceImpl service = new ChunkedUploadServiceImpl(importJobService, props);
+        ChunkedUpload upload = service.create("trades.csv", CONTENT.length, null);
+
+        // the connection breaks after 4 bytes: they are kept
+        assertThatThrownBy(() -> service.writeChunk(upload.getId(), 0, breakingAfter(4))).isInstanceOf(IOException.class);
+        assertThat(upload.getOffset()).isEqualTo(4);
+        assertThatThrownBy(() -> service.writeChunk(upload.getId(), 0, chunk(0, CONTENT.length)))
+                .isInstanceOfSatisfying(UploadOffsetException.class, e -> assertThat(e.getOffset()).isEqualTo(4));
+
+        // a new instance only has the files
+        ChunkedUploadServiceImpl restarted = new ChunkedUploadServiceImpl(importJobService, props);
+        assertThat(restarted.find(upload.getId())).hasValueSatisfying(u -> assertThat(u.getOffset()).isEqualTo(4));
+        ChunkedUpload done = restarted.writeChunk(upload.getId(), 4, chunk(4, CONTENT.length));
+        assertThat(done.isComplete()).isTrue();
+
+        ImportJob job = new ImportJob("job-1", "trades.csv", ImportFormat.CSV, spoolDir.resolve("job-1.csv"),
+                CONTENT.length, CONTENT_SHA256);
+        when(importJobService.submit(any(), eq("trades.csv"), eq(CONTENT_SHA256))).thenAnswer(inv -> {
+            Path part = inv.getArgument(0);
+            assertThat(Files.readAllBytes(part)).isEqualTo(CONTENT);
+            Files.move(part, job.getSpoolFile());
+            return job;
+        });
+        assertThat(restarted.complete(upload.getId(), CONTENT_SHA256)).isSameAs(job);
+        assertThat(restarted.find(upload.getId())).isEmpty();
+    }
+
+    @Test
+    void rejectsChunkBeyondSizeAndContentWithWrongHash() throws Exception {
+        ChunkedUploadServiceImpl service = new ChunkedUploadServiceImpl(importJobService, props);
+        ChunkedUpload upload = service.create("trades.csv", CONTENT.length - 1, null);
+
+        assertThatThrownBy(() -> service.writeChunk(upload.getId(), 0, chunk(0, CONTENT.length)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(upload.getOffset()).isZero();
+        assertThatThrownBy(() -> service.complete(upload.getId(), null)).isInstanceOf(IllegalStateException.class);
+
+        service.writeChunk(upload.getId(), 0, chunk(0, CONTENT.length - 1));
+        assertThatThrownBy(() -> service.complete(upload.getId(), CONTENT_SHA256))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(importJobService, never()).submit(any(), any(), any());
+        assertThat(service.find(upload.getId())).isEmpty();
+    }
+
+    private static InputStream chunk(int from, int to) {
+        return new ByteArrayInputStream(CONTENT, from, to - from);
+    }
+
+    private static InputStream breakingAfter(int bytes) {
+        return new InputStream() {
+            private int read;
+
+            @Override
+            public int read() throws IOException {
+                if (read == bytes) throw new IOException("connection reset");
+                return CONTENT[read++];
+            }
+        };
+    }
+}
@@ -0,0 +1,189 @@
+package de.service.impl;
+
+import de.config.ImportProperties;
+import de.model.importjob.ImportFormat;
+import de.model.importjob.ImportJob;
+import de.model.importjob.ImportJobStatus;
+import de.model.trade.ImportResult;
+import de.repository.ImportQueueRepository;
+import de.repository.ImportedFileRepository;
+import de.repository.TestDatabase;
+import de.service.TradesService;
+import de.service.impl.xlsx.XlsxSheetReader;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+class ClusterImportJobServiceImplTest {
+
+    private static TestDatabase db;
+    private static ImportQueueRepository queue;
+    private static DataSourceTransactionManager transactionManager;
+
+    @TempDir
+    Path spoolDir;
+
+    private final TradesService tradesService = Mockito.mock(TradesService.class);
+    private final ImportedFileRepository importedFileRepository = Mockito.mock(ImportedFileRepository.class);
+    // lines (CSV) or rows (XLSX) the workers passed to the import, one list per chunk
+    private final List<List<String>> imported = Collections.synchronizedList(new ArrayList<>());
+    private ClusterImportJobServiceImpl service;
+
+    @BeforeAll
+    static void migrate() {
+        db = TestDatabase.migrated("cluster_import");
+        transactionManager = new DataSourceTransactionManager(db.dataSource());
+        queue = new ImportQueueRepository(db.jdbc(), transactionManager);
+    }
+
+    @AfterAll
+    static void drop() {
+        if (db != null) db.close();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        db.jdbc().update("DELETE FROM import_jobs");
+        ImportProperties props = new ImportProperties();
+        props.setSpoolDir(spoolDir);
+        props.setMaxConcurrentJobs(2);
+        props.setQueueChunkSize(40);
+        props.setQueuePollInterval(Duration.ofMillis(50));
+        service = new ClusterImportJobServiceImpl(tradesService, queue, importedFileRepository, props,
+                transactionManager, new MockEnvironment());
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        service.shutdown();
+    }
+
+    private ImportJob awaitDone(ImportJob job) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            ImportJob current = service.findJob(job.getId()).orElseThrow();
+            if (current.isDone()) return current;
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Import job " + job.getId() + " did not finish");
+    }
+
+    @Test
+    void importsCsvInChunksWithLineNumbersOfTheFile() throws Exception {
+        StringBuilder csv = new StringBuilder("symbol,entryPrice,exitPrice\n");
+        for (int i = 1; i <= 12; i++) {
+            csv.append("SYM").append(i).append(',').append(100 + i).append(".5,").append(110 + i).append('\n');
+        }
+        List<String> fileLines = csv.toString().lines().toList();
+        doAnswer(inv -> {
+            List<String> lines = Files.readAllLines(inv.<Path>getArgument(0));
+            long lineOffset = inv.getArgument(2);
+            ImportResult progress = inv.getArgument(3);
+            List<String> rows = new ArrayList<>();
+            // line 1 is the header, line n of the chunk is line n + lineOffset of the file
+            for (int n = 2; n <= lines.size(); n++) {
+                assertThat(fileLines.get((int) (n + lineOffset) - 1)).isEqualTo(lines.get(n - 1));
+                rows.add(lines.get(n - 1));
+                progress.rowParsed();
+            }
+            progress.rowsInserted(rows.size());
+            imported.add(rows);
+            return null;
+        }).when(tradesService).importTrades(any(), eq(ImportFormat.CSV), anyLong(), any());
+
+        ImportJob job = awaitDone(service.submit(
+                new MockMultipartFile("file", "trades.csv", "text/csv", csv.toString().getBytes())));
+
+        assertThat(job.getStatus()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(job.getProgress().getRowsInserted()).isEqualTo(12);
+        assertThat(imported).hasSizeGreaterThan(1);
+        assertThat(imported.stream().flatMap(List::stream))
+                .containsExactlyInAnyOrderElementsOf(fileLines.subList(1, fileLines.size()));
+    }
+
+    @Test
+    void importsXlsxInChunksOfWholeRows() throws Exception {
+        ByteArrayOutputStream xlsx = new ByteArrayOutputStream();
+        List<String> expected = new ArrayList<>();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Trades");
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("symbol");
+            header.createCell(1).setCellValue("entryPrice");
+            header.createCell(2).setCellValue("timestamp");
+            for (int i = 1; i <= 12; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue("SYM" + i);
+                row.createCell(1).setCellValue(100.5 + i);
+                row.createCell(2).setCellValue("2024-01-%02dT10:00:00".formatted(i));
+                expected.add(i + " SYM" + i + " " + (100.5 + i) + "=number 2024-01-%02dT10:00:00".formatted(i));
+            }
+            workbook.write(xlsx);
+        }
+        doAnswer(inv -> {
+            ImportResult progress = inv.getArgument(3);
+            List<String> rows = new ArrayList<>();
+            XlsxSheetReader.readFirstSheet(inv.<Path>getArgument(0).toFile(), 0, row -> {
+                if (row.getRowNum() == 0) {
+                    assertThat(row.getString(0)).isEqualTo("symbol");
+                    return;
+                }
+                rows.add(row.getRowNum() + " " + row.getString(0) + " " + row.getNumber(1)
+                        + (row.isNumeric(1) ? "=number " : "=text ") + row.getString(2));
+                progress.rowParsed();
+            });
+            assertThat(inv.<Long>getArgument(2)).isZero();
+            progress.rowsInserted(rows.size());
+            imported.add(rows);
+            return null;
+        }).when(tradesService).importTrades(any(), eq(ImportFormat.XLSX), anyLong(), any());
+
+        ImportJob job = awaitDone(service.submit(new MockMultipartFile("file", "trades.xlsx",
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", xlsx.toByteArray())));
+
+        assertThat(job.getStatus()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(job.getProgress().getRowsInserted()).isEqualTo(12);
+        assertThat(imported).hasSizeGreaterThan(1);
+        assertThat(imported.stream().flatMap(List::stream)).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void failedChunkIsRetriedAndThenFailsJob() throws Exception {
+        doAnswer(inv -> {
+            throw new IllegalStateException("broken chunk");
+        }).when(tradesService).importTrades(any(), eq(ImportFormat.CSV), anyLong(), any());
+
+        ImportJob job = awaitDone(service.submit(
+                new MockMultipartFile("file", "trades.csv", "text/csv", "symbol\nAAPL\n".getBytes())));
+
+        assertThat(job.getStatus()).isEqualTo(ImportJobStatus.FAILED);
+        assertThat(job.getErrorMessage()).isEqualTo("Chunk 0: broken chunk");
+        Mockito.verify(tradesService, Mockito.times(new ImportProperties().getChunkMaxAttempts()))
+                .importTrades(any(), eq(ImportFormat.CSV), anyLong(), any());
+    }
+}
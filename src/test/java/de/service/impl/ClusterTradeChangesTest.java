@@ -0,0 +1,52 @@
+package de.service.impl;
+
+import de.config.ImportProperties;
+import de.service.TradesChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ClusterTradeChangesTest {
+
+    private final JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+    private final ApplicationEventPublisher eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+    private final ClusterTradeChanges changes = new ClusterTradeChanges(jdbcTemplate, eventPublisher, new ImportProperties());
+
+    @Test
+    void publishesOnlyChangesCommittedByOtherNodes() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT"), eq(Long.class))).thenReturn(5L, 6L, 8L, 8L);
+        assertThat(changes.poll()).isFalse();
+
+        commitHere(6L);
+        assertThat(changes.poll()).isFalse();
+
+        // 7 was committed by another node
+        commitHere(8L);
+        assertThat(changes.poll()).isTrue();
+        assertThat(changes.poll()).isFalse();
+        verify(eventPublisher, times(1)).publishEvent(TradesChangedEvent.external());
+    }
+
+    private void commitHere(long generation) {
+        when(jdbcTemplate.queryForObject(startsWith("UPDATE"), eq(Long.class))).thenReturn(generation);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            changes.onTradesChanged(TradesChangedEvent.inserted(List.of()));
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
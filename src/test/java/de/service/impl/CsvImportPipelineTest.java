@@ -0,0 +1,65 @@
+package de.service.impl;
+
+import de.config.ImportProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class CsvImportPipelineTest {
+
+    private final CsvImportPipeline pipeline = newPipeline();
+
+    private static CsvImportPipeline newPipeline() {
+        ImportProperties props = new ImportProperties();
+        props.setCsvChunkSize(64);
+        props.setParserThreads(2);
+        return new CsvImportPipeline(props);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void passesAnErrorOfTheReaderThreadToTheWriter() {
+        StringBuilder csv = new StringBuilder("symbol\n");
+        for (int i = 0; i < 100; i++) {
+            csv.append("SYM").append(i).append('\n');
+        }
+        // fails while the reader thread cuts the second chunk, the first one is read by the caller
+        FilterReader in = new FilterReader(new StringReader(csv.toString())) {
+            private int read;
+
+            @Override
+            public int read(char[] buf, int off, int len) throws IOException {
+                if (read > 100) throw new OutOfMemoryError("Java heap space");
+                int n = super.read(buf, off, len);
+                read += Math.max(n, 0);
+                return n;
+            }
+        };
+        List<Integer> chunks = new ArrayList<>();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () ->
+                assertThatThrownBy(() -> pipeline.run(in, header -> records -> {
+                    int count = 0;
+                    while (records.next()) count++;
+                    return count;
+                }, chunks::add))
+                        .isInstanceOf(ExecutionException.class)
+                        .hasCauseInstanceOf(OutOfMemoryError.class));
+        assertThat(chunks).isNotEmpty();
+    }
+}
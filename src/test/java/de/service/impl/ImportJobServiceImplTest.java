@@ -0,0 +1,119 @@
+package de.service.impl;
+
+import de.config.ImportProperties;
+import de.model.importjob.ImportFormat;
+import de.model.importjob.ImportJob;
+import de.model.importjob.ImportJobStatus;
+import de.model.importjob.ImportedFile;
+import de.model.trade.ImportResult;
+import de.repository.ImportedFileRepository;
+import de.service.DuplicateImportException;
+import de.service.ImportRejectedException;
+import de.service.TradesService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImportJobServiceImplTest {
+
+    @TempDir
+    Path spoolDir;
+
+    // SHA-256 of "symbol\nAAPL\n"
+    private static final String CSV_SHA256 = "7cebeea909b7e02c5c32625c084b4ee402dd75a4dbdd900cf7f53aea0a7c0c00";
+
+    private final ImportedFileRepository importedFileRepository = Mockito.mock(ImportedFileRepository.class);
+    private ImportJobServiceImpl importJobService;
+
+    @AfterEach
+    void tearDown() {
+        importJobService.shutdown();
+    }
+
+    private ImportJobServiceImpl newService(TradesService tradesService, int workers, int queue) throws Exception {
+        ImportProperties props = new ImportProperties();
+        props.setSpoolDir(spoolDir);
+        props.setMaxConcurrentJobs(workers);
+        props.setQueueCapacity(queue);
+        importJobService = new ImportJobServiceImpl(tradesService, importedFileRepository, props, new MockEnvironment());
+        return importJobService;
+    }
+
+    private static MockMultipartFile csv(String name) {
+        return new MockMultipartFile("file", name, "text/csv", "symbol\nAAPL\n".getBytes());
+    }
+
+    @Test
+    void runsJobInBackgroundAndReportsProgress() throws Exception {
+        TradesService tradesService = Mockito.mock(TradesService.class);
+        doAnswer(inv -> {
+            Path file = inv.getArgument(0);
+            assertThat(Files.readString(file)).startsWith("symbol");
+            ImportResult progress = inv.getArgument(2);
+            progress.rowParsed();
+            progress.rowsInserted(1);
+            return null;
+        }).when(tradesService).importTrades(any(), eq(ImportFormat.CSV), any());
+
+        ImportJob job = newService(tradesService, 1, 1).submit(csv("trades.csv"));
+
+        for (int i = 0; i < 100 && !job.isDone(); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(job.getStatus()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(job.getProgress().getRowsInserted()).isEqualTo(1);
+        assertThat(importJobService.findJob(job.getId())).containsSame(job);
+        assertThat(Files.exists(job.getSpoolFile())).isFalse();
+        verify(importedFileRepository).save(Mockito.argThat(f -> f.sha256().equals(job.getContentHash())
+                && f.rowsInserted() == 1 && f.jobId().equals(job.getId())));
+    }
+
+    @Test
+    void rejectsFileThatWasImportedBeforeWithoutParsingIt() throws Exception {
+        TradesService tradesService = Mockito.mock(TradesService.class);
+        ImportJobServiceImpl service = newService(tradesService, 1, 1);
+        ImportedFile previous = new ImportedFile(CSV_SHA256, "trades.csv", 12, 1, "job-1", Instant.now());
+        when(importedFileRepository.find(CSV_SHA256)).thenReturn(Optional.of(previous));
+
+        assertThatThrownBy(() -> service.submit(csv("again.csv")))
+                .isInstanceOfSatisfying(DuplicateImportException.class, e -> assertThat(e.getPrevious()).isSameAs(previous));
+        verify(tradesService, never()).importTrades(any(), any(), any());
+        assertThat(service.findJobs()).isEmpty();
+        try (Stream<Path> spooled = Files.list(spoolDir)) {
+            assertThat(spooled).isEmpty();
+        }
+    }
+
+    @Test
+    void rejectsUploadsWhenAllSlotsAndQueueAreTaken() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TradesService tradesService = Mockito.mock(TradesService.class);
+        doAnswer(inv -> release.await(5, TimeUnit.SECONDS)).when(tradesService).importTrades(any(), any(), any());
+        ImportJobServiceImpl service = newService(tradesService, 1, 1);
+
+        service.submit(csv("running.csv"));
+        service.submit(csv("queued.csv"));
+        assertThatThrownBy(() -> service.submit(csv("rejected.csv"))).isInstanceOf(ImportRejectedException.class);
+        release.countDown();
+    }
+}
@@ -0,0 +1,76 @@
+package de.service.impl;
+
+import de.model.trade.Trade;
+import de.repository.TradeQueryRepository;
+import de.service.TradesChangedEvent;
+import de.service.impl.analytics.TradeColumnStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.transaction.event.TransactionalEventListenerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TradeDataVersionTest {
+
+    private final TradeQueryRepository tradeQueryRepository = Mockito.mock(TradeQueryRepository.class);
+    private AnnotationConfigApplicationContext context;
+    private TradeColumnStore columnStore;
+    // column store size whenever the generation moved on
+    private final List<Integer> sizesAtAdvance = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        columnStore = new TradeColumnStore(tradeQueryRepository);
+        TradeDataVersion version = Mockito.spy(new TradeDataVersion());
+        doAnswer(inv -> {
+            sizesAtAdvance.add(columnStore.snapshot().size());
+            return inv.callRealMethod();
+        }).when(version).onTradesChanged(any());
+
+        context = new AnnotationConfigApplicationContext();
+        context.registerBean(TransactionalEventListenerFactory.class);
+        // registered first, so the order does not come from the registration
+        context.registerBean(TradeDataVersion.class, () -> version);
+        context.registerBean(TradeColumnStore.class, () -> columnStore);
+        context.refresh();
+        columnStore.snapshot();
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void advancesGenerationAfterColumnStoreTookTheTrades() {
+        Trade trade = new Trade("AAPL", 100.0, 110.0, 1.0, null, LocalDateTime.of(2025, 10, 16, 9, 30), Set.of(), null);
+        trade.setId(1L);
+
+        context.publishEvent(TradesChangedEvent.inserted(List.of(trade)));
+
+        assertThat(sizesAtAdvance).containsExactly(1);
+        assertThat(context.getBean(TradeDataVersion.class).current()).isEqualTo(1);
+    }
+
+    @Test
+    void advancesGenerationAfterColumnStoreDroppedItsSnapshotForOtherNodes() {
+        context.publishEvent(TradesChangedEvent.external());
+
+        // loaded again when the generation moved: the old snapshot was already dropped
+        assertThat(sizesAtAdvance).hasSize(1);
+        verify(tradeQueryRepository, times(2)).streamAllById(any());
+        assertThat(context.getBean(TradeDataVersion.class).current()).isEqualTo(1);
+    }
+}
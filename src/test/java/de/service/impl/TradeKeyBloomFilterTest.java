@@ -0,0 +1,35 @@
+package de.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TradeKeyBloomFilterTest {
+
+    @Test
+    void neverReportsAddedKeysAsMissingAndKeepsFalsePositivesLow() {
+        TradeKeyBloomFilter filter = new TradeKeyBloomFilter(10_000, 0.01);
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("SYM" + (i % 50), 100.0 + i, base.plusMinutes(i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("SYM" + (i % 50), 100.0 + i, base.plusMinutes(i))).isTrue();
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("OTHER" + i, 100.0 + i, base.plusMinutes(i))) falsePositives++;
+        }
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    @Test
+    void handlesMissingPriceAndTimestamp() {
+        TradeKeyBloomFilter filter = new TradeKeyBloomFilter(100, 0.01);
+        filter.add("AAPL", null, null);
+        assertThat(filter.mightContain("AAPL", null, null)).isTrue();
+    }
+}
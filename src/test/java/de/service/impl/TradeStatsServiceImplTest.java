@@ -0,0 +1,53 @@
+package de.service.impl;
+
+import de.model.stats.StatsDimension;
+import de.model.stats.TradeStatsEntry;
+import de.model.trade.Trade;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class TradeStatsServiceImplTest {
+
+    @Test
+    void foldsTradesIntoOneSortedDeltaPerGroup() {
+        LocalDateTime ts = LocalDateTime.of(2025, 10, 16, 10, 0);
+        Trade win = new Trade("MSFT", 100.0, 110.0, 2.0, null, ts, Set.of("swing"), null);
+        Trade loss = new Trade("AAPL", 50.0, 45.0, 1.0, null, ts, Set.of("swing", "news"), null);
+        Trade open = new Trade("AAPL", 60.0, null, 1.0, null, ts, Set.of(), null);
+
+        List<TradeStatsEntry> deltas = TradeStatsServiceImpl.deltas(List.of(win, loss, open), 1);
+
+        assertThat(deltas).extracting(TradeStatsEntry::getDimension, TradeStatsEntry::getName)
+                .containsExactly(
+                        tuple(StatsDimension.TOTAL, ""),
+                        tuple(StatsDimension.SYMBOL, "AAPL"),
+                        tuple(StatsDimension.SYMBOL, "MSFT"),
+                        tuple(StatsDimension.TAG, "news"),
+                        tuple(StatsDimension.TAG, "swing"));
+        TradeStatsEntry total = deltas.get(0);
+        assertThat(total.getTradeCount()).isEqualTo(3);
+        assertThat(total.getProfitLossSum()).isEqualTo(15.0);
+        assertThat(total.getWinCount()).isEqualTo(1);
+        TradeStatsEntry aapl = deltas.get(1);
+        assertThat(aapl.getTradeCount()).isEqualTo(2);
+        assertThat(aapl.getProfitLossSum()).isEqualTo(-5.0);
+        assertThat(aapl.getWinCount()).isZero();
+    }
+
+    @Test
+    void removalProducesNegativeDeltas() {
+        Trade win = new Trade("MSFT", 100.0, 110.0, 2.0, null, null, Set.of(), null);
+
+        TradeStatsEntry total = TradeStatsServiceImpl.deltas(List.of(win), -1).get(0);
+
+        assertThat(total.getTradeCount()).isEqualTo(-1);
+        assertThat(total.getProfitLossSum()).isEqualTo(-20.0);
+        assertThat(total.getWinCount()).isEqualTo(-1);
+    }
+}
@@ -1,46 +1,100 @@
 package de.service.impl;
 
+import de.config.ImportProperties;
+import de.model.importjob.ImportFormat;
+import de.model.trade.ImportResult;
 import de.model.trade.Trade;
+import de.model.trade.TradeFilter;
+import de.model.trade.TradeSearchCursor;
+import de.model.trade.TradeSearchHit;
+import de.model.trade.TradeSearchPage;
+import de.model.trade.TradeView;
+import de.repository.TradePartitionRepository;
+import de.repository.TradeQueryRepository;
 import de.repository.TradeRepository;
+import de.repository.TradeSearchRepository;
+import de.service.TradeStatsService;
+import de.service.impl.format.NamedColumnsFormat;
+import de.service.impl.format.PositionalColumnsFormat;
+import de.service.impl.format.TradeSourceFormats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.mock.web.MockMultipartFile;
 
 import java.io.ByteArrayOutputStream;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class TradesServiceImplTest {
     private TradeRepository tradeRepository;
+    private TradeBatchWriter tradeBatchWriter;
+    private TradeQueryRepository tradeQueryRepository;
+    private TradeSearchRepository tradeSearchRepository;
     private TradesServiceImpl tradesService;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @BeforeEach
     void setUp() {
         tradeRepository = Mockito.mock(TradeRepository.class);
-        tradesService = new TradesServiceImpl(tradeRepository);
+        tradeBatchWriter = Mockito.mock(TradeBatchWriter.class);
+        tradeQueryRepository = Mockito.mock(TradeQueryRepository.class);
+        tradeSearchRepository = Mockito.mock(TradeSearchRepository.class);
+        ImportProperties importProperties = new ImportProperties();
+        importProperties.setBatchSize(2);
+        // tiny chunks, so the CSV tests run through several parser threads
+        importProperties.setCsvChunkSize(64);
+        importProperties.setParserThreads(4);
+        TradeDeduplicator deduplicator = new TradeDeduplicator(tradeRepository, importProperties);
+        tradesService = new TradesServiceImpl(tradeRepository, tradeQueryRepository,
+                tradeBatchWriter, mock(TradeStatsService.class), deduplicator, importProperties,
+                mock(ApplicationEventPublisher.class), new ImportMetrics(meterRegistry),
+                new CsvImportPipeline(importProperties),
+                new TradeSourceFormats(List.of(new NamedColumnsFormat(), new PositionalColumnsFormat())),
+                mock(TradePartitionRepository.class), tradeSearchRepository);
+        // lenient: not every test imports
+        lenient().when(tradeBatchWriter.write(anyList())).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    private void givenStoredTrades(Trade... trades) {
+        List<Object[]> keys = new ArrayList<>();
+        List<Object[]> existing = new ArrayList<>();
+        long id = 0;
+        for (Trade t : trades) {
+            keys.add(new Object[]{++id, t.getSymbol(), t.getEntryPrice(), t.getTimestamp()});
+            existing.add(new Object[]{t.getSymbol(), t.getEntryPrice(), t.getTimestamp()});
+        }
+        when(tradeRepository.count()).thenReturn((long) trades.length);
+        when(tradeRepository.findKeysAfter(eq(0L), any())).thenReturn(keys);
+        if (trades.length > 0) {
+            when(tradeRepository.findExistingKeys(any(), any(), any())).thenReturn(existing);
+        }
     }
 
     @Test
     void importTradesFromExcel_importsAndSkipsDuplicates() throws Exception {
         // Prepare existing trades (duplicate AAPL row)
-        List<Trade> existing = new ArrayList<>();
         Trade existingTrade = new Trade();
         existingTrade.setSymbol("AAPL");
         existingTrade.setEntryPrice(100.0);
         existingTrade.setTimestamp(LocalDateTime.of(2025, 10, 15, 10, 0));
-        existing.add(existingTrade);
-        when(tradeRepository.findAll()).thenReturn(existing);
+        givenStoredTrades(existingTrade);
 
         // Prepare Excel file
         Workbook workbook = new XSSFWorkbook();
@@ -87,50 +141,223 @@ class TradesServiceImplTest {
                 "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", bos.toByteArray());
 
         // Run import
-        tradesService.importTradesFromExcel(file);
+        ImportResult result = tradesService.importTradesFromExcel(file);
 
         // ✅ Only the new trade should be saved
-        ArgumentCaptor<Trade> captor = ArgumentCaptor.forClass(Trade.class);
-        verify(tradeRepository, times(1)).save(captor.capture());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Trade>> captor = ArgumentCaptor.forClass(List.class);
+        verify(tradeBatchWriter, times(1)).write(captor.capture());
+        verify(tradeRepository, never()).save(any());
 
-        Trade saved = captor.getValue();
+        assertThat(captor.getValue()).hasSize(1);
+        Trade saved = captor.getValue().get(0);
         assertThat(saved.getSymbol()).isEqualTo("MSFT");
         assertThat(saved.getEntryPrice()).isEqualTo(200.0);
         assertThat(saved.getProfitLoss()).isEqualTo((250.0 - 200.0) * 5.0);
+        assertThat(saved.getTimestamp()).isEqualTo(ldt2);
+        assertThat(result.getRowsSkipped()).isEqualTo(1);
+    }
+
+    @Test
+    void importTradesFromExcel_combinesDateAndTimeColumns() throws Exception {
+        givenStoredTrades();
+
+        Workbook workbook = new XSSFWorkbook();
+        Sheet sheet = workbook.createSheet();
+        Row header = sheet.createRow(0);
+        header.createCell(0).setCellValue("Symbol");
+        Row row = sheet.createRow(1);
+        row.createCell(0).setCellValue("EURUSD");
+        row.createCell(1).setCellValue(1.0850);
+        row.createCell(2).setCellValue(1.0900);
+        row.createCell(3).setCellValue(1000.0);
+        row.createCell(4).setCellValue("16.10.2025");
+        row.createCell(5).setCellValue(DateUtil.convertTime("14:30:15"));
+        Row incomplete = sheet.createRow(2);
+        incomplete.createCell(0).setCellValue("TSLA");
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        workbook.write(bos);
+        workbook.close();
+        MockMultipartFile file = new MockMultipartFile("file", "trades.xlsx",
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", bos.toByteArray());
+
+        ImportResult result = tradesService.importTradesFromExcel(file);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Trade>> captor = ArgumentCaptor.forClass(List.class);
+        verify(tradeBatchWriter).write(captor.capture());
+        assertThat(captor.getValue()).singleElement()
+                .extracting(Trade::getTimestamp)
+                .isEqualTo(LocalDateTime.of(2025, 10, 16, 14, 30, 15));
+        assertThat(result.getRowsFailed()).isEqualTo(1);
     }
 
 
     @Test
     void importTradesFromCsv_importsAndSkipsDuplicates() throws Exception {
         // Prepare existing trades (duplicate AAPL)
-        List<Trade> existing = new ArrayList<>();
         Trade existingTrade = new Trade();
         existingTrade.setSymbol("AAPL");
         existingTrade.setEntryPrice(100.0);
         existingTrade.setTimestamp(LocalDateTime.of(2025, 10, 15, 10, 0));
-        existing.add(existingTrade);
-        when(tradeRepository.findAll()).thenReturn(existing);
+        givenStoredTrades(existingTrade);
 
-        // Prepare CSV content (header + duplicate AAPL + new MSFT)
+        // Prepare CSV content (header + duplicate AAPL + new MSFT + MSFT again in the same file)
         StringBuilder sb = new StringBuilder();
         sb.append("symbol,entryPrice,exitPrice,quantity,profitLoss,timestamp,tags,notes\n");
         sb.append("AAPL,100.0,120.0,10.0,,2025-10-15T10:00:00,\"tech;bluechip\",\"existing trade\"\n");
         sb.append("MSFT,200.0,250.0,5.0,,2025-10-16T11:00:00,\"tech\",\"new trade\"\n");
+        sb.append("MSFT,200.0,250.0,5.0,,16.10.2025 11:00:00,\"tech\",\"same trade again\"\n");
 
         MockMultipartFile file = new MockMultipartFile("file", "trades.csv", "text/csv", sb.toString().getBytes());
 
         // Run import
-        tradesService.importTradesFromCsv(file);
+        ImportResult result = tradesService.importTradesFromCsv(file);
 
         // Verify only the new trade is saved
-        ArgumentCaptor<Trade> captor = ArgumentCaptor.forClass(Trade.class);
-        verify(tradeRepository, times(1)).save(captor.capture());
-        Trade saved = captor.getValue();
-        assertThat(saved.getSymbol()).isEqualTo("MSFT");
-        assertThat(saved.getEntryPrice()).isEqualTo(200.0);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Trade>> captor = ArgumentCaptor.forClass(List.class);
+        verify(tradeBatchWriter, times(1)).write(captor.capture());
+        verify(tradeRepository, never()).save(any());
+        List<Trade> saved = captor.getValue();
+        assertThat(saved).extracting(Trade::getSymbol).containsExactly("MSFT");
+        Trade msft = saved.get(0);
+        assertThat(msft.getEntryPrice()).isEqualTo(200.0);
         // profitLoss computed: (250 - 200) * 5 = 250.0
-        assertThat(saved.getProfitLoss()).isEqualTo((250.0 - 200.0) * 5.0);
-        assertThat(saved.getTags()).contains("tech");
-        assertThat(saved.getNotes()).contains("new trade");
+        assertThat(msft.getProfitLoss()).isEqualTo((250.0 - 200.0) * 5.0);
+        assertThat(msft.getTimestamp()).isEqualTo(LocalDateTime.of(2025, 10, 16, 11, 0));
+        assertThat(msft.getTags()).contains("tech");
+        assertThat(msft.getNotes()).contains("new trade");
+
+        assertThat(result.getRowsParsed()).isEqualTo(3);
+        assertThat(result.getRowsInserted()).isEqualTo(1);
+        assertThat(result.getRowsSkipped()).isEqualTo(2);
+
+        assertThat(meterRegistry.get("tradesense.import.rows").tags("format", "csv", "result", "skipped")
+                .counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("tradesense.import.duration").tags("outcome", "success").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void importTradesFromCsv_rejectsRowsWithoutTimestamp() throws Exception {
+        byte[] csv = "symbol,entryPrice,exitPrice,quantity,timestamp\nAAPL,100.0,120.0,10.0,\n".getBytes();
+
+        // imported twice, e.g. after editing another row of the file
+        for (int i = 0; i < 2; i++) {
+            ImportResult result = tradesService.importTradesFromCsv(
+                    new MockMultipartFile("file", "trades.csv", "text/csv", csv));
+
+            assertThat(result.getRowsFailed()).isEqualTo(1);
+            assertThat(result.getRowsInserted()).isZero();
+        }
+        verify(tradeBatchWriter, never()).write(anyList());
+    }
+
+    @Test
+    void importTradesFromCsv_flushesInChunksOfBatchSize() throws Exception {
+        givenStoredTrades();
+
+        StringBuilder sb = new StringBuilder("symbol,entryPrice,exitPrice,quantity,timestamp\n");
+        for (int i = 0; i < 5; i++) {
+            sb.append("SYM").append(i).append(",1.0,2.0,1.0,16.10.2025 11:00:00\n");
+        }
+        MockMultipartFile file = new MockMultipartFile("file", "trades.csv", "text/csv", sb.toString().getBytes());
+
+        ImportResult result = tradesService.importTradesFromCsv(file);
+
+        // batch size 2 -> 2 + 2 + 1
+        verify(tradeBatchWriter, times(3)).write(anyList());
+        assertThat(result.getRowsInserted()).isEqualTo(5);
+    }
+
+    @Test
+    void importTradesFromCsv_keepsFileOrderAcrossParallelChunks() throws Exception {
+        givenStoredTrades();
+
+        StringBuilder sb = new StringBuilder("symbol,entryPrice,exitPrice,quantity,timestamp,notes\n");
+        for (int i = 0; i < 200; i++) {
+            sb.append("SYM").append(i).append(",1.0,2.0,1.0,16.10.2025 11:00:00,\"line\nbreak\"\n");
+        }
+        // duplicate of the first row, many chunks later, and a broken row
+        sb.append("SYM0,1.0,3.0,1.0,16.10.2025 11:00:00,\n");
+        sb.append(",1.0,3.0,1.0,16.10.2025 11:00:00,\n");
+        MockMultipartFile file = new MockMultipartFile("file", "trades.csv", "text/csv", sb.toString().getBytes());
+
+        ImportResult result = tradesService.importTradesFromCsv(file);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Trade>> captor = ArgumentCaptor.forClass(List.class);
+        verify(tradeBatchWriter, times(100)).write(captor.capture());
+        List<String> symbols = captor.getAllValues().stream().flatMap(List::stream).map(Trade::getSymbol).toList();
+        assertThat(symbols).hasSize(200);
+        for (int i = 0; i < 200; i++) {
+            assertThat(symbols.get(i)).isEqualTo("SYM" + i);
+        }
+        assertThat(result.getRowsParsed()).isEqualTo(202);
+        assertThat(result.getRowsSkipped()).isEqualTo(1);
+        assertThat(result.getRowsFailed()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ImportFormat.class)
+    void exportTrades_roundTripsThroughImport(ImportFormat format) throws Exception {
+        List<TradeView> stored = List.of(
+                new TradeView(1, "AAPL", 100.5, 120.0, 10.0, 195.0, LocalDateTime.of(2025, 10, 16, 9, 30, 15),
+                        List.of("swing", "tech"), "note, with \"quotes\"\nand a line break"),
+                new TradeView(2, "EURUSD", 1.0850, 1.0801, 1000.0, -4.9, LocalDateTime.of(2025, 10, 17, 14, 0),
+                        List.of(), null));
+        doAnswer(inv -> {
+            Consumer<TradeView> consumer = inv.getArgument(1);
+            stored.forEach(consumer);
+            return null;
+        }).when(tradeQueryRepository).streamAll(any(TradeFilter.class), any());
+        givenStoredTrades();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        tradesService.exportTrades(new TradeFilter(null, null, null, null), format, out);
+        MockMultipartFile file = new MockMultipartFile("file", "trades" + format.getExtension(), null, out.toByteArray());
+        ImportResult result = format == ImportFormat.CSV
+                ? tradesService.importTradesFromCsv(file)
+                : tradesService.importTradesFromExcel(file);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Trade>> captor = ArgumentCaptor.forClass(List.class);
+        verify(tradeBatchWriter, atLeastOnce()).write(captor.capture());
+        List<TradeView> imported = captor.getAllValues().stream().flatMap(List::stream)
+                .map(t -> new TradeView(0, t.getSymbol(), t.getEntryPrice(), t.getExitPrice(), t.getQuantity(),
+                        t.getProfitLoss(), t.getTimestamp(), t.getTags().stream().sorted().toList(), t.getNotes()))
+                .toList();
+        assertThat(result.getRowsFailed()).isZero();
+        assertThat(imported).usingRecursiveFieldByFieldElementComparatorIgnoringFields("id", "profitLoss")
+                .containsExactlyElementsOf(stored);
+    }
+
+    @Test
+    void searchTrades_pagesByRankCursor() {
+        TradeFilter filter = new TradeFilter(null, null, null, null);
+        LocalDateTime ts = LocalDateTime.of(2025, 3, 5, 10, 0);
+        TradeSearchHit first = new TradeSearchHit(
+                new TradeView(7L, "AAPL", 1.0, 2.0, 1.0, 1.0, ts, List.of("breakout"), "clean breakout"), 1.4f, null);
+        TradeSearchHit second = new TradeSearchHit(
+                new TradeView(3L, "AAPL", 1.0, 2.0, 1.0, 1.0, ts, List.of(), "late breakout"), 0.4f, null);
+        when(tradeSearchRepository.search("breakout", filter, null, 2))
+                .thenReturn(new TradeSearchRepository.Result(List.of(first, second), true));
+
+        TradeSearchPage page = tradesService.searchTrades("breakout", filter, null, 1);
+
+        assertThat(page.items()).containsExactly(first);
+        assertThat(page.nextCursor()).isNotNull();
+        assertThat(page.truncated()).isTrue();
+
+        when(tradeSearchRepository.search("breakout", filter, new TradeSearchCursor(1.4f, ts, 7L), 2))
+                .thenReturn(new TradeSearchRepository.Result(List.of(second), true));
+        TradeSearchPage last = tradesService.searchTrades("breakout", filter, page.nextCursor(), 1);
+        assertThat(last.nextCursor()).isNull();
+        assertThat(last.truncated()).isTrue();
+
+        assertThatThrownBy(() -> tradesService.searchTrades(" ", filter, null, 1))
+                .isInstanceOf(IllegalArgumentException.class);
     }
-}
\ No newline at end of file
+}
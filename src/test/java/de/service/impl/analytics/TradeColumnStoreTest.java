@@ -0,0 +1,96 @@
+package de.service.impl.analytics;
+
+import de.model.stats.AnalyticsFilter;
+import de.model.stats.EquityPoint;
+import de.model.stats.GroupStats;
+import de.model.trade.Trade;
+import de.model.trade.TradeView;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TradeColumnStoreTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 10, 16, 9, 30);
+
+    @Test
+    void groupsLoadedTradesBySymbolTagHourAndDay() {
+        TradeColumnStore store = new TradeColumnStore(null);
+        store.loadFrom(List.of(
+                view(1, "AAPL", 10.0, DAY, "swing"),
+                view(2, "AAPL", -4.0, DAY.plusHours(1), "swing", "news"),
+                view(3, "MSFT", 6.0, DAY.plusDays(1), "news")));
+
+        TradeColumns columns = store.snapshot();
+
+        assertThat(columns.bySymbol()).containsExactly(
+                GroupStats.of("AAPL", 2, 6.0, 1),
+                GroupStats.of("MSFT", 1, 6.0, 1));
+        assertThat(columns.byTag()).containsExactly(
+                GroupStats.of("swing", 2, 6.0, 1),
+                GroupStats.of("news", 2, 2.0, 1));
+        assertThat(columns.summary("AAPL", "news")).isEqualTo(GroupStats.of("AAPL/news", 1, -4.0, 0));
+        assertThat(columns.summary("TSLA", null).trades()).isZero();
+        assertThat(columns.byHourOfDay().get(9)).isEqualTo(GroupStats.of("09", 2, 16.0, 2));
+        assertThat(columns.equityByDay()).containsExactly(
+                new EquityPoint(LocalDate.of(2025, 10, 16), 2, 6.0, 6.0, 0.0),
+                new EquityPoint(LocalDate.of(2025, 10, 17), 1, 6.0, 12.0, 0.0));
+    }
+
+    @Test
+    void appendsImportedTradesWithoutChangingEarlierSnapshots() {
+        TradeColumnStore store = new TradeColumnStore(null);
+        store.loadFrom(List.of(view(1, "AAPL", 10.0, DAY, "swing")));
+        TradeColumns before = store.snapshot();
+
+        List<Trade> imported = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Trade t = new Trade("SYM" + (i % 7), 100.0, 99.0, 1.0, null, DAY.minusMinutes(i), Set.of("swing"), null);
+            t.setId(10L + i);
+            imported.add(t);
+        }
+        Trade alreadyLoaded = new Trade("AAPL", 0.0, 10.0, 1.0, null, DAY, Set.of("swing"), null);
+        alreadyLoaded.setId(1L);
+        imported.add(alreadyLoaded);
+        store.append(imported);
+
+        TradeColumns after = store.snapshot();
+        assertThat(after.size()).isEqualTo(5001);
+        assertThat(after.summary(null, "swing")).isEqualTo(GroupStats.of("swing", 5001, 10.0 - 5000, 1));
+        assertThat(before.size()).isEqualTo(1);
+        assertThat(before.summary(null, "swing")).isEqualTo(GroupStats.of("swing", 1, 10.0, 1));
+    }
+
+    @Test
+    void summarizesTagsWithAndNotWithinTimeRange() {
+        TradeColumnStore store = new TradeColumnStore(null);
+        LocalDateTime q3 = LocalDateTime.of(2025, 7, 1, 0, 0);
+        store.loadFrom(List.of(
+                view(1, "AAPL", 10.0, q3.plusDays(3), "momentum"),
+                view(2, "AAPL", -4.0, q3.plusDays(4), "momentum", "news"),
+                view(3, "MSFT", 6.0, q3.plusMonths(1), "momentum", "swing"),
+                view(4, "MSFT", 8.0, q3.minusDays(1), "momentum"),
+                view(5, "TSLA", 3.0, q3.plusMonths(3), "momentum")));
+        TradeColumns columns = store.snapshot();
+
+        AnalyticsFilter momentumNotNewsInQ3 = new AnalyticsFilter(null, List.of("momentum"), List.of("news"),
+                q3, q3.plusMonths(3));
+        assertThat(columns.summary(momentumNotNewsInQ3)).isEqualTo(GroupStats.of("momentum/-news", 2, 16.0, 2));
+        assertThat(columns.summary(new AnalyticsFilter("MSFT", List.of("momentum", "swing"), null, null, null)))
+                .isEqualTo(GroupStats.of("MSFT/momentum/swing", 1, 6.0, 1));
+        assertThat(columns.summary(new AnalyticsFilter(null, null, List.of("momentum"), null, null)).trades()).isZero();
+        assertThat(columns.summary(new AnalyticsFilter(null, List.of("unknown"), null, null, null)).trades()).isZero();
+        // the bitmaps of the snapshot are unchanged by the queries
+        assertThat(columns.summary(null, "momentum")).isEqualTo(GroupStats.of("momentum", 5, 23.0, 4));
+    }
+
+    private static TradeView view(long id, String symbol, double profitLoss, LocalDateTime ts, String... tags) {
+        return new TradeView(id, symbol, 0.0, profitLoss, 1.0, profitLoss, ts, List.of(tags), null);
+    }
+}
@@ -0,0 +1,52 @@
+package de.service.impl.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvChunkReaderTest {
+
+    @Test
+    void chunksTokenizeLikeTheWholeInput() throws Exception {
+        String csv = "a,\"b\nc\",d\r\n"
+                + "\"x,\"\"y\"\"\",z\r"
+                + "\n"
+                + "lone,cr\r"
+                + "  \"quoted\r\nbreak\" ,tail\n"
+                + "no\"quote,field\n"
+                + "last,record";
+        List<String> expected = records(new CsvTokenizer(new StringReader(csv)));
+
+        for (int chunkSize = 1; chunkSize <= csv.length(); chunkSize++) {
+            CsvChunkReader reader = new CsvChunkReader(new StringReader(csv), ',', chunkSize);
+            List<String> actual = new ArrayList<>();
+            CsvChunk chunk;
+            while ((chunk = reader.next()) != null) {
+                actual.addAll(records(new CsvTokenizer(chunk, ',')));
+            }
+            assertThat(actual).as("chunk size %d", chunkSize).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void emptyInputHasNoChunks() throws Exception {
+        assertThat(new CsvChunkReader(new StringReader(""), ',', 16).next()).isNull();
+    }
+
+    // line number and fields of every record
+    private static List<String> records(CsvTokenizer tokenizer) throws Exception {
+        List<String> records = new ArrayList<>();
+        while (tokenizer.next()) {
+            StringBuilder sb = new StringBuilder().append(tokenizer.getLineNumber()).append(':');
+            for (int i = 0; i < tokenizer.getFieldCount(); i++) {
+                sb.append('[').append(tokenizer.getString(i)).append(']');
+            }
+            records.add(sb.toString());
+        }
+        return records;
+    }
+}
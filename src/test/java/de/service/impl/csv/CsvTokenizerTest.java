@@ -0,0 +1,80 @@
+package de.service.impl.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvTokenizerTest {
+
+    @Test
+    void splitsQuotedFieldsWithDelimitersQuotesAndLineBreaks() throws Exception {
+        String csv = "a, b ,\"c,d\",\"say \"\"hi\"\"\"\r\n"
+                + "\"multi\nline\",,x\n"
+                + "last";
+        try (CsvTokenizer tokenizer = new CsvTokenizer(new StringReader(csv))) {
+            assertThat(tokenizer.next()).isTrue();
+            assertThat(tokenizer.getLineNumber()).isEqualTo(1);
+            assertThat(tokenizer.getFieldCount()).isEqualTo(4);
+            assertThat(tokenizer.getString(0)).isEqualTo("a");
+            assertThat(tokenizer.getString(1)).isEqualTo("b");
+            assertThat(tokenizer.getString(2)).isEqualTo("c,d");
+            assertThat(tokenizer.getString(3)).isEqualTo("say \"hi\"");
+
+            assertThat(tokenizer.next()).isTrue();
+            assertThat(tokenizer.getLineNumber()).isEqualTo(2);
+            assertThat(tokenizer.getString(0)).isEqualTo("multi\nline");
+            assertThat(tokenizer.getString(1)).isNull();
+            assertThat(tokenizer.getString(2)).isEqualTo("x");
+
+            assertThat(tokenizer.next()).isTrue();
+            assertThat(tokenizer.getLineNumber()).isEqualTo(4);
+            assertThat(tokenizer.getString(0)).isEqualTo("last");
+            assertThat(tokenizer.getString(5)).isNull();
+
+            assertThat(tokenizer.next()).isFalse();
+        }
+    }
+
+    @Test
+    void parsesDoublesLikeDoubleParseDouble() {
+        for (String s : new String[]{"0", "100.5", "-3.25", "0.1", "0.001", "123456789.123456789", "1e3", "+7", "12345678901234567890"}) {
+            char[] chars = s.toCharArray();
+            assertThat(CsvTokenizer.parseDouble(chars, 0, chars.length)).as(s).isEqualTo(Double.parseDouble(s));
+        }
+        char[] comma = "1,5".toCharArray();
+        assertThat(CsvTokenizer.parseDouble(comma, 0, comma.length)).isEqualTo(1.5);
+        char[] invalid = "12abc".toCharArray();
+        assertThat(CsvTokenizer.parseDouble(invalid, 0, invalid.length)).isNaN();
+    }
+
+    @Test
+    void parsesGermanAndIsoTimestamps() {
+        char[] german = "16.10.2025 13:45:30".toCharArray();
+        char[] iso = "2025-10-16T13:45:30".toCharArray();
+        char[] noSeconds = "16.10.2025 13:45".toCharArray();
+        char[] invalid = "32.10.2025 13:45:30".toCharArray();
+        char[] date = "16.10.2025".toCharArray();
+        LocalDateTime expected = LocalDateTime.of(2025, 10, 16, 13, 45, 30);
+
+        assertThat(CsvTokenizer.parseTimestamp(german, 0, german.length)).isEqualTo(expected);
+        assertThat(CsvTokenizer.parseTimestamp(iso, 0, iso.length)).isEqualTo(expected);
+        assertThat(CsvTokenizer.parseTimestamp(noSeconds, 0, noSeconds.length)).isEqualTo(expected.withSecond(0));
+        assertThat(CsvTokenizer.parseTimestamp(invalid, 0, invalid.length)).isNull();
+        assertThat(CsvTokenizer.parseTimestamp(date, 0, date.length)).isEqualTo(expected.toLocalDate().atStartOfDay());
+    }
+
+    @Test
+    void splitsTagFields() throws Exception {
+        try (CsvTokenizer tokenizer = new CsvTokenizer(new StringReader("\"tech; bluechip|swing, \"\n"))) {
+            tokenizer.next();
+            List<String> tags = new ArrayList<>();
+            tokenizer.splitInto(0, tags);
+            assertThat(tags).containsExactly("tech", "bluechip", "swing");
+        }
+    }
+}
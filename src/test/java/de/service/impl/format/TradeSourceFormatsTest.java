@@ -0,0 +1,29 @@
+package de.service.impl.format;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TradeSourceFormatsTest {
+
+    private final TradeSourceFormats formats =
+            new TradeSourceFormats(List.of(new NamedColumnsFormat(), new PositionalColumnsFormat()));
+
+    @Test
+    void resolvesNamedColumnsInAnyOrderAndSpelling() {
+        TradeRowMapper mapper = formats.compile(
+                Arrays.asList("Notes", "\uFEFFTicker", "Entry Price", "exit_price", "Qty", "Date", "Time", null, "Tags"));
+
+        assertThat(mapper).isEqualTo(new ColumnPlan(1, 2, 3, 4, 5, 6, 8, 0, false));
+    }
+
+    @Test
+    void fallsBackToPositionalColumns() {
+        TradeRowMapper mapper = formats.compile(Arrays.asList("Symbol", "Einstieg", "Ausstieg", "Menge", "Datum"));
+
+        assertThat(mapper).isEqualTo(new ColumnPlan(0, 1, 2, 3, 4, 5, -1, -1, true));
+    }
+}
@@ -0,0 +1,4 @@
+-- Schema as Hibernate 6 created it with ddl-auto=update from the original Trade entity
+create table trade_tags (trade_id bigint not null, tag varchar(255));
+create table trades (entry_price float(53), exit_price float(53), profit_loss float(53), quantity float(53), id bigint generated by default as identity, timestamp timestamp(6), notes TEXT, symbol varchar(255) not null, primary key (id));
+alter table if exists trade_tags add constraint FKt3bq1v8x6yoc4w9hxm0en5kcy foreign key (trade_id) references trades;